@@ -19,7 +19,9 @@ import com.words.controller.sound.downloadmp3.Mp3Downloader;
 import com.words.controller.words.Word;
 import com.words.controller.words.wordkinds.display.WordDisplayType;
 import com.words.controller.words.wordkinds.WordType;
+import com.words.model.AsyncModel;
 import com.words.model.Model;
+import com.words.model.WriteBehindModel;
 import com.words.controller.utils.DateTimeUtils;
 import com.words.controller.utils.Utils;
 import com.words.controller.words.WordFactory;
@@ -40,7 +42,7 @@ import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -48,6 +50,8 @@ import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.Random;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -71,11 +75,16 @@ public final class Controller {
     public static final String SOUND_DIR_NAME = "sound";
     
     private static final int EBBINGHAUS_WORD_COUNT = 4;
+    // random words are drawn from several bundles
+    private static final int RANDOM_CANDIDATES_PER_WORD = 5;
     
     private static final long MIN_DELAY = 800L; // min delay between words
     
     private final Model model;
     
+    // model calls which do I/O
+    private final AsyncModel asyncModel;
+    
     private final WordPool wordPool;
     
     private int iters;
@@ -130,8 +139,30 @@ public final class Controller {
     private AutomaticDefinition definitionDownloader = null;
     private Mp3Downloader mp3Downloader = null;
     
+    // word drawn ahead of time with its assets loaded in the background
+    private static class Prefetched {
+        private final Word instance;
+        // word at the time of the draw, word can be renamed since
+        private final String word;
+        private final CompletableFuture<String> definition;
+        // preloaded mp3 file, null if there is no file
+        private final CompletableFuture<Path> mp3File;
+        
+        private Prefetched(Word instance, String word,
+            CompletableFuture<String> definition,
+            CompletableFuture<Path> mp3File) {
+            this.instance = instance;
+            this.word = word;
+            this.definition = definition;
+            this.mp3File = mp3File;
+        }
+    }
+    
+    private volatile Prefetched prefetched = null;
+    
     public Controller(Model mdl, Path projectDirectory) throws IOException {
         this.model = mdl;
+        asyncModel = new AsyncModel(mdl);
         
         this.projectDirectory = projectDirectory;
         soundDirectory = projectDirectory.resolve(SOUND_DIR_NAME);
@@ -189,6 +220,13 @@ public final class Controller {
                 controllerExec.awaitTermination(10, TimeUnit.SECONDS);
             } catch (InterruptedException ex) { }
             
+            // write pending model changes and close model
+            asyncModel.close();
+            if (model instanceof WriteBehindModel) {
+                System.out.println("Write-behind statistics: " +
+                    ((WriteBehindModel) model).getStatistics());
+            }
+            
             System.out.println("Cleaned up controller");
         }));
     }
@@ -204,12 +242,10 @@ public final class Controller {
             if (pre != null) pre.run();
             console.addErrorMessage("Starting backing up");
             
-            synchronized(model) {
-                model.backup();
-            }
-            
-            console.addErrorMessage("Backup has been completed");
-            if (post != null) post.run();
+            asyncModel.backup().thenRun(() -> {
+                console.addErrorMessage("Backup has been completed");
+                if (post != null) post.run();
+            });
         });
     }
     
@@ -282,7 +318,13 @@ public final class Controller {
         currentWord = wordPool.nextWord(timestamp, previousWord.getWord());
         wordType = wordDisplayStrategy.getNextType(iters, currentWord);
         
+        // picked word can be in other pools, decorators pick words which
+        // are in the main pool as well
+        wordPool.wordChanged(currentWord);
+        WordFactory.wordChanged(currentWord);
+        
         updateLastPickedTimestamp(currentWord.getWord(), timestamp);
+        usePrefetchedMp3(currentWord);
         
         stateChanged(true);
         
@@ -291,6 +333,52 @@ public final class Controller {
         autoPronounceWord();
         
         verifyKnowledge();
+        
+        prefetchNextWord(timestamp);
+    }
+    
+    // draws the next word while the user looks at the current one
+    // and loads its mp3 file and definition in the background
+    private void prefetchNextWord(long timestamp) {
+        Word next = wordPool.prefetchNextWord(timestamp);
+        
+        // decorators choose their word only when picked
+        if (next == null || !next.isSingleWord() || next.getWord() == null) {
+            prefetched = null;
+            return;
+        }
+        
+        // word isn't touched in the background, found file is set
+        // by nextWord on the gui thread
+        String word = next.getWord();
+        Path knownMp3File = next.getMp3File();
+        CompletableFuture<Path> mp3File = CompletableFuture.supplyAsync(() -> {
+            Path file = knownMp3File != null ? knownMp3File :
+                soundDirectory.resolve(Utils.getMp3FileName(word));
+            return Files.exists(file) && PlayMp3.preload(file) ? file : null;
+        }, controllerExec);
+        
+        prefetched = new Prefetched(next, word,
+            asyncModel.getDefinition(word), mp3File);
+    }
+    
+    // sets mp3 file found by the prefetch if the word is still the same
+    private void usePrefetchedMp3(Word word) {
+        Prefetched next = prefetched;
+        if (next == null || next.instance != word ||
+            !next.word.equals(word.getWord())) return;
+        
+        Path mp3File = next.mp3File.getNow(null);
+        if (mp3File != null && word.getMp3File() == null)
+            word.setMp3File(mp3File);
+    }
+    
+    // stored definition, prefetched one if it's available
+    private CompletableFuture<String> storedDefinition(String word) {
+        Prefetched next = prefetched;
+        if (next != null && next.word.equals(word)) return next.definition;
+        
+        return asyncModel.getDefinition(word);
     }
     
     // verify knowledge by showing verify dialogs with small probability
@@ -313,8 +401,7 @@ public final class Controller {
     }
     
     private void updateLastPickedTimestamp(String word, long timestamp) {
-        controllerExec.execute(() ->
-            model.setLastPickedTimestamp(word, timestamp));
+        asyncModel.setLastPickedTimestamp(word, timestamp);
     }
     
     /**
@@ -454,8 +541,7 @@ public final class Controller {
         settings.setSoundPreferences(soundPrefs);
         settings.setTooltipPreferences(tooltipPrefs);
         
-        int oldIters = model.getTodayIterations();
-        if (oldIters < iters) model.setTodayIterations(iters);
+        asyncModel.updateTodayIterations(iters);
         
         settings.setWordLog(console.getWordLog());
     }
@@ -486,12 +572,14 @@ public final class Controller {
     }
     
     /**
-     * Get words bundle.
-     * @param bundle bundle
-     * @return words or empty list
+     * Get words bundle without blocking the caller.
+     * @param bundle bundle or null for the last bundle
+     * @return future words or empty list
      */
-    public Collection<Word> getWordsBundle(LocalDate bundle) {
-        return model.getBundle(bundle);
+    public CompletableFuture<Collection<Word>> getWordsBundleAsync(
+        LocalDate bundle) {
+        if (bundle != null) return asyncModel.getBundle(bundle);
+        return asyncModel.getLastWords();
     }
     
     /**
@@ -517,9 +605,7 @@ public final class Controller {
     * @param list words
     */
     private void saveWordBundle(LocalDate bundle, Collection<Word> list) {
-        controllerExec.execute(() -> {
-            model.addNewBundle(bundle, list);
-            
+        asyncModel.addNewBundle(bundle, list).thenRun(() -> {
             PlayWav.notification();
             
             modelChanged();
@@ -528,96 +614,112 @@ public final class Controller {
     }
     
     /**
-     * Last bundle name. Required to initialize bundle panel.
-     * @return actual last bundle name
-     */
-    public LocalDate getLastBundleName() {
-        return model.getLastBundleName();
-    }
-    
-    /**
-     * Future words
+     * Future words without blocking the caller.
      * @return future words
      */
-    public Collection<String> getFutureWords() {
-        Collection<String> futureList = new LinkedList<>();
-        futureList.addAll(model.getFutureWords().keySet());
-        return futureList;
+    public CompletableFuture<Collection<String>> getFutureWordsAsync() {
+        return asyncModel.getFutureWords()
+            .thenApply(map -> new LinkedList<>(map.keySet()));
     }
     
     /**
-     * Update future words.
+     * Update future words without blocking the caller.
+     * Future completes exceptionally with FwEmptyWordException if word is
+     * effectively empty, FwAlreadyUsedException if the word is already
+     * in use and FwTimeoutException if not enough time has passed.
      * @param word word to add, can be represented by word and translation
      *             delimited by " - " (space hyphen space)
      *             translation is optional
-     * @throws FwEmptyWordException if word is effectively empty
-     * @throws FwAlreadyUsedException if the word is already in use
-     * @throws FwTimeoutException if not enough time has passed
+     * @return future completed after the update
      */
-    public void updateFutureWords(String word) throws
-        FwEmptyWordException, FwAlreadyUsedException, FwTimeoutException {
-        word = word.trim().toLowerCase();
-        
-        if (word.isEmpty()) throw new FwEmptyWordException();
+    public CompletableFuture<Void> updateFutureWords(String word) {
+        String futureWord = word.trim().toLowerCase();
         
-        if (wordExists(word.split(" - ")[0]))
-            throw new FwAlreadyUsedException();
-        
-        if (model.getFutureWords().containsKey(word) &&
-            !model.getFutureWords().get(word).hasEnoughTimePassed())
-            throw new FwTimeoutException();
+        if (futureWord.isEmpty()) {
+            CompletableFuture<Void> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new FwEmptyWordException());
+            return failed;
+        }
         
-        executeFutureWordsUpdate(word);
+        return asyncModel.wordExists(futureWord.split(" - ")[0]).thenCombine(
+            asyncModel.getFutureWords(), (exists, futureWords) -> {
+                if (exists)
+                    throw new CompletionException(new FwAlreadyUsedException());
+                
+                FutureWord fw = futureWords.get(futureWord);
+                if (fw != null && !fw.hasEnoughTimePassed())
+                    throw new CompletionException(new FwTimeoutException());
+                
+                return futureWord;
+            }).thenCompose(this::executeFutureWordsUpdate);
     }
     
     // Update future words in a separate thread.
-    private void executeFutureWordsUpdate(final String word) {
-        controllerExec.execute(() -> {
-            model.updateFutureWord(word);
+    private CompletableFuture<Void> executeFutureWordsUpdate(
+        final String word) {
+        return asyncModel.updateFutureWord(word).thenRun(() ->
             console.addErrorMessage("Added future word «" +
-                word.split(" - ")[0] + "»");
-        });
+                word.split(" - ")[0] + "»"));
     }
     
     /**
-     * Creates new word bundle.
+     * Creates new word bundle without blocking the caller.
      * @param amount number of words to generate
-     * @return Word list or empty list if creation failed
+     * @return future word list or empty list if creation failed
      */
-    public List<Word> generateNewBundle(int amount) {
+    public CompletableFuture<List<Word>> generateNewBundle(int amount) {
         LocalDate bundle = DateTimeUtils.getCurrentLocalDate();
-        List<Word> bundleList = new ArrayList<>();
-        
-        if (model.isExistingBundle(bundle)) return bundleList;
         
-        NavigableSet<FutureWord> treeSet = new TreeSet<>();
-        treeSet.addAll(model.getFutureWords().values());
-        List<String> futureWordsToDelete = new ArrayList<>();
+        return asyncModel.isExistingBundle(bundle).thenCompose(exists ->
+            exists ? CompletableFuture.completedFuture(new ArrayList<>()) :
+                asyncModel.getFutureWords().thenCompose(futureWords ->
+                    generateNewBundle(bundle, amount, futureWords.values())));
+    }
+    
+    // creates bundle of the first future words which don't exist yet
+    private CompletableFuture<List<Word>> generateNewBundle(LocalDate bundle,
+        int amount, Collection<FutureWord> futureWords) {
+        NavigableSet<FutureWord> treeSet = new TreeSet<>(futureWords);
+        List<FutureWord> chosenWords = new ArrayList<>();
+        List<CompletableFuture<Boolean>> existing = new ArrayList<>();
         
         for (int i = 0; i < amount; i++) {
             FutureWord fw = treeSet.pollFirst();
             if (fw == null) break;
             
-            futureWordsToDelete.add(fw.getWord());
+            chosenWords.add(fw);
+            existing.add(asyncModel.wordExists(
+                Utils.formatString(fw.getWord().split(" - ")[0])));
+        }
+        
+        return CompletableFuture.allOf(existing.toArray(
+            new CompletableFuture<?>[existing.size()])).thenApply(ignored -> {
+            List<Word> bundleList = new ArrayList<>();
+            List<String> futureWordsToDelete = new ArrayList<>();
             
-            if (!model.wordExists(Utils.formatString(fw.getWord().split(" - ")[0]))) {
-                Word w = WordFactory.newWord();
-                w.setWord(fw.getWord());
-                w.setTranslation(fw.getDateAdded() + ";" +
-                    fw.getDateChanged() + ";" + fw.getPriority());
-                w.setBundle(bundle);
+            for (int i = 0; i < chosenWords.size(); i++) {
+                FutureWord fw = chosenWords.get(i);
+                futureWordsToDelete.add(fw.getWord());
                 
-                bundleList.add(w);
-            } else {
-                console.addErrorMessage(
-                    fw.getWord() + " already exists in the model");
+                if (!existing.get(i).join()) {
+                    Word w = WordFactory.newWord();
+                    w.setWord(fw.getWord());
+                    w.setTranslation(fw.getDateAdded() + ";" +
+                        fw.getDateChanged() + ";" + fw.getPriority());
+                    w.setBundle(bundle);
+                    
+                    bundleList.add(w);
+                } else {
+                    console.addErrorMessage(
+                        fw.getWord() + " already exists in the model");
+                }
             }
-        }
-        
-        saveWordBundle(bundle, bundleList);
-        deleteFutureWords(futureWordsToDelete);
-        
-        return bundleList;
+            
+            saveWordBundle(bundle, bundleList);
+            deleteFutureWords(futureWordsToDelete);
+            
+            return bundleList;
+        });
     }
     
     /**
@@ -629,7 +731,7 @@ public final class Controller {
             words.stream().map(word -> word.trim().toLowerCase())
                 .filter(word -> !word.isEmpty()).collect(Collectors.toList());
         
-        controllerExec.execute(() -> model.deleteFutureWords(formattedWords));
+        asyncModel.deleteFutureWords(formattedWords);
         
         formattedWords.stream().map(word -> word.split(" - ")[0])
             .forEach(word -> console.addErrorMessage(
@@ -637,13 +739,12 @@ public final class Controller {
     }
     
     /**
-     * AllWords as list.
-     * @return all words
+     * AllWords as list without blocking the caller.
+     * @return future all words
      */
-    public List<Word> getAllWordsAsList() {
-        List<Word> allWordsList = new ArrayList<>();
-        allWordsList.addAll(model.getAllWords().values());
-        return allWordsList;
+    public CompletableFuture<List<Word>> getAllWordsAsListAsync() {
+        return asyncModel.getAllWords()
+            .thenApply(map -> new ArrayList<>(map.values()));
     }
     
     /**
@@ -672,6 +773,8 @@ public final class Controller {
             addRepeatWord(word);
         }
         
+        wordPool.weightsChanged();
+        WordFactory.weightsChanged();
         if (repeatWordCb != null) repeatWordCb.accept(word, parent);
         
         modelChanged();
@@ -691,7 +794,7 @@ public final class Controller {
         
         WordFactory.addRepeatWord(wordToAdd);
         
-        controllerExec.execute(() -> model.addRepeatWord(word.getWord()));
+        asyncModel.addRepeatWord(word.getWord());
         
         console.addErrorMessage("Marked word «" + word.getWord() +
             "» for repeating");
@@ -707,11 +810,9 @@ public final class Controller {
         
         WordFactory.deleteRepeatWord(wordToDelete);
         
-        controllerExec.execute(() -> {
-            model.deleteRepeatWord(wordToDelete.getWord());
+        asyncModel.deleteRepeatWord(wordToDelete.getWord()).thenRun(() ->
             console.addErrorMessage("Word «" + wordToDelete.getWord() +
-                "» is not marked for repeating anymore");
-        });
+                "» is not marked for repeating anymore"));
     }
     
     /**
@@ -751,8 +852,7 @@ public final class Controller {
             wordPool.addWordToQueue(word);
         }
         
-        controllerExec.execute(() -> {
-            model.addNewWord(word);
+        asyncModel.addNewWord(word).thenRun(() -> {
             console.addErrorMessage("Added «" + word.getWord() + "» to «" +
                 DateTimeUtils.localDateToString(word.getBundle()) +
                 "» bundle");
@@ -762,22 +862,23 @@ public final class Controller {
     }
     
     /**
-     * Checks if word exists.
+     * Checks if word exists without blocking the caller.
      * @param wordToSearch word
-     * @return true if word is already in the model
+     * @return future true if word is already in the model
      */
-    public boolean wordExists(String wordToSearch) {
-        return model.wordExists(wordToSearch);
+    public CompletableFuture<Boolean> wordExistsAsync(String wordToSearch) {
+        return asyncModel.wordExists(wordToSearch);
     }
     
     /**
-     * Get word instance by string representation.
+     * Get word instance by string representation without blocking
+     * the caller.
      * @param wordToSearch string to search
-     * @return word or null if word doesn't exist
+     * @return future word or null if word doesn't exist
      */
-    public Word getWordInstance(String wordToSearch) {
+    public CompletableFuture<Word> getWordInstanceAsync(String wordToSearch) {
         Objects.requireNonNull(wordToSearch);
-        return model.getWordInstance(wordToSearch);
+        return asyncModel.getWordInstance(wordToSearch);
     }
     
     /**
@@ -785,9 +886,7 @@ public final class Controller {
      * @param map word pairs to change
      */
     public void editWords(Map<Word, Word> map) {
-        controllerExec.execute(() -> {
-            model.editWords(map);
-            
+        asyncModel.editWords(map).thenRun(() -> {
             String prefix = (map.size() == 1) ?
                 "Updated word " : "Updated words: ";
             String message = map.keySet().stream()
@@ -877,8 +976,12 @@ public final class Controller {
         console.setWordLog(settings.getWordLog());
     }
     
-    public NavigableSet<LocalDate> allBundlesSorted() {
-        return model.allBundlesSorted();
+    /**
+     * All bundles without blocking the caller.
+     * @return future sorted bundles
+     */
+    public CompletableFuture<NavigableSet<LocalDate>> allBundlesSortedAsync() {
+        return asyncModel.allBundlesSorted();
     }
     
     /**
@@ -898,11 +1001,16 @@ public final class Controller {
      * Reset word pool and add all words.
      */
     public void addAllWordsToPool() {
-        if (wordPool.size() >= model.getAllWords().size()) return;
+        // words are read bundle by bundle, so lazy model doesn't keep
+        // all of them cached
+        Collection<Word> allWords = new ArrayList<>();
+        model.allBundlesSorted().forEach(bundle ->
+            allWords.addAll(model.getBundle(bundle)));
+        if (wordPool.size() >= allWords.size()) return;
         
         wordPool.clear();
         
-        WordFactory.addWordsToPool(model.getAllWords().values(), wordPool);
+        WordFactory.addWordsToPool(allWords, wordPool);
         
         randomAmount = 0;
         repeatAmount = 0;
@@ -943,10 +1051,10 @@ public final class Controller {
     public void showDefinition(String word) {
         if (word == null) return;
         
-        controllerExec.execute(() -> {
+        storedDefinition(word).thenAcceptAsync(stored -> {
             String normalizedWord = Utils.normalizeFor3rdParties(word);
             
-            String definition = model.getDefinition(word);
+            String definition = stored;
             if (definition == null) definition = downloadDefinition(word);
             
             PlayWav.notification();
@@ -956,7 +1064,7 @@ public final class Controller {
             
             if (showDefinitionCb != null)
                 showDefinitionCb.accept(normalizedWord, definition);
-        });
+        }, controllerExec);
     }
     
     /**
@@ -969,12 +1077,12 @@ public final class Controller {
     }
     
     /**
-     * Get definition for word.
+     * Get definition for word without blocking the caller.
      * @param word word to check
-     * @return definition or null if definition is not found
+     * @return future definition or null if definition is not found
      */
-    public String getDefinition(Word word) {
-        return model.getDefinition(word.getWord());
+    public CompletableFuture<String> getDefinitionAsync(Word word) {
+        return storedDefinition(word.getWord());
     }
     
     private String downloadDefinition(String word) {
@@ -983,7 +1091,9 @@ public final class Controller {
         String definition = definitionDownloader.getDefinition(word);
         
         if (!AutomaticDefinition.NO_MATCH_FOUND.equals(definition)) {
-            model.setDefinition(word, definition);
+            Prefetched next = prefetched;
+            if (next != null && next.word.equals(word)) prefetched = null;
+            asyncModel.setDefinition(word, definition);
         }
         
         return definition;
@@ -1011,20 +1121,45 @@ public final class Controller {
         wordsToAdd.addAll(ebbWordsWrapped);
         
         // random words
-        Collection<Word> allWords = new ArrayList<>(
-            model.getAllWords().values());
-        allWords.removeAll(allRepeatWords);
-        allWords.removeAll(model.getLastWords());
-        allWords.removeAll(ebbWords);
-        
-        Collection<Word> randomWords = WordFactory.getRandomWords(
-            getRandomWordsCount(), allWords);
+        Collection<Word> excludedWords = new ArrayList<>(allRepeatWords);
+        excludedWords.addAll(model.getLastWords());
+        excludedWords.addAll(ebbWords);
+        
+        int randomCount = getRandomWordsCount();
+        Collection<Word> randomWords = WordFactory.getRandomWords(randomCount,
+            getRandomWordCandidates(randomCount, excludedWords));
         randomAmount = randomWords.size();
         wordsToAdd.addAll(randomWords);
         
         wordPool.addWords(wordsToAdd);
     }
     
+    /**
+     * Collects candidates for random words from bundles taken in random
+     * order until there are enough of them. Only these bundles are read,
+     * so lazy model doesn't load all words on every pool reset.
+     * @param amount amount of random words
+     * @param excludedWords words which can't be candidates
+     * @return candidates for random words
+     */
+    private Collection<Word> getRandomWordCandidates(int amount,
+        Collection<Word> excludedWords) {
+        List<LocalDate> bundles = new ArrayList<>(model.allBundlesSorted());
+        Collections.shuffle(bundles, Utils.RANDOM);
+        
+        Collection<Word> candidates = new ArrayList<>();
+        for (LocalDate bundle : bundles) {
+            if (candidates.size() >= amount * RANDOM_CANDIDATES_PER_WORD)
+                break;
+            
+            Collection<Word> words = new ArrayList<>(model.getBundle(bundle));
+            words.removeAll(excludedWords);
+            candidates.addAll(words);
+        }
+        
+        return candidates;
+    }
+    
     /**
      * Dump current word pool to the console.
      * Shows queue and list states.
@@ -1066,6 +1201,8 @@ public final class Controller {
         if (oldComplexity == complexity) return;
         word.setComplexity(complexity);
         normalizedWord.setComplexity(complexity);
+        wordPool.weightsChanged();
+        WordFactory.weightsChanged();
         
         // if word is complex enough add it to the word pool
         if (complexity.isNotEasierThan(WordComplexity.COMPLEX) &&
@@ -1100,9 +1237,9 @@ public final class Controller {
             wordPool.insertIntoQueue(curWord);
         }
         
-        controllerExec.execute(() -> {
-            model.setComplexity(normalizedWord.getWord(), complexity);
-            console.addErrorMessage("Updated «" + normalizedWord.getWord() +
+        String updatedWord = normalizedWord.getWord();
+        asyncModel.setComplexity(updatedWord, complexity).thenRun(() -> {
+            console.addErrorMessage("Updated «" + updatedWord +
                 "» complexity to " + complexity.toString());
             
             modelChanged();
@@ -1134,9 +1271,8 @@ public final class Controller {
     public boolean updatePoolByComplexity(WordComplexity complexity) {
         if (complexity == null) return false;
         
-        Collection<Word> words = model.getAllWords().values().stream()
-            .filter(w -> w.getComplexity().isNotEasierThan(complexity))
-            .map(w -> WordFactory.getComplexityWord(w, wordPool, complexity))
+        Collection<Word> words = model.getWordsNotEasierThan(complexity)
+            .stream().map(w -> WordFactory.getComplexityWord(w, wordPool, complexity))
             .collect(Collectors.toSet());
         
         if (words.size() > 1) {
@@ -1203,103 +1339,119 @@ public final class Controller {
     public int getTodayIterations() { return iters; }
     
     /**
-     * @return total number of words
+     * @return future total number of words
      */
-    public int getTotalWordAmount() { return model.getAllWords().size(); }
+    public CompletableFuture<Integer> getTotalWordAmountAsync() {
+        return asyncModel.getAllWords().thenApply(Map::size);
+    }
     
     /**
-     * @return amount of bundles
+     * @return future amount of bundles
      */
-    public int getTotalBundleAmount() { return model.allBundlesSorted().size(); }
+    public CompletableFuture<Integer> getTotalBundleAmountAsync() {
+        return asyncModel.allBundlesSorted().thenApply(NavigableSet::size);
+    }
     
     /**
-     * @return total amount of repeat words
+     * @return future last bundle name
      */
-    public int getRepeatWordAmount() { return model.getRepeatWords().size(); }
+    public CompletableFuture<LocalDate> getLastBundleNameAsync() {
+        return asyncModel.getLastBundleName();
+    }
+    
+    /**
+     * @return future total amount of repeat words
+     */
+    public CompletableFuture<Integer> getRepeatWordAmountAsync() {
+        return asyncModel.getRepeatWords().thenApply(Collection::size);
+    }
     
     /**
-     * @return average word length
+     * @return future average word length
      */
-    public double getAverageWordLength() {
-        return model.getAllWords().values().stream()
-            .mapToInt(w -> w.getWord().length()).average().orElse(0d);
+    public CompletableFuture<Double> getAverageWordLengthAsync() {
+        return asyncModel.getAverageWordLength();
     }
     
     /**
      * Gets most frequently used words. According to timesPicked.
      * @param size amount of words
-     * @return collection with most used words
+     * @return future collection with most used words
      */
-    public List<Word> getMostFrequentlyUsedWords(int size) {
-        return model.getAllWords().values().stream()
-            .sorted(Comparator.comparingInt(Word::getTimesPicked).reversed())
-            .limit(size).collect(Collectors.toList());
+    public CompletableFuture<List<Word>> getMostFrequentlyUsedWordsAsync(
+        int size) {
+        return asyncModel.getMostFrequentlyUsedWords(size);
     }
     
     /**
      * Gets oldest picked words from the model.
      * @param size amount of words to return
-     * @return collection with oldest words
+     * @return future collection with oldest words
      */
-    public List<Word> getOldestPickedWords(int size) {
-        return model.getAllWords().values().stream()
-            .sorted(Comparator.comparingLong(Word::getLastPickedTimestamp))
-            .limit(size).collect(Collectors.toList());
+    public CompletableFuture<List<Word>> getOldestPickedWordsAsync(int size) {
+        return asyncModel.getOldestPickedWords(size);
     }
     
     /**
-     * @return average complexity weight
+     * @return future average complexity weight
      */
-    public int getAverageComplexityWeight() {
-        return (int) model.getAllWords().values().stream()
-            .mapToInt(word -> word.getComplexity().getWeight()).average()
-            .orElse(0d);
+    public CompletableFuture<Integer> getAverageComplexityWeightAsync() {
+        return asyncModel.groupWordsByComplexity().thenApply(groups -> {
+            long words = groups.values().stream().mapToLong(n -> n).sum();
+            if (words == 0L) return 0;
+            
+            return (int) (groups.entrySet().stream().mapToLong(entry ->
+                entry.getKey().getWeight() * entry.getValue()).sum() / words);
+        });
     }
     
     /**
-     * @return total amount of future words
+     * @return future total amount of future words
      */
-    public int getFutureWordsAmount() {
-        return model.getFutureWords().size();
+    public CompletableFuture<Integer> getFutureWordsAmountAsync() {
+        return asyncModel.getFutureWords().thenApply(Map::size);
     }
     
     /**
      * Gets amount of words grouped by their complexity
-     * @return map where key is complexity, and value is long amount
+     * @return future map where key is complexity, and value is long amount
      */
-    public Map<WordComplexity, Long> groupWordsByComplexity() {
-        return model.getAllWords().values().stream().collect(
-            Collectors.groupingBy(Word::getComplexity, Collectors.counting()));
+    public CompletableFuture<Map<WordComplexity, Long>>
+        groupWordsByComplexityAsync() {
+        return asyncModel.groupWordsByComplexity();
     }
     
-    public long getTotalIterations() { return model.getTotalIterations(); }
+    public CompletableFuture<Long> getTotalIterationsAsync() {
+        return asyncModel.getTotalIterations();
+    }
     
     // bridge method should add iters by contract
-    public int getThisWeekIterations() {
-        return iters + model.getThisWeekIterations();
+    public CompletableFuture<Integer> getThisWeekIterationsAsync() {
+        int todayIters = iters;
+        return asyncModel.getThisWeekIterations()
+            .thenApply(n -> todayIters + n);
     }
     
     // bridge method should add iters by contract
-    public int getIterationsForDays(int n) {
-        return iters + model.getIterationsForDays(n);
+    public CompletableFuture<Integer> getIterationsForDaysAsync(int n) {
+        int todayIters = iters;
+        return asyncModel.getIterationsForDays(n)
+            .thenApply(days -> todayIters + days);
     }
     
     /**
      * Permanently deletes word from model.
-     * @param word word to delete
+     * @param wordToDelete word instance of the model
      */
-    public void deleteWord(String word) {
-        controllerExec.execute(() -> {
-            Word wordToDelete = model.getWordInstance(word);
+    public void deleteWord(Word wordToDelete) {
+        if (wordToDelete == null) return;
+        
+        String word = wordToDelete.getWord();
+        deleteWordFromPool(wordToDelete);
+        asyncModel.deleteWord(word).thenRun(() -> {
+            console.addErrorMessage("Word «" + word + "» has been deleted");
             
-            if (wordToDelete != null) {
-                deleteWordFromPool(wordToDelete);
-                model.deleteWord(word);
-                
-                console.addErrorMessage("Word «" + word + "» has been deleted");
-                
-                modelChanged();
-            }
+            modelChanged();
         });
     }
     
@@ -1,6 +1,7 @@
 package com.words.controller.sound;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
@@ -16,6 +17,44 @@ public class PlayMp3 {
         "/resources/sounds/next.mp3");
     
     private static final Executor EXEC = new SoundExecutor();
+    
+    // file read ahead of time
+    private static class Preloaded {
+        private final Path file;
+        private final byte[] bytes;
+        
+        private Preloaded(Path file, byte[] bytes) {
+            this.file = file;
+            this.bytes = bytes;
+        }
+    }
+    
+    private static volatile Preloaded preloaded = null;
+    
+    /**
+     * Reads mp3 file into memory, so the file is played next time without
+     * reading the disk. Only the last preloaded file is kept.
+     * Should be executed outside of the gui thread.
+     * @param mp3File file to read
+     * @return true if file has been read
+     */
+    public static boolean preload(Path mp3File) {
+        try {
+            preloaded = new Preloaded(mp3File, Files.readAllBytes(mp3File));
+            return true;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+    
+    // preloaded bytes of the file if they are available
+    private static InputStream open(Path mp3File) throws IOException {
+        Preloaded file = preloaded;
+        if (file != null && file.file.equals(mp3File))
+            return new ByteArrayInputStream(file.bytes);
+        
+        return new BufferedInputStream(Files.newInputStream(mp3File));
+    }
       
     public static void playFile(final Path mp3File) {
         if (mp3File == null) {
@@ -24,8 +63,7 @@ public class PlayMp3 {
         }
         
         EXEC.execute(() -> {
-            try (InputStream is = new BufferedInputStream(
-                Files.newInputStream(mp3File))) {
+            try (InputStream is = open(mp3File)) {
                 Player player = new Player(is);
                 player.play();
             } catch (IOException | JavaLayerException ex) { }
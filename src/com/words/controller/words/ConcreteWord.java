@@ -95,7 +95,7 @@ class ConcreteWord implements Word {
     public void hasBeenPicked(long millis, String previousWord) { 
         timesPicked++;
         setLastPickedTimestamp(millis);
-        lastPickedString = DateTimeUtils.getFormattedPeriodFromMillis(millis);
+        lastPickedString = null;
     }
 
     @Override
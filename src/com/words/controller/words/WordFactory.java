@@ -205,6 +205,22 @@ public class WordFactory {
     public static void deleteWordFromPools(Word word) {
         MAP.values().forEach(wordPool -> wordPool.deleteWord(word));
     }
+    
+    /**
+     * Notifies pools that weights of their words have been changed.
+     */
+    public static void weightsChanged() {
+        MAP.values().forEach(WordPool::weightsChanged);
+    }
+    
+    /**
+     * Notifies pools that the word has been changed, e.g. it has been
+     * picked.
+     * @param word changed word or decorator which has picked it
+     */
+    public static void wordChanged(Word word) {
+        MAP.values().forEach(wordPool -> wordPool.wordChanged(word));
+    }
 
     /**
      * Add words to a pool. Fills queue according to lastPickedTimestamp.
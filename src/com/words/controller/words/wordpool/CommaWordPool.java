@@ -9,7 +9,7 @@ public class CommaWordPool extends WordPool {
     public Word nextWord(long timestamp, String previousWord) {
         Word word;
         do {
-            word = pickStrategy.nextWord(list);
+            word = pickStrategy.nextWord(list, timestamp);
         } while (!word.getTranslation().contains(","));
         
         System.err.println(list.size());
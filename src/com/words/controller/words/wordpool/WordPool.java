@@ -8,7 +8,6 @@ import com.words.controller.words.wordpool.pickstrategy.PickStrategyFactory;
 import com.words.controller.words.wordpool.pickstrategy.UniformStrategy;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -25,10 +24,16 @@ public class WordPool {
     protected PickStrategy pickStrategy;
     
     private int maxQueueSize = 0;
-    private final LinkedList<Word> queue = new LinkedList<>();
+    private final WordQueue queue = new WordQueue();
     
     protected final List<Word> list = new ArrayList<>();
     
+    // word drawn ahead of time, it's neither in the list nor in the queue
+    private Word prefetchedWord = null;
+    private double prefetchedProbability;
+    // weights of the draw change at that time
+    private long prefetchExpiration;
+    
     public WordPool() {
         this.pickStrategy = PickStrategyFactory.getUniformStrategy();
     }
@@ -42,7 +47,37 @@ public class WordPool {
     }
     
     public void setPickStrategy(PickStrategy strategy) {
+        cancelPrefetch();
         this.pickStrategy = strategy;
+        pickStrategy.listChanged();
+    }
+    
+    /**
+     * Notifies pool that weights of its words have been changed,
+     * e.g. complexity or type of a word.
+     */
+    public void weightsChanged() {
+        cancelPrefetch();
+        pickStrategy.listChanged();
+    }
+    
+    /**
+     * Notifies pool that the word has been changed outside of the pool,
+     * e.g. it has been picked through another word pool, so only weight
+     * of that word has to be calculated again. Words of the list are
+     * found by english word, so wrapped words are found as well.
+     * @param word changed word or decorator which has picked it
+     */
+    public void wordChanged(Word word) {
+        String changedWord = word.getWord();
+        if (changedWord == null) return;
+        
+        cancelPrefetch();
+        for (int i = 0; i < list.size(); i++) {
+            Word w = list.get(i);
+            if (w.isSingleWord() && changedWord.equals(w.getWord()))
+                pickStrategy.wordChanged(list, i);
+        }
     }
     
     private void updateMaxQueueSize() {
@@ -56,6 +91,7 @@ public class WordPool {
      * @param words any collection to add
      */
     public final void addWords(Collection<Word> words) {
+        cancelPrefetch();
         list.addAll(words);
         updateMaxQueueSize();
     }
@@ -65,6 +101,7 @@ public class WordPool {
      * @param word word to add
      */
     public void addWord(Word word) {
+        cancelPrefetch();
         list.add(word);
         updateMaxQueueSize();
     }
@@ -89,7 +126,37 @@ public class WordPool {
     
     /** @return number of words in this word pool */
     public int size() {
-        return list.size() + queue.size();
+        return list.size() + queue.size() + (prefetchedWord != null ? 1 : 0);
+    }
+    
+    /**
+     * Draws the next word ahead of time, so the next call of nextWord
+     * only hands it over. Word isn't picked yet: it's returned to the
+     * pool if the pool is changed before nextWord or if weights of the
+     * draw have changed by the time of nextWord, so the word is always
+     * picked with weights of the pick time.
+     * @param timestamp time of the draw
+     * @return word which will be returned by the next call of nextWord
+     *         or null if there is nothing to draw
+     */
+    public Word prefetchNextWord(long timestamp) {
+        if (prefetchedWord != null) return prefetchedWord;
+        if (list.isEmpty()) return null;
+        
+        prefetchedWord = pickStrategy.nextWord(list, timestamp);
+        prefetchedProbability = pickStrategy.getLastProbability();
+        prefetchExpiration = pickStrategy.getLastPickExpiration();
+        return prefetchedWord;
+    }
+    
+    /**
+     * Returns prefetched word to the pool.
+     */
+    public void cancelPrefetch() {
+        if (prefetchedWord == null) return;
+        
+        list.add(prefetchedWord);
+        prefetchedWord = null;
     }
     
     /**
@@ -102,13 +169,26 @@ public class WordPool {
     public Word nextWord(long timestamp, String previousWord) {
         lastWordProbability = 1.0d;
         
-        Word word = pickStrategy.nextWord(list);
+        // draw is exact only while its weights stay the same
+        if (timestamp >= prefetchExpiration) cancelPrefetch();
+        
+        Word word;
+        double probability;
+        if (prefetchedWord != null) {
+            word = prefetchedWord;
+            probability = prefetchedProbability;
+            prefetchedWord = null;
+        } else {
+            word = pickStrategy.nextWord(list, timestamp);
+            probability = pickStrategy.getLastProbability();
+        }
+        
         pickStrategy.insertIntoQueue(queue, word);
         if (queue.size() > maxQueueSize) list.add(queue.remove());
         
         word.hasBeenPicked(timestamp, previousWord);
         
-        lastWordProbability *= pickStrategy.getLastProbability();
+        lastWordProbability *= probability;
 
         return word;
     }
@@ -122,7 +202,7 @@ public class WordPool {
     public boolean containsWord(String word) {
         Objects.requireNonNull(word);
         
-        return Stream.concat(queue.stream(), list.stream())
+        return words()
             .filter(Word::isSingleWord)
             .anyMatch(w -> w.getWord().equals(word));
     }
@@ -140,7 +220,9 @@ public class WordPool {
             return false;
         }
         
+        cancelPrefetch();
         if (list.remove(word)) {
+            pickStrategy.listChanged();
             adjustQueueSize();
             return true;
         }
@@ -153,12 +235,19 @@ public class WordPool {
         return false;
     }
     
+    // words of the list, the queue and the prefetched word
+    private Stream<Word> words() {
+        Stream<Word> words = Stream.concat(list.stream(), queue.stream());
+        if (prefetchedWord == null) return words;
+        return Stream.concat(words, Stream.of(prefetchedWord));
+    }
+    
     /**
      * Get formatted string of current words
      * @return string typically delimited by commas
      */
     public String getWordsAsString() {
-        return Stream.concat(list.stream(), queue.stream())
+        return words()
             .filter(w -> w.getWordType() == WordType.STANDARD)
             .map(Word::getWord).collect(Collectors.joining(", "));
     }
@@ -167,8 +256,10 @@ public class WordPool {
      * Delete all words from this word pool.
      */
     public void clear() {
+        prefetchedWord = null;
         maxQueueSize = 0;
         list.clear();
+        pickStrategy.listChanged();
         queue.clear();
     }
     
@@ -182,6 +273,8 @@ public class WordPool {
         if (console == null)
             throw new IllegalArgumentException("Console can't be null");
         
+        cancelPrefetch();
+        
         final int MIN_FIRST_COL_WIDTH = 15;
         final int GAP = 3;
         
@@ -198,8 +291,6 @@ public class WordPool {
         
         int max = list.size() > queue.size() ? list.size() : queue.size();
         
-        List<Word> queueList = new ArrayList<>(queue);
-        
         for (int i = 0; i < max; i++) {
             String listWord = i < list.size() ?
                 list.get(i).toString() : "";
@@ -209,7 +300,7 @@ public class WordPool {
             if (i < queue.size()) {
                 queueWord = String.format(
                     "%" + ((int) Math.log10(queue.size()) + 1) + "d: %s",
-                    i + 1, queueList.get(i));
+                    i + 1, queue.get(i));
             } else if (queue.size() == 0 && i == 0) {
                 queueWord = "{queue is empty}";
             }
@@ -231,6 +322,7 @@ public class WordPool {
      * Force word pool to adjust it's size.
      */
     public void adjustQueueSize() {
+        cancelPrefetch();
         updateMaxQueueSize();
         while (queue.size() > maxQueueSize) list.add(queue.remove());
     }
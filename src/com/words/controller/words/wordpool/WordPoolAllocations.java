@@ -0,0 +1,119 @@
+package com.words.controller.words.wordpool;
+
+import com.words.controller.words.Word;
+import com.words.controller.words.WordFactory;
+import com.words.controller.words.wordkinds.WordComplexity;
+import com.words.controller.words.wordpool.pickstrategy.PickStrategy;
+import com.words.controller.words.wordpool.pickstrategy.PickStrategyFactory;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures bytes allocated by WordPool.nextWord with every strategy of
+ * the factory. Heap of the current thread is read through HotSpot
+ * ThreadMXBean, every strategy is warmed up first, so arrays of the pool
+ * have grown and JIT has compiled the pick. Picks are measured in several
+ * rounds and the least allocating round counts, so one-time allocations
+ * of the JVM itself aren't taken for allocations of the pick. Steady
+ * state picks should allocate nothing.
+ * Run with the compiled classes in the classpath:
+ *      java com.words.controller.words.wordpool.WordPoolAllocations
+ * @author vlad
+ */
+class WordPoolAllocations {
+    
+    private static final int WORDS = 2000;
+    private static final int WARM_UP_PICKS = 300_000;
+    private static final int MEASURED_PICKS = 100_000;
+    private static final int ROUNDS = 5;
+    
+    // virtual time between picks, weights change while picking
+    private static final long PICK_INTERVAL_MILLIS = 1_000L;
+    
+    private final com.sun.management.ThreadMXBean threads;
+    private final long threadId = Thread.currentThread().getId();
+    
+    private WordPoolAllocations(com.sun.management.ThreadMXBean threads) {
+        this.threads = threads;
+    }
+    
+    public static void main(String[] args) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            System.err.println("Allocated bytes can't be measured by this JVM");
+            return;
+        }
+        
+        WordPoolAllocations allocations = new WordPoolAllocations(
+            (com.sun.management.ThreadMXBean) threads);
+        
+        boolean allocationFree = true;
+        allocationFree &= allocations.measure("uniform",
+            PickStrategyFactory.getUniformStrategy());
+        allocationFree &= allocations.measure("standard everyday",
+            PickStrategyFactory.getStandardEverydayStrategy());
+        allocationFree &= allocations.measure("repeat",
+            PickStrategyFactory.getRepeatStrategy());
+        allocationFree &= allocations.measure("ebbinghaus",
+            PickStrategyFactory.getEbbinghausStrategy());
+        
+        System.out.println(allocationFree ?
+            "Picks are allocation-free" : "Picks allocate memory");
+        if (!allocationFree) System.exit(1);
+    }
+    
+    private static List<Word> newWords(long timestamp) {
+        List<Word> words = new ArrayList<>(WORDS);
+        for (int i = 0; i < WORDS; i++) {
+            Word word = WordFactory.newWord();
+            word.setWord("word" + i);
+            word.setComplexity(i % 7 == 0 ? WordComplexity.CHALLENGING :
+                i % 3 == 0 ? WordComplexity.TOUGH : WordComplexity.EASY);
+            word.setLastPickedTimestamp(timestamp - i * PICK_INTERVAL_MILLIS);
+            words.add(word);
+        }
+        
+        return words;
+    }
+    
+    private long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(threadId);
+    }
+    
+    /**
+     * Picks words with the strategy and prints bytes allocated per pick.
+     * @param name name of the strategy
+     * @param strategy strategy to measure
+     * @return true if measured picks haven't allocated anything
+     */
+    private boolean measure(String name, PickStrategy strategy) {
+        long timestamp = System.currentTimeMillis();
+        WordPool pool = new WordPool(strategy);
+        pool.addWords(newWords(timestamp));
+        
+        for (int i = 0; i < WARM_UP_PICKS; i++) {
+            timestamp += PICK_INTERVAL_MILLIS;
+            pool.nextWord(timestamp, null);
+        }
+        
+        // reading the counter may allocate by itself
+        long overhead = -allocatedBytes() + allocatedBytes();
+        
+        long allocated = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = allocatedBytes();
+            for (int i = 0; i < MEASURED_PICKS; i++) {
+                timestamp += PICK_INTERVAL_MILLIS;
+                pool.nextWord(timestamp, null);
+            }
+            allocated = Math.min(allocated,
+                allocatedBytes() - before - overhead);
+        }
+        
+        System.out.println(String.format("%-20s%.3f bytes per pick",
+            name, (double) allocated / MEASURED_PICKS));
+        return allocated <= 0L;
+    }
+}
@@ -0,0 +1,159 @@
+package com.words.controller.words.wordpool;
+
+import com.words.controller.words.Word;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Queue of recently picked words backed by a ring buffer.
+ * Words are kept in a single array, so adding, removing and inserting
+ * words allocate nothing unless the queue has to grow. Insertion and
+ * removal in the middle shift the shorter side of the queue.
+ * @author vlad
+ */
+public class WordQueue {
+    
+    private static final int INITIAL_CAPACITY = 16;
+    
+    // capacity is always a power of two
+    private Word[] words = new Word[INITIAL_CAPACITY];
+    private int head = 0;
+    private int size = 0;
+    
+    /** @return amount of words in the queue */
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    private static void checkIndex(int index, int length) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException("Index: " + index);
+    }
+    
+    // physical index of the word
+    private int slot(int index) {
+        return (head + index) & (words.length - 1);
+    }
+    
+    /**
+     * Get word.
+     * @param index index of the word from the head of the queue
+     * @return word
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public Word get(int index) {
+        checkIndex(index, size);
+        return words[slot(index)];
+    }
+    
+    private void ensureCapacity() {
+        if (size < words.length) return;
+        
+        Word[] newWords = new Word[words.length * 2];
+        for (int i = 0; i < size; i++) newWords[i] = words[slot(i)];
+        words = newWords;
+        head = 0;
+    }
+    
+    /**
+     * Adds word to the tail of the queue.
+     * @param word word to add
+     */
+    public void add(Word word) {
+        ensureCapacity();
+        words[slot(size++)] = word;
+    }
+    
+    /**
+     * Adds words to the tail of the queue.
+     * @param words words to add
+     */
+    public void addAll(Collection<Word> words) {
+        for (Word word : words) add(word);
+    }
+    
+    /**
+     * Inserts word before the word with the index.
+     * @param index index of the word, size of the queue to add to the tail
+     * @param word word to insert
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public void insert(int index, Word word) {
+        checkIndex(index, size + 1);
+        ensureCapacity();
+        
+        if (index < size / 2) {
+            head = (head - 1) & (words.length - 1);
+            for (int i = 0; i < index; i++)
+                words[slot(i)] = words[slot(i + 1)];
+        } else {
+            for (int i = size; i > index; i--)
+                words[slot(i)] = words[slot(i - 1)];
+        }
+        
+        words[slot(index)] = word;
+        size++;
+    }
+    
+    /**
+     * Removes word from the head of the queue.
+     * @return removed word
+     * @throws IllegalStateException if queue is empty
+     */
+    public Word remove() {
+        if (size == 0) throw new IllegalStateException("Queue is empty");
+        
+        Word word = words[head];
+        words[head] = null;
+        head = (head + 1) & (words.length - 1);
+        size--;
+        return word;
+    }
+    
+    /**
+     * Removes the first occurrence of the word.
+     * @param word word to remove
+     * @return true if word has been removed
+     */
+    public boolean remove(Word word) {
+        for (int index = 0; index < size; index++) {
+            if (Objects.equals(words[slot(index)], word)) {
+                removeAt(index);
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    private void removeAt(int index) {
+        if (index < size / 2) {
+            for (int i = index; i > 0; i--)
+                words[slot(i)] = words[slot(i - 1)];
+            remove();
+        } else {
+            for (int i = index; i < size - 1; i++)
+                words[slot(i)] = words[slot(i + 1)];
+            words[slot(--size)] = null;
+        }
+    }
+    
+    /** Removes all words. */
+    public void clear() {
+        Arrays.fill(words, null);
+        head = 0;
+        size = 0;
+    }
+    
+    /** @return sequential stream of words from the head of the queue */
+    public Stream<Word> stream() {
+        return IntStream.range(0, size).mapToObj(this::get);
+    }
+}
@@ -1,14 +1,14 @@
 package com.words.controller.words.wordpool.pickstrategy;
 
-import com.words.controller.utils.Utils;
 import com.words.controller.words.Word;
-import java.util.LinkedList;
+import com.words.controller.words.wordpool.WordQueue;
 import java.util.List;
 import java.util.Random;
 
 public interface PickStrategy {
     
-    static final Random RAND = Utils.RANDOM;
+    // SecureRandom allocates on every call, picks don't need it
+    static final Random RAND = new Random();
     
     /**
      * Deletes and returns word from the list. Modifies list.
@@ -17,12 +17,24 @@ public interface PickStrategy {
      */
     Word nextWord(List<Word> list);
     
+    /**
+     * Deletes and returns word from the list. Modifies list.
+     * Time-dependent weights are evaluated at the specified time, so
+     * word pool doesn't need to read the clock again.
+     * @param list list of words to work with
+     * @param currentTime time of the pick in milliseconds
+     * @return picked word according to strategy
+     */
+    default Word nextWord(List<Word> list, long currentTime) {
+        return nextWord(list);
+    }
+    
     /**
      * Inserts picked word into queue.
      * @param queue list or queue to insert into
      * @param word word which should be inserted
      */
-    default void insertIntoQueue(LinkedList<Word> queue, Word word) {
+    default void insertIntoQueue(WordQueue queue, Word word) {
         queue.add(word);
     }
     
@@ -32,4 +44,31 @@ public interface PickStrategy {
      * @return double between 0 and 1 as probability for last picked word
      */
     double getLastProbability();
+    
+    /**
+     * Get time when the last pick stops being exact. Weights the pick has
+     * been made with stay the same before that time, so the picked word
+     * can be handed over later with the same probability.
+     * @return time in milliseconds, Long.MAX_VALUE if weights don't
+     *         depend on time
+     */
+    default long getLastPickExpiration() {
+        return Long.MAX_VALUE;
+    }
+    
+    /**
+     * Notifies strategy that list or weights of its words have been
+     * changed outside of {nextWord} method, so cached state should be
+     * dropped.
+     */
+    default void listChanged() { }
+    
+    /**
+     * Notifies strategy that the word at the position has been changed
+     * outside of {nextWord} method, e.g. it has been picked through
+     * another word pool, so only its cached weight should be dropped.
+     * @param list list of words to work with
+     * @param index position of the changed word in the list
+     */
+    default void wordChanged(List<Word> list, int index) { }
 }
@@ -1,6 +1,7 @@
 package com.words.controller.words.wordpool.pickstrategy;
 
 import com.words.controller.words.wordkinds.WordComplexity;
+import com.words.controller.words.wordpool.pickstrategy.weight.AliasStrategy;
 import com.words.controller.words.wordpool.pickstrategy.weight.ComplexityWeigher;
 import com.words.controller.words.wordpool.pickstrategy.weight.CompoundWeighter;
 import com.words.controller.words.wordpool.pickstrategy.weight.DurationWeighter;
@@ -20,30 +21,42 @@ public class PickStrategyFactory {
         WordComplexity.NORMAL.getWeight();
     
     private static final Weighter UNIFORM_WEIGHTER =
-        (duration, w8) -> DEFAULT_WEIGHT;
+        Weighter.constant(DEFAULT_WEIGHT);
     private static final Weighter STANDARD_WEIGHTER =
         new ComplexityWeigher();
     
     public PickStrategyFactory() { throw new AssertionError(); }
     
+    /**
+     * Creates strategy which picks words according to their weights.
+     * Time-invariant weights are sampled with alias table in O(1),
+     * others with WeightStrategy in O(log n).
+     * @param weighter weighter of words
+     * @return weighted pick strategy
+     */
+    public static PickStrategy getWeightStrategy(Weighter weighter) {
+        if (weighter.isTimeInvariant()) return new AliasStrategy(weighter);
+        return new WeightStrategy(weighter);
+    }
+    
     public static PickStrategy getRepeatStrategy() {
-        return new WeightStrategy(new CompoundWeighter(
+        return getWeightStrategy(new CompoundWeighter(
             UNIFORM_WEIGHTER,
             new DurationWeighter(Duration.ofDays(1L), DEFAULT_WEIGHT)));
     }
     
     public static PickStrategy getEbbinghausStrategy() {
-        return new WeightStrategy(new CompoundWeighter(UNIFORM_WEIGHTER,
+        return getWeightStrategy(new CompoundWeighter(UNIFORM_WEIGHTER,
             new DurationWeighter(Duration.ofHours(3L), WordComplexity.EASY.getWeight())));
     }
     
     public static PickStrategy getStandardStrategy(Duration duration, int weight) {
-        return new WeightStrategy(new CompoundWeighter(STANDARD_WEIGHTER,
+        return getWeightStrategy(new CompoundWeighter(STANDARD_WEIGHTER,
             new DurationWeighter(duration, weight)));
     }
     
     public static PickStrategy getRecentStandardStrategy(Duration duration, int weight) {
-        return new WeightStrategy(new CompoundWeighter(STANDARD_WEIGHTER,
+        return getWeightStrategy(new CompoundWeighter(STANDARD_WEIGHTER,
             new RecentDurationWeighter(duration, weight)));
     }
     
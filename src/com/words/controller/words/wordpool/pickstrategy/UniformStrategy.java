@@ -1,24 +1,24 @@
 package com.words.controller.words.wordpool.pickstrategy;
 
 import com.words.controller.words.Word;
-import java.util.List;
+import com.words.controller.words.wordpool.WordQueue;
+import com.words.controller.words.wordpool.pickstrategy.weight.AliasStrategy;
+import com.words.controller.words.wordpool.pickstrategy.weight.Weighter;
 
 /**
  * Strategy with uniform distribution.
+ * Every word has the same weight, so words are sampled from the alias
+ * table and a pick doesn't shift the list.
  * @author vlad
  */
-public class UniformStrategy implements PickStrategy {
-
-    private double probability;
+public class UniformStrategy extends AliasStrategy {
     
-    @Override
-    public Word nextWord(List<Word> list) {
-        probability = list.isEmpty() ? 0 : 1.0 / list.size();
-        return list.remove(RAND.nextInt(list.size()));
+    public UniformStrategy() {
+        super(Weighter.constant(1));
     }
-
+    
     @Override
-    public double getLastProbability() {
-        return probability;
+    public void insertIntoQueue(WordQueue queue, Word word) {
+        queue.add(word);
     }
 }
\ No newline at end of file
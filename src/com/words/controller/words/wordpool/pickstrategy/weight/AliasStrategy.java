@@ -0,0 +1,255 @@
+package com.words.controller.words.wordpool.pickstrategy.weight;
+
+import com.words.controller.words.Word;
+import com.words.controller.words.wordpool.WordQueue;
+import com.words.controller.words.wordpool.pickstrategy.PickStrategy;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Strategy picks words with probability proportional to their weights
+ * using Vose alias table, so a pick is O(1) in average.
+ * Weighter has to be time-invariant: weights are calculated when the
+ * table is built and stay the same until listChanged.
+ * Table covers words of the list and words which have left it for the
+ * queue, so words returned from the queue don't rebuild it. A word
+ * sampled from the table is rejected if it isn't in the list.
+ * Table is rebuilt lazily, when the list is changed or a new word appears.
+ * Picked word is replaced by the last word of the list, so a pick
+ * allocates nothing.
+ * @author vlad
+ */
+public class AliasStrategy implements PickStrategy {
+    
+    // exact linear pick after that amount of rejected samples
+    private static final int MAX_ATTEMPTS = 32;
+    
+    private final Weighter weighter;
+    
+    // table entries
+    private Word[] words = new Word[0];
+    private int[] weights = new int[0];
+    private double[] prob = new double[0];
+    private int[] alias = new int[0];
+    // index of the entry in the list, -1 if it isn't in the list
+    private int[] position = new int[0];
+    private Map<Word, Integer> entries = new IdentityHashMap<>();
+    
+    // entries of the list by their indexes
+    private int[] entryAt = new int[0];
+    private int listSize = 0;
+    private long listWeight = 0L;
+    
+    private boolean valid = false;
+    
+    private double probability;
+    
+    public AliasStrategy(Weighter weighter) {
+        if (!weighter.isTimeInvariant()) throw new IllegalArgumentException(
+            "Weighter has to be time-invariant");
+        
+        this.weighter = weighter;
+    }
+    
+    @Override
+    public void listChanged() {
+        valid = false;
+    }
+    
+    /**
+     * Builds table of the list words and words which have left the list.
+     */
+    private void build(List<Word> list, long currentTime) {
+        List<Word> population = new ArrayList<>(list);
+        Map<Word, Integer> newEntries = new IdentityHashMap<>();
+        for (int i = 0; i < list.size(); i++) newEntries.put(list.get(i), i);
+        
+        // queue is never larger than the list, others are deleted words
+        int left = words.length - listSize;
+        if (!list.isEmpty() && left <= list.size()) {
+            for (int e = 0; e < words.length; e++) {
+                if (position[e] < 0 && !newEntries.containsKey(words[e])) {
+                    newEntries.put(words[e], population.size());
+                    population.add(words[e]);
+                }
+            }
+        }
+        
+        int n = population.size();
+        words = population.toArray(new Word[n]);
+        weights = new int[n];
+        prob = new double[n];
+        alias = new int[n];
+        position = new int[n];
+        entryAt = new int[n];
+        entries = newEntries;
+        
+        long total = 0L;
+        for (int e = 0; e < n; e++) {
+            weights[e] = Math.max(weighter.getWeight(words[e], currentTime), 0);
+            total += weights[e];
+            position[e] = -1;
+        }
+        
+        listSize = 0;
+        listWeight = 0L;
+        for (int i = 0; i < list.size(); i++) place(i, i);
+        
+        fillTable(total);
+        valid = true;
+    }
+    
+    // Vose alias method
+    private void fillTable(long total) {
+        int n = words.length;
+        if (total == 0L) {
+            for (int e = 0; e < n; e++) {
+                prob[e] = 1.0;
+                alias[e] = e;
+            }
+            return;
+        }
+        
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallSize = 0, largeSize = 0;
+        
+        for (int e = 0; e < n; e++) {
+            scaled[e] = (double) weights[e] * n / total;
+            if (scaled[e] < 1.0) small[smallSize++] = e;
+            else large[largeSize++] = e;
+        }
+        
+        while (smallSize > 0 && largeSize > 0) {
+            int less = small[--smallSize];
+            int more = large[--largeSize];
+            
+            prob[less] = scaled[less];
+            alias[less] = more;
+            
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0) small[smallSize++] = more;
+            else large[largeSize++] = more;
+        }
+        
+        // rounding errors leave entries which are full
+        while (largeSize > 0) {
+            int e = large[--largeSize];
+            prob[e] = 1.0;
+            alias[e] = e;
+        }
+        while (smallSize > 0) {
+            int e = small[--smallSize];
+            prob[e] = 1.0;
+            alias[e] = e;
+        }
+    }
+    
+    // entry takes its place in the list
+    private void place(int entry, int index) {
+        entryAt[index] = entry;
+        position[entry] = index;
+        listSize++;
+        listWeight += weights[entry];
+    }
+    
+    // brings table in line with the list
+    private void update(List<Word> list, long currentTime) {
+        if (!valid || list.size() < listSize ||
+            !(list instanceof RandomAccess)) {
+            build(list, currentTime);
+            return;
+        }
+        
+        // words returned from the queue
+        for (int i = listSize; i < list.size(); i++) {
+            Integer entry = entries.get(list.get(i));
+            if (entry == null || position[entry] >= 0) {
+                build(list, currentTime);
+                return;
+            }
+            
+            place(entry, i);
+        }
+    }
+    
+    // samples entry from the table until it's found in the list
+    private int sample() {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            int e = RAND.nextInt(words.length);
+            if (RAND.nextDouble() >= prob[e]) e = alias[e];
+            if (position[e] >= 0 && weights[e] > 0) return e;
+        }
+        
+        double point = RAND.nextDouble() * listWeight;
+        for (int i = 0; i < listSize; i++) {
+            point -= weights[entryAt[i]];
+            if (point < 0 && weights[entryAt[i]] > 0) return entryAt[i];
+        }
+        
+        // rounding error, the last word with non-zero weight
+        for (int i = listSize - 1; ; i--)
+            if (weights[entryAt[i]] > 0) return entryAt[i];
+    }
+    
+    // removes word, the last word takes its place
+    private Word remove(List<Word> list, int index) {
+        int last = listSize - 1;
+        int entry = entryAt[index];
+        Word word = list.get(index);
+        
+        if (index != last) {
+            list.set(index, list.get(last));
+            entryAt[index] = entryAt[last];
+            position[entryAt[index]] = index;
+        }
+        list.remove(last);
+        
+        position[entry] = -1;
+        listSize--;
+        listWeight -= weights[entry];
+        return word;
+    }
+    
+    @Override
+    public Word nextWord(List<Word> list) {
+        return nextWord(list, System.currentTimeMillis());
+    }
+    
+    @Override
+    public Word nextWord(List<Word> list, long currentTime) {
+        update(list, currentTime);
+        
+        int index;
+        if (listWeight == 0L) {
+            index = RAND.nextInt(list.size());
+            probability = 1.0 / list.size();
+        } else {
+            int entry = sample();
+            index = position[entry];
+            probability = 1.0 * weights[entry] / listWeight;
+        }
+        
+        if (words[entryAt[index]] != list.get(index)) {
+            System.err.println("Incorrect behaviour in alias strategy");
+            valid = false;
+            return list.remove(index);
+        }
+        
+        return remove(list, index);
+    }
+    
+    @Override
+    public void insertIntoQueue(WordQueue queue, Word word) {
+        WeightStrategy.insertPrivileged(queue, word);
+    }
+    
+    @Override
+    public double getLastProbability() {
+        return probability;
+    }
+}
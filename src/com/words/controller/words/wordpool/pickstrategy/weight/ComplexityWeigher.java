@@ -22,4 +22,14 @@ public class ComplexityWeigher implements Weighter {
         
         return WordComplexity.NORMAL.getWeight();
     }
+    
+    @Override
+    public long getNextChange(Word word, long currentTime) {
+        return Long.MAX_VALUE;
+    }
+    
+    @Override
+    public boolean isTimeInvariant() {
+        return true;
+    }
 }
@@ -21,4 +21,15 @@ public class CompoundWeighter implements Weighter {
     public int getWeight(Word word, long currentTime) {
         return w1.getWeight(word, currentTime) + w2.getWeight(word, currentTime);
     }
+    
+    @Override
+    public long getNextChange(Word word, long currentTime) {
+        return Math.min(w1.getNextChange(word, currentTime),
+            w2.getNextChange(word, currentTime));
+    }
+    
+    @Override
+    public boolean isTimeInvariant() {
+        return w1.isTimeInvariant() && w2.isTimeInvariant();
+    }
 }
@@ -17,4 +17,16 @@ public class DurationComplexityWeighter implements Weighter {
         return complexityWeighter.getWeight(word, currentTime) +
             durationWeighter.getWeight(word, currentTime);
     }
+    
+    @Override
+    public long getNextChange(Word word, long currentTime) {
+        return Math.min(complexityWeighter.getNextChange(word, currentTime),
+            durationWeighter.getNextChange(word, currentTime));
+    }
+    
+    @Override
+    public boolean isTimeInvariant() {
+        return complexityWeighter.isTimeInvariant() &&
+            durationWeighter.isTimeInvariant();
+    }
 }
@@ -31,11 +31,31 @@ public class DurationWeighter implements Weighter {
         return durationToWeight(word, currentTime);
     }
     
-    private int durationToWeight(Word word, long currentTime) {
+    // amount of whole durations passed since the word has been picked
+    private long bucket(Word word, long currentTime) {
         long timePassed = currentTime - word.getLastPickedTimestamp();
+        return timePassed <= 0 ? 0L : timePassed / durationMillis;
+    }
+    
+    private int durationToWeight(Word word, long currentTime) {
+        return (int) bucket(word, currentTime) * w8;
+    }
+    
+    /**
+     * Weight is constant within a bucket of duration length and changes
+     * when the next bucket starts.
+     */
+    @Override
+    public long getNextChange(Word word, long currentTime) {
+        if (w8 == 0 || !word.isSingleWord()) return Long.MAX_VALUE;
         
-        if (timePassed <= 0) return 0;
-        
-        return (int) (timePassed / durationMillis) * w8;
+        return word.getLastPickedTimestamp() +
+            (bucket(word, currentTime) + 1) * durationMillis;
+    }
+    
+    /** @return true if weight to add is zero */
+    @Override
+    public boolean isTimeInvariant() {
+        return w8 == 0;
     }
 }
@@ -0,0 +1,117 @@
+package com.words.controller.words.wordpool.pickstrategy.weight;
+
+import com.words.controller.words.Word;
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of list slots ordered by time of the next weight change.
+ * Every slot knows its position in the heap, so a slot is removed in
+ * O(log n) and nothing is allocated unless the heap has to grow.
+ * @author vlad
+ */
+class SlotHeap {
+    
+    /**
+     * Word at its position in the list.
+     */
+    static class Slot {
+        Word word;
+        int index;
+        long nextChange;
+        // position in the heap, -1 if slot isn't in the heap
+        private int heapIndex = -1;
+    }
+    
+    private Slot[] heap = new Slot[64];
+    private int size = 0;
+    
+    boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /** @return slot with the earliest change or null if heap is empty */
+    Slot peek() {
+        return size == 0 ? null : heap[0];
+    }
+    
+    /**
+     * Adds slot to the heap.
+     * @param slot slot which isn't in the heap
+     */
+    void add(Slot slot) {
+        if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+        
+        slot.heapIndex = size++;
+        heap[slot.heapIndex] = slot;
+        siftUp(slot.heapIndex);
+    }
+    
+    /** @return removed slot with the earliest change */
+    Slot poll() {
+        Slot slot = heap[0];
+        remove(slot);
+        return slot;
+    }
+    
+    /**
+     * Removes slot if it's in the heap.
+     * @param slot slot to remove
+     */
+    void remove(Slot slot) {
+        int i = slot.heapIndex;
+        if (i < 0) return;
+        
+        slot.heapIndex = -1;
+        Slot last = heap[--size];
+        heap[size] = null;
+        if (i == size) return;
+        
+        heap[i] = last;
+        last.heapIndex = i;
+        siftDown(i);
+        siftUp(last.heapIndex);
+    }
+    
+    /** Removes all slots. */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            heap[i].heapIndex = -1;
+            heap[i] = null;
+        }
+        size = 0;
+    }
+    
+    private void swap(int i, int j) {
+        Slot slot = heap[i];
+        heap[i] = heap[j];
+        heap[j] = slot;
+        heap[i].heapIndex = i;
+        heap[j].heapIndex = j;
+    }
+    
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (heap[parent].nextChange <= heap[i].nextChange) return;
+            
+            swap(i, parent);
+            i = parent;
+        }
+    }
+    
+    private void siftDown(int i) {
+        while (true) {
+            int least = i;
+            int left = 2 * i + 1, right = left + 1;
+            if (left < size && heap[left].nextChange < heap[least].nextChange)
+                least = left;
+            if (right < size &&
+                heap[right].nextChange < heap[least].nextChange)
+                least = right;
+            if (least == i) return;
+            
+            swap(i, least);
+            i = least;
+        }
+    }
+}
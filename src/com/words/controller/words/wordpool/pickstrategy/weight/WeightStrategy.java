@@ -1,83 +1,227 @@
 package com.words.controller.words.wordpool.pickstrategy.weight;
 
 import com.words.controller.words.Word;
+import com.words.controller.words.wordpool.WordQueue;
 import com.words.controller.words.wordpool.pickstrategy.PickStrategy;
-import java.util.ArrayList;
-import java.util.LinkedList;
+import com.words.controller.words.wordpool.pickstrategy.weight.SlotHeap.Slot;
+import java.util.Arrays;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.RandomAccess;
 
+/**
+ * Strategy picks words with probability proportional to their weights.
+ * Weights are cached in a Fenwick tree which mirrors the list, so a pick
+ * is O(log n). Words appended by the pool are weighted once. Weight of
+ * a word is recalculated only when its weighter reports a change in time
+ * or when the pool reports that the word has been changed, the whole
+ * list is weighted again only after listChanged or if the weighter can't
+ * tell when its weights change.
+ * Picked word is replaced by the last word of the list. Slots of the
+ * words are reused, so a pick allocates nothing.
+ */
 public class WeightStrategy implements PickStrategy {
-   
-    private final List<Integer> weights = new ArrayList<>();
+    
     private final Weighter weighter;
     
+    private final WeightTree weights = new WeightTree();
+    private Slot[] slots = new Slot[64];
+    private Slot[] free = new Slot[64];
+    private int freeSize = 0;
+    
+    // slots ordered by time of the next weight change
+    private final SlotHeap changes = new SlotHeap();
+    
+    // false if list has been changed or weights can change at any moment
+    private boolean valid = false;
+    
+    // time of the last pick
+    private long lastTime = Long.MIN_VALUE;
+    
     private double probability;
+    // time of the first weight change after the last pick
+    private long expiration = Long.MIN_VALUE;
     
     public WeightStrategy(Weighter weighter) {
         this.weighter = weighter;
     }
     
+    @Override
+    public void listChanged() {
+        valid = false;
+    }
+    
+    @Override
+    public void wordChanged(List<Word> list, int index) {
+        // weights which aren't valid are calculated again anyway,
+        // appended words aren't weighted yet
+        if (!valid || index >= weights.size()) return;
+        
+        Slot slot = slots[index];
+        if (slot == null || slot.word != list.get(index)) {
+            valid = false;
+            return;
+        }
+        
+        reweigh(slot, lastTime);
+    }
+    
+    // weights word at the position
+    private void weigh(Slot slot, long currentTime) {
+        slot.nextChange = weighter.getNextChange(slot.word, currentTime);
+        if (slot.nextChange <= currentTime) {
+            valid = false;
+        } else if (slot.nextChange != Long.MAX_VALUE) {
+            changes.add(slot);
+        }
+    }
+    
+    private void recycle(Slot slot) {
+        slot.word = null;
+        slot.index = -1;
+        if (freeSize == free.length)
+            free = Arrays.copyOf(free, freeSize * 2);
+        free[freeSize++] = slot;
+    }
+    
+    private void append(Word word, long currentTime) {
+        int index = weights.size();
+        if (index == slots.length)
+            slots = Arrays.copyOf(slots, index * 2);
+        
+        Slot slot = freeSize > 0 ? free[--freeSize] : new Slot();
+        slot.word = word;
+        slot.index = index;
+        slots[index] = slot;
+        weights.add(weighter.getWeight(word, currentTime));
+        weigh(slot, currentTime);
+    }
+    
     /**
      * Recalculates weights for current word pool.
-     * @return weight sum
      */
-    private long calculateWeights(List<Word> list) {
-        long currentTime = System.currentTimeMillis();
-        
-        long sum = 0L;
+    private void calculateWeights(List<Word> list, long currentTime) {
+        valid = true;
+        changes.clear();
+        for (int i = 0; i < weights.size(); i++) {
+            if (slots[i] != null) recycle(slots[i]);
+            slots[i] = null;
+        }
         weights.clear();
         
-        for (Word word : list) {
-            int w8 = weighter.getWeight(word, currentTime);
-            sum += w8;
-            weights.add(w8);
+        for (Word word : list) append(word, currentTime);
+    }
+    
+    // brings weights in line with the list
+    private void update(List<Word> list, long currentTime) {
+        if (!valid || list.size() < weights.size()) {
+            calculateWeights(list, currentTime);
+            return;
+        }
+        
+        // words appended by the pool
+        for (int i = weights.size(); i < list.size(); i++)
+            append(list.get(i), currentTime);
+        
+        // words whose time-driven weights have changed
+        while (!changes.isEmpty() &&
+            changes.peek().nextChange <= currentTime)
+            reweigh(changes.peek(), currentTime);
+    }
+    
+    // recalculates weight of the word and its next change
+    private void reweigh(Slot slot, long currentTime) {
+        changes.remove(slot);
+        weights.set(slot.index, weighter.getWeight(slot.word, currentTime));
+        weigh(slot, currentTime);
+    }
+    
+    // removes word, the last word takes its place
+    private Word remove(List<Word> list, int index) {
+        int last = list.size() - 1;
+        Word word = list.get(index);
+        
+        if (index != last) {
+            list.set(index, list.get(last));
+            slots[index] = slots[last];
+            slots[index].index = index;
         }
+        list.remove(last);
         
-        return sum;
+        slots[last] = null;
+        weights.removeSwapLast(index);
+        return word;
     }
-      
+    
     @Override
     public Word nextWord(List<Word> list) {
-        long calculatedSum = calculateWeights(list);
-        if (calculatedSum == 0L) return list.remove(RAND.nextInt(list.size()));
+        return nextWord(list, System.currentTimeMillis());
+    }
+    
+    @Override
+    public Word nextWord(List<Word> list, long currentTime) {
+        // weights which have been changed can't be changed back
+        if (currentTime < lastTime) currentTime = lastTime;
+        lastTime = currentTime;
         
-        long r = nextLong(calculatedSum);
-        int index = 0;
-        long sum = 0;
-
-        for (Integer i : weights) {
-            sum += i;
-            
-            if (r < sum) {
-                probability = 1.0 * i / calculatedSum;
-                Word word = list.remove(index);
-                return word;
-            }
-            
-            index++;
+        // positions of other lists can't be changed cheaply
+        if (!(list instanceof RandomAccess)) valid = false;
+        update(list, currentTime);
+        
+        long calculatedSum = weights.total();
+        int index;
+        if (calculatedSum == 0L) {
+            index = RAND.nextInt(list.size());
+            probability = 1.0 / list.size();
+        } else {
+            index = weights.find(nextLong(calculatedSum));
+            probability = 1.0 * weights.get(index) / calculatedSum;
         }
         
-        System.err.println("Incorrect behaviour in priority behavior");
-        return list.remove(0);
+        if (slots[index] == null || slots[index].word != list.get(index)) {
+            System.err.println("Incorrect behaviour in priority behavior");
+            valid = false;
+            expiration = currentTime;
+            return list.remove(index);
+        }
+        
+        Slot picked = slots[index];
+        Word word = remove(list, index);
+        changes.remove(picked);
+        expiration = expiration(currentTime, picked.nextChange);
+        recycle(picked);
+        return word;
+    }
+    
+    // the earliest change of the picked word and words left in the list
+    private long expiration(long currentTime, long pickedChange) {
+        if (!valid) return currentTime;
+        if (changes.isEmpty()) return pickedChange;
+        return Math.min(pickedChange, changes.peek().nextChange);
     }
     
     @Override
-    public void insertIntoQueue(LinkedList<Word> queue, Word word) {
+    public void insertIntoQueue(WordQueue queue, Word word) {
+        insertPrivileged(queue, word);
+    }
+    
+    /**
+     * Inserts privileged word into the last third of the queue before
+     * the first word which isn't privileged, so it's picked sooner.
+     * @param queue queue to insert into
+     * @param word picked word
+     */
+    static void insertPrivileged(WordQueue queue, Word word) {
         if (word.getComplexity().isPrivileged() && queue.size() >= 5) {
-            int index = queue.size() * 2 / 3;
-            ListIterator<Word> iter = queue.listIterator(index);
-            while (iter.hasNext()) {
-                if (!iter.next().getComplexity().isPrivileged()) {
-                    iter.previous();
-                    iter.add(word);
+            for (int i = queue.size() * 2 / 3; i < queue.size(); i++) {
+                if (!queue.get(i).getComplexity().isPrivileged()) {
+                    queue.insert(i, word);
                     return;
                 }
             }
   
             queue.add(word);
         } else {
-            PickStrategy.super.insertIntoQueue(queue, word);
+            queue.add(word);
         }
     }
     
@@ -91,9 +235,14 @@ public class WeightStrategy implements PickStrategy {
         } while (bits - val +(range - 1) < 0L);
         return val;
     }
-
+    
     @Override
     public double getLastProbability() {
         return probability;
     }
+    
+    @Override
+    public long getLastPickExpiration() {
+        return expiration;
+    }
 }
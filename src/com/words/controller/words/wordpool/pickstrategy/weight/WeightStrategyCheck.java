@@ -0,0 +1,115 @@
+package com.words.controller.words.wordpool.pickstrategy.weight;
+
+import com.words.controller.words.Word;
+import com.words.controller.words.WordFactory;
+import com.words.controller.words.wordkinds.WordComplexity;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks cached weights of WeightStrategy against brute force on a
+ * virtual clock. Durations are a few milliseconds long, so weights change
+ * on almost every pick. Before every pick all weights are calculated
+ * again: probability of the picked word has to be its weight divided by
+ * the total weight at the time of the pick. After the pick the weights
+ * have to stay the same at every time before the pick expires, which is
+ * what lets word pool hand over a prefetched word.
+ * Run with the compiled classes in the classpath:
+ *      java com.words.controller.words.wordpool.pickstrategy.weight
+ *          .WeightStrategyCheck
+ * @author vlad
+ */
+class WeightStrategyCheck {
+    
+    private static final int WORDS = 300;
+    private static final int PICKS = 200_000;
+    private static final double EPSILON = 1e-12;
+    
+    private static final Random RANDOM = new Random(1L);
+    
+    public static void main(String[] args) {
+        Duration duration = Duration.ofMillis(20L);
+        int weight = WordComplexity.EASY.getWeight();
+        
+        check("standard", new CompoundWeighter(new ComplexityWeigher(),
+            new DurationWeighter(duration, weight)));
+        check("recent standard", new CompoundWeighter(new ComplexityWeigher(),
+            new RecentDurationWeighter(duration, weight)));
+        check("duration complexity",
+            new DurationComplexityWeighter(duration, weight));
+        
+        System.out.println("Weights of every pick match brute force");
+    }
+    
+    private static List<Word> newWords(long timestamp) {
+        WordComplexity[] complexities = WordComplexity.values();
+        LocalDate today = LocalDate.now();
+        
+        List<Word> words = new ArrayList<>(WORDS);
+        for (int i = 0; i < WORDS; i++) {
+            Word word = WordFactory.newWord();
+            word.setWord("word" + i);
+            word.setBundle(today.minusMonths(i % 12));
+            word.setComplexity(complexities[i % complexities.length]);
+            word.setLastPickedTimestamp(timestamp - i * 7);
+            words.add(word);
+        }
+        
+        return words;
+    }
+    
+    private static long totalWeight(Weighter weighter, List<Word> words,
+        long time) {
+        long total = 0L;
+        for (Word word : words) total += weighter.getWeight(word, time);
+        return total;
+    }
+    
+    // weights of the pick stay the same until the pick expires
+    private static void checkExpiration(String name, Weighter weighter,
+        List<Word> words, Word picked, long time, long expiration) {
+        long later = time + RANDOM.nextInt(30);
+        if (later >= expiration) return;
+        
+        words.add(picked);
+        for (Word word : words) {
+            if (weighter.getWeight(word, time) !=
+                weighter.getWeight(word, later)) {
+                throw new AssertionError(name + ": weight of " + word +
+                    " has changed at " + later + " before " + expiration);
+            }
+        }
+        words.remove(words.size() - 1);
+    }
+    
+    private static void check(String name, Weighter weighter) {
+        WeightStrategy strategy = new WeightStrategy(weighter);
+        long time = 1_000_000L;
+        List<Word> words = newWords(time);
+        
+        for (int i = 0; i < PICKS; i++) {
+            time += i % 5;
+            
+            long total = totalWeight(weighter, words, time);
+            Word word = strategy.nextWord(words, time);
+            double expected = total == 0L ? 1.0 / (words.size() + 1) :
+                1.0 * weighter.getWeight(word, time) / total;
+            if (Math.abs(strategy.getLastProbability() - expected) > EPSILON)
+                throw new AssertionError(name + ": probability of " + word +
+                    " is " + strategy.getLastProbability() + " instead of " +
+                    expected + " at pick " + i);
+            
+            checkExpiration(name, weighter, words, word, time,
+                strategy.getLastPickExpiration());
+            
+            word.setLastPickedTimestamp(time);
+            words.add(word);
+        }
+        
+        System.out.println(String.format("%-20s%d picks checked",
+            name, PICKS));
+    }
+}
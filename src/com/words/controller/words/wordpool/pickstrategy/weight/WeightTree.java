@@ -0,0 +1,119 @@
+package com.words.controller.words.wordpool.pickstrategy.weight;
+
+import java.util.Arrays;
+
+/**
+ * Binary indexed (Fenwick) tree of non-negative weights.
+ * Weights are kept in primitive arrays. Append, update, removal and
+ * weighted search are O(log n), total weight is O(1).
+ * @author vlad
+ */
+class WeightTree {
+    
+    private static final int INITIAL_CAPACITY = 64;
+    
+    // tree[i] is sum of weights (i - lowbit(i), i], 1-based
+    private long[] tree = new long[INITIAL_CAPACITY + 1];
+    private int[] weights = new int[INITIAL_CAPACITY];
+    private int size = 0;
+    private long total = 0L;
+    
+    /** @return amount of weights */
+    int size() {
+        return size;
+    }
+    
+    /** @return sum of all weights */
+    long total() {
+        return total;
+    }
+    
+    /**
+     * Get weight.
+     * @param index index of the weight
+     * @return weight
+     */
+    int get(int index) {
+        return weights[index];
+    }
+    
+    /** Removes all weights. */
+    void clear() {
+        Arrays.fill(tree, 0, size + 1, 0L);
+        Arrays.fill(weights, 0, size, 0);
+        size = 0;
+        total = 0L;
+    }
+    
+    // sum of weights [0, count)
+    private long prefix(int count) {
+        long sum = 0L;
+        for (int i = count; i > 0; i -= i & -i) sum += tree[i];
+        return sum;
+    }
+    
+    /**
+     * Appends weight to the end.
+     * @param weight weight, negative weight is treated as zero
+     */
+    void add(int weight) {
+        weight = Math.max(weight, 0);
+        if (size == weights.length) {
+            weights = Arrays.copyOf(weights, size * 2);
+            tree = Arrays.copyOf(tree, size * 2 + 1);
+        }
+        
+        int i = size + 1;
+        tree[i] = weight + prefix(i - 1) - prefix(i - (i & -i));
+        weights[size++] = weight;
+        total += weight;
+    }
+    
+    /**
+     * Changes weight.
+     * @param index index of the weight
+     * @param weight new weight, negative weight is treated as zero
+     */
+    void set(int index, int weight) {
+        weight = Math.max(weight, 0);
+        long delta = weight - weights[index];
+        if (delta == 0L) return;
+        
+        weights[index] = weight;
+        total += delta;
+        for (int i = index + 1; i <= size; i += i & -i) tree[i] += delta;
+    }
+    
+    /**
+     * Removes weight, the last weight takes its place.
+     * @param index index of the weight to remove
+     */
+    void removeSwapLast(int index) {
+        int last = size - 1;
+        if (index != last) set(index, weights[last]);
+        
+        // nodes of the smaller tree don't cover the last weight
+        total -= weights[last];
+        weights[last] = 0;
+        size--;
+    }
+    
+    /**
+     * Finds weight which covers the point, i.e. the first index
+     * for which sum of weights [0, index] is greater than the point.
+     * @param point number from 0 (inclusive) to total (exclusive)
+     * @return index of the weight
+     */
+    int find(long point) {
+        int index = 0;
+        for (int step = Integer.highestOneBit(size); step > 0; step >>= 1) {
+            int next = index + step;
+            if (next <= size && tree[next] <= point) {
+                index = next;
+                point -= tree[next];
+            }
+        }
+        
+        return index;
+    }
+}
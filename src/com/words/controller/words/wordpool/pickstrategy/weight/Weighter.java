@@ -5,4 +5,51 @@ import com.words.controller.words.Word;
 @FunctionalInterface
 public interface Weighter {
     int getWeight(Word word, long currentTime);
+    
+    /**
+     * Get time when weight of the word changes next time, so strategies
+     * can cache weights until then.
+     * By default weight can change at any moment.
+     * @param word word to check
+     * @param currentTime current time in milliseconds
+     * @return time in milliseconds greater than current time,
+     *         Long.MAX_VALUE if weight never changes by itself or
+     *         current time if weight can change at any moment
+     */
+    default long getNextChange(Word word, long currentTime) {
+        return currentTime;
+    }
+    
+    /**
+     * Check if weights depend only on words, not on time.
+     * Weights of such weighter change only if words change.
+     * @return true if weights never change by themselves
+     */
+    default boolean isTimeInvariant() {
+        return false;
+    }
+    
+    /**
+     * Creates weighter which returns the same weight for every word.
+     * @param w8 weight
+     * @return constant weighter
+     */
+    static Weighter constant(int w8) {
+        return new Weighter() {
+            @Override
+            public int getWeight(Word word, long currentTime) {
+                return w8;
+            }
+            
+            @Override
+            public long getNextChange(Word word, long currentTime) {
+                return Long.MAX_VALUE;
+            }
+            
+            @Override
+            public boolean isTimeInvariant() {
+                return true;
+            }
+        };
+    }
 }
@@ -32,6 +32,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import javax.imageio.ImageIO;
 import javax.swing.AbstractAction;
@@ -97,6 +98,9 @@ class AllWordsPanel extends JPanel {
     // delays statistic loading
     private boolean firstShow = true;
     
+    // only the latest update is shown
+    private final AtomicInteger updateRequest = new AtomicInteger();
+    
     public AllWordsPanel(Controller ctrl, Font font, ImageIcon ic) {
         this.controller = ctrl;
         this.icon = ic;
@@ -621,9 +625,16 @@ class AllWordsPanel extends JPanel {
      * Updates list
      */
     public final void fireUpdate() {
+        int request = updateRequest.incrementAndGet();
+        controller.getAllWordsAsListAsync().thenAcceptAsync(words -> {
+            if (request == updateRequest.get()) showWords(words);
+        }, GuiUtils.EDT);
+    }
+    
+    private void showWords(List<Word> words) {
         WordComplexity complexity = null;
         
-        listModel.setWords(controller.getAllWordsAsList());
+        listModel.setWords(words);
         
         if (complexityCheckBox.isSelected())
             complexity = (WordComplexity) complexityBox.getSelectedItem();
@@ -11,7 +11,6 @@ import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
 import java.time.LocalDate;
 import java.util.Collections;
-import java.util.Objects;
 import java.util.function.BiConsumer;
 import javax.swing.AbstractAction;
 import javax.swing.ActionMap;
@@ -63,7 +62,7 @@ class AuxilliaryDialog extends JDialog {
         add(tabbedPane, BorderLayout.CENTER);
         
         bundlePanel = new BundlePanel(controller, icon, FONT);
-        bundlePanel.setBundle(controller.getLastBundleName());
+        bundlePanel.fireUpdate();
         
         futureWordsPanel = new FutureWordsPanel(controller, icon, FONT);
         
@@ -205,15 +204,11 @@ class AuxilliaryDialog extends JDialog {
     
     /**
      * Display word bundle and then select the word.
-     * @param bundle bundle to show
+     * @param bundle bundle to show or null to show the last bundle
      * @param word word to select. Can be null which means no selection.
-     * @throws NullPointerException if bundle is null
      */
     public void showBundle(LocalDate bundle, String word) {
-        Objects.requireNonNull(bundle);
-        
-        bundlePanel.setBundle(bundle);
-        bundlePanel.setSelectedWord(word);
+        bundlePanel.setBundle(bundle, word);
         tabbedPane.setSelectedComponent(bundlePanel);
         
         setVisible(true);
@@ -29,7 +29,7 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.NavigableSet;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.swing.AbstractAction;
 import javax.swing.ActionMap;
 import javax.swing.BorderFactory;
@@ -93,6 +93,12 @@ class BundlePanel extends JPanel {
     private JComboBox<LocalDate> bundleComboBox;
     private DefaultComboBoxModel<LocalDate> bundleComboModel;
     
+    // combo box is changed by the panel, not by the user
+    private boolean updatingBox = false;
+    
+    // only the latest requested bundle is shown
+    private final AtomicInteger bundleRequest = new AtomicInteger();
+    
     private JPopupMenu menu;
     
     // map to store changed words
@@ -210,6 +216,8 @@ class BundlePanel extends JPanel {
         addThisBundleButton.setToolTipText(
             "<html><b>Add this bundle to current word pool");
         addThisBundleButton.addActionListener(e -> {
+            if (bundle == null) return;
+            
             controller.addBundleToPool(bundle);
             JOptionPane.showMessageDialog(BundlePanel.this,
                 "<html><h2>Bundle «" + DateTimeUtils.localDateToString(bundle) +
@@ -223,11 +231,8 @@ class BundlePanel extends JPanel {
         GridBagConstraints c = new GridBagConstraints();
         c.fill = GridBagConstraints.HORIZONTAL;
         
-        List<String> bundles =
-            new ArrayList(controller.allBundlesSorted().descendingSet());
-        
-        bundleComboModel = new DefaultComboBoxModel<>(
-            bundles.toArray(new LocalDate[bundles.size()]));
+        // bundles are loaded by fireUpdate
+        bundleComboModel = new DefaultComboBoxModel<>();
         
         bundleComboBox = new JComboBox<>(bundleComboModel);
         bundleComboBox.setFont(font);
@@ -248,7 +253,7 @@ class BundlePanel extends JPanel {
         });
         
         bundleComboBox.addItemListener(e -> {
-            if (e.getStateChange() == ItemEvent.SELECTED) {
+            if (e.getStateChange() == ItemEvent.SELECTED && !updatingBox) {
                 setBundle(bundleComboBox.getItemAt(bundleComboBox.getSelectedIndex()));
             }
         });
@@ -431,7 +436,7 @@ class BundlePanel extends JPanel {
         
         if (choice == JOptionPane.OK_OPTION) {
             editedWords.remove(word);
-            controller.deleteWord(word.getWord());
+            controller.deleteWord(word);
             
             buttonAndLabelSync();
         }
@@ -463,21 +468,50 @@ class BundlePanel extends JPanel {
     }
     
     /**
-     * Set bundle and update table.
-     * @param bundle bundle name
+     * Set bundle and update table. Bundle is loaded asynchronously.
+     * @param newBundle bundle name, last bundle is shown if it doesn't exist
      */
     public final void setBundle(LocalDate newBundle) {
-        NavigableSet<LocalDate> bundles = controller.allBundlesSorted();
+        loadBundle(newBundle, null);
+    }
+    
+    /**
+     * Set bundle and select the word after the bundle has been loaded.
+     * @param newBundle bundle name, last bundle is shown if it doesn't exist
+     * @param word word to select. Can be null which means no selection.
+     */
+    public void setBundle(LocalDate newBundle, String word) {
+        loadBundle(newBundle, () -> setSelectedWord(word));
+    }
+    
+    private void loadBundle(LocalDate newBundle, Runnable onShown) {
+        int request = bundleRequest.incrementAndGet();
         
-        bundle = bundles.contains(newBundle) ? newBundle : bundles.last();
-        if (bundle == null) return;
+        controller.allBundlesSortedAsync().thenAccept(bundles -> {
+            if (bundles.isEmpty()) return;
+            
+            LocalDate shownBundle =
+                bundles.contains(newBundle) ? newBundle : bundles.last();
+            controller.getWordsBundleAsync(shownBundle).thenAcceptAsync(
+                words -> {
+                    if (request != bundleRequest.get()) return;
+                    
+                    showBundle(shownBundle, words);
+                    if (onShown != null) onShown.run();
+                }, GuiUtils.EDT);
+        });
+    }
+    
+    private void showBundle(LocalDate newBundle, Collection<Word> words) {
+        bundle = newBundle;
         
-        Collection<Word> words = controller.getWordsBundle(bundle);
         int totalPicked = words.stream().mapToInt(Word::getTimesPicked).sum();
         int averageComplexityWeight = (int) words.stream()
             .mapToInt(w -> w.getComplexity().getWeight()).average().orElse(100d);
         
+        updatingBox = true;
         bundleComboBox.setSelectedItem(bundle);
+        updatingBox = false;
         
         StringBuilder info = new StringBuilder(30);
         final String delimiter = ", ";
@@ -520,16 +554,24 @@ class BundlePanel extends JPanel {
      * Force gui to update.
      */
     public void fireUpdate() {
-        // update bundles
-        List<String> bundles =
-            new ArrayList(controller.allBundlesSorted().descendingSet());
-        bundleComboModel = new DefaultComboBoxModel<>(
-            bundles.toArray(new LocalDate[bundles.size()]));
-        bundleComboBox.setModel(bundleComboModel);
-        
-        setBundle(bundle);
-        
-        tableModel.fireTableDataChanged();
+        int request = bundleRequest.get();
+        
+        controller.allBundlesSortedAsync().thenAcceptAsync(bundles -> {
+            // update bundles
+            List<LocalDate> descending = new ArrayList<>(
+                bundles.descendingSet());
+            bundleComboModel = new DefaultComboBoxModel<>(
+                descending.toArray(new LocalDate[descending.size()]));
+            
+            updatingBox = true;
+            bundleComboBox.setModel(bundleComboModel);
+            updatingBox = false;
+            
+            // newer requested bundle is being loaded already
+            if (request == bundleRequest.get()) setBundle(bundle);
+            
+            tableModel.fireTableDataChanged();
+        }, GuiUtils.EDT);
     }
     
     private void saveChanges() {
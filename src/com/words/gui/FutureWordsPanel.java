@@ -26,6 +26,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 import javax.imageio.ImageIO;
 import javax.swing.AbstractAction;
 import javax.swing.AbstractListModel;
@@ -243,9 +244,11 @@ class FutureWordsPanel extends JPanel {
     public void showPanel() {
         if (firstShow) {
             firstShow = false;
-            listModel.setFutureWords(controller.getFutureWords());
-            update();
-            revalidate();
+            controller.getFutureWordsAsync().thenAcceptAsync(words -> {
+                listModel.setFutureWords(words);
+                update();
+                revalidate();
+            }, GuiUtils.EDT);
         }
     }
     
@@ -297,40 +300,43 @@ class FutureWordsPanel extends JPanel {
         textField.setText("");
         list.clearSelection();
         
-        try {
-            controller.updateFutureWords(word);
-            
-            PlayWav.notification();
-            
-            JOptionPane.showMessageDialog(FutureWordsPanel.this,
-                "<html><h2>Future words have been successfully updated.",
-                "Information", JOptionPane.INFORMATION_MESSAGE, icon);
-        } catch (FwEmptyWordException ex) {
-            textField.requestFocusInWindow();
-            
-            PlayWav.exclamation();
+        controller.updateFutureWords(word).whenCompleteAsync((ignored, ex) -> {
+            Throwable cause = ex instanceof CompletionException ?
+                ex.getCause() : ex;
             
-            JOptionPane.showMessageDialog(FutureWordsPanel.this,
-                "<html><h2>Please enter any word.",
-                "Warning", JOptionPane.WARNING_MESSAGE, icon);
-        } catch (FwTimeoutException ex) {
-            PlayWav.exclamation();
-            
-            JOptionPane.showMessageDialog(FutureWordsPanel.this,
-                "<html><h2>You can't increase priority of the word<br>«" +
-                    onlyWord(word) + "» right now.<br>Not enough days have passed.",
-                "Warning", JOptionPane.WARNING_MESSAGE, icon);
-        } catch (FwAlreadyUsedException ex) {
-            listModel.deleteFutureWord(word);
-            
-            PlayWav.exclamation();
+            if (cause == null) {
+                PlayWav.notification();
+                
+                JOptionPane.showMessageDialog(FutureWordsPanel.this,
+                    "<html><h2>Future words have been successfully updated.",
+                    "Information", JOptionPane.INFORMATION_MESSAGE, icon);
+            } else if (cause instanceof FwEmptyWordException) {
+                textField.requestFocusInWindow();
+                
+                PlayWav.exclamation();
+                
+                JOptionPane.showMessageDialog(FutureWordsPanel.this,
+                    "<html><h2>Please enter any word.",
+                    "Warning", JOptionPane.WARNING_MESSAGE, icon);
+            } else if (cause instanceof FwTimeoutException) {
+                PlayWav.exclamation();
+                
+                JOptionPane.showMessageDialog(FutureWordsPanel.this,
+                    "<html><h2>You can't increase priority of the word<br>«" +
+                        onlyWord(word) + "» right now.<br>Not enough days have passed.",
+                    "Warning", JOptionPane.WARNING_MESSAGE, icon);
+            } else if (cause instanceof FwAlreadyUsedException) {
+                listModel.deleteFutureWord(word);
+                
+                PlayWav.exclamation();
+                
+                JOptionPane.showMessageDialog(FutureWordsPanel.this,
+                    "<html><h2>The word «" + onlyWord(word) + "»<br>is already in use.",
+                    "Warning", JOptionPane.WARNING_MESSAGE, icon);
+            }
             
-            JOptionPane.showMessageDialog(FutureWordsPanel.this,
-                "<html><h2>The word «" + onlyWord(word) + "»<br>is already in use.",
-                "Warning", JOptionPane.WARNING_MESSAGE, icon);
-        }
-        
-        setAmountLabelText();
+            setAmountLabelText();
+        }, GuiUtils.EDT);
     }
     
     // set amount label text
@@ -498,26 +504,29 @@ class FutureWordsPanel extends JPanel {
         if (choice != null) {
             int amount = Integer.parseInt(choice.toString());
             
-            List<Word> newBundleList = controller.generateNewBundle(amount);
-            if (!newBundleList.isEmpty()) {
-                newBundleList.stream().forEach(
-                    word -> listModel.deleteFutureWord(word.getWord()));
-                
-                setAmountLabelText();
-                
-                PlayWav.notification();
-                
-                JOptionPane.showMessageDialog(FutureWordsPanel.this,
-                    "<html><h2>New bundle has been created.<br>"
-                        + "Please restart the application.",
-                    "FutureWords", JOptionPane.INFORMATION_MESSAGE, icon);
-            } else {
-                PlayWav.exclamation();
-                
-                JOptionPane.showMessageDialog(FutureWordsPanel.this,
-                    "<html><h2>Unable to create a new bundle.",
-                    "FutureWords", JOptionPane.WARNING_MESSAGE, icon);
-            }
+            controller.generateNewBundle(amount).thenAcceptAsync(
+                newBundleList -> {
+                    if (!newBundleList.isEmpty()) {
+                        newBundleList.stream().forEach(word ->
+                            listModel.deleteFutureWord(word.getWord()));
+                        
+                        setAmountLabelText();
+                        
+                        PlayWav.notification();
+                        
+                        JOptionPane.showMessageDialog(FutureWordsPanel.this,
+                            "<html><h2>New bundle has been created.<br>"
+                                + "Please restart the application.",
+                            "FutureWords", JOptionPane.INFORMATION_MESSAGE,
+                            icon);
+                    } else {
+                        PlayWav.exclamation();
+                        
+                        JOptionPane.showMessageDialog(FutureWordsPanel.this,
+                            "<html><h2>Unable to create a new bundle.",
+                            "FutureWords", JOptionPane.WARNING_MESSAGE, icon);
+                    }
+                }, GuiUtils.EDT);
         }
         
         textField.requestFocusInWindow();
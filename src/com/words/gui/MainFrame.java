@@ -14,6 +14,7 @@ import com.words.controller.words.wordkinds.WordType;
 import com.words.controller.words.wordkinds.display.strategy.WordDisplayFactory;
 import com.words.gui.guiutils.AutoButtonIcons;
 import com.words.gui.guiutils.ComplexityGuiUtils;
+import com.words.gui.guiutils.GuiUtils;
 import com.words.gui.verification.CharsDialog;
 import com.words.gui.dialogs.AddWordDialog;
 import com.words.gui.dialogs.EditWordDialog;
@@ -42,7 +43,6 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.time.LocalDate;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.IdentityHashMap;
@@ -390,7 +390,8 @@ public class MainFrame extends JFrame {
         // boundry case
         if (word == null || word.getWord() == null) return;
         
-        HintDialog.showDialog(word, icon, controller.getDefinition(word));
+        controller.getDefinitionAsync(word).thenAcceptAsync(definition ->
+            HintDialog.showDialog(word, icon, definition), GuiUtils.EDT);
 //        StringBuilder sb = new StringBuilder();
 //        sb.append("<html><b>")
 //            .append("<font size=5>")
@@ -909,10 +910,9 @@ public class MainFrame extends JFrame {
             
             Word currentWord = controller.getCurrentWord();
             String word = currentWord.getWord();
-            LocalDate bundle = currentWord.getBundle();
-            if (bundle == null) bundle = controller.getLastBundleName();
             
-            auxDialog.showBundle(bundle, word);
+            // null bundle is resolved to the last bundle
+            auxDialog.showBundle(currentWord.getBundle(), word);
         }
     };
     
@@ -1017,26 +1017,28 @@ public class MainFrame extends JFrame {
     private void editWord(String englishWord, JComponent parent) {
         if (englishWord == null) return;
         
-        Word editedWord = controller.getWordInstance(englishWord);
-        if (editedWord == null) return;
-        
-        if (ewd == null) ewd = new EditWordDialog(icon, controller);
-        
-        if (ewd.showDialog(editedWord)) {
-            Word originalWord = ewd.getOriginalWord();
-            
-            Map<Word, Word> map = new IdentityHashMap<>();
-            map.put(editedWord, originalWord);
-            
-            controller.editWords(map);
-            
-            stateChanged(false);
-            
-            JOptionPane.showMessageDialog(parent,
-                "<html><h2>Word «" + editedWord.getWord() +
-                    "» has been saved.",
-                "Edit word", JOptionPane.INFORMATION_MESSAGE, icon);
-        }
+        controller.getWordInstanceAsync(englishWord).thenAcceptAsync(
+            editedWord -> {
+                if (editedWord == null) return;
+                
+                if (ewd == null) ewd = new EditWordDialog(icon, controller);
+                
+                if (ewd.showDialog(editedWord)) {
+                    Word originalWord = ewd.getOriginalWord();
+                    
+                    Map<Word, Word> map = new IdentityHashMap<>();
+                    map.put(editedWord, originalWord);
+                    
+                    controller.editWords(map);
+                    
+                    stateChanged(false);
+                    
+                    JOptionPane.showMessageDialog(parent,
+                        "<html><h2>Word «" + editedWord.getWord() +
+                            "» has been saved.",
+                        "Edit word", JOptionPane.INFORMATION_MESSAGE, icon);
+                }
+            }, GuiUtils.EDT);
     }
     
     private final Action editCurrentWordAction = new AbstractAction("Edit current word") {
@@ -6,6 +6,7 @@ import com.words.controller.utils.DateTimeUtils;
 import com.words.controller.words.Word;
 import com.words.controller.utils.Utils;
 import com.words.controller.words.WordFactory;
+import com.words.gui.guiutils.GuiUtils;
 import java.awt.event.ActionEvent;
 import javax.swing.ImageIcon;
 import javax.swing.JLabel;
@@ -25,8 +26,12 @@ public class AddWordDialog extends WordDialog {
             wordField.setText("");
             translationField.setText("");
             synonymsField.setText("");
-            bundleField.setText(DateTimeUtils.localDateToString(
-                controller.getLastBundleName()));
+            bundleField.setText("");
+            controller.getLastBundleNameAsync().thenAcceptAsync(bundle -> {
+                // bundle typed while the name was loading is kept
+                if (bundleField.getText().isEmpty()) bundleField.setText(
+                    DateTimeUtils.localDateToString(bundle));
+            }, GuiUtils.EDT);
         });
         
         correctLabelText(wordLabel, "required");
@@ -62,18 +67,26 @@ public class AddWordDialog extends WordDialog {
             Utils.trimTrailingPunctuation(synonymsField.getText()));
         newWord.setBundle(DateTimeUtils.parseDate(bundleField.getText()));
         
-        if (controller.wordExists(newWord.getWord())) {
-            PlayWav.exclamation();
-            JOptionPane.showMessageDialog(AddWordDialog.this,
-                "<html><h2>The word «" + newWord.getWord() + "» already exists.",
-                "Warning", JOptionPane.WARNING_MESSAGE, appIcon);
-            wordField.requestFocusInWindow();
-            wordField.selectAll();
-            return;
-        }
-        
-        userAction = UserAction.OK;
-        setVisible(false);
+        Word wordToAdd = newWord;
+        controller.wordExistsAsync(wordToAdd.getWord()).thenAcceptAsync(
+            exists -> {
+                // dialog has been closed or confirmed again
+                if (!isVisible() || newWord != wordToAdd) return;
+                
+                if (exists) {
+                    PlayWav.exclamation();
+                    JOptionPane.showMessageDialog(AddWordDialog.this,
+                        "<html><h2>The word «" + wordToAdd.getWord() +
+                            "» already exists.",
+                        "Warning", JOptionPane.WARNING_MESSAGE, appIcon);
+                    wordField.requestFocusInWindow();
+                    wordField.selectAll();
+                    return;
+                }
+                
+                userAction = UserAction.OK;
+                setVisible(false);
+            }, GuiUtils.EDT);
     }
     
     public Word getNewWord() {
@@ -7,6 +7,7 @@ import java.awt.Dimension;
 import java.awt.event.ActionListener;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import javax.swing.ButtonGroup;
@@ -15,6 +16,7 @@ import javax.swing.JMenu;
 import javax.swing.JPopupMenu;
 import javax.swing.JRadioButtonMenuItem;
 import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
 import javax.swing.event.PopupMenuEvent;
 import javax.swing.event.PopupMenuListener;
 
@@ -27,6 +29,9 @@ public class GuiUtils {
     public static final Color SYNONYMS_COLOR = Color.decode("#0000FF");
     public static final Color EDITED_COLOR = Color.decode("#E77471");
     
+    // executes asynchronous results of the model on the gui thread
+    public static final Executor EDT = SwingUtilities::invokeLater;
+    
     private GuiUtils() { throw new AssertionError(); }
     
     /**
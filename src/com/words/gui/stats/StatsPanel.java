@@ -17,6 +17,8 @@ import java.awt.Insets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 import javax.swing.AbstractListModel;
 import javax.swing.Box;
 import javax.swing.ImageIcon;
@@ -140,28 +142,50 @@ public class StatsPanel extends JPanel {
         statsListModel = new StatsListModel(ctrl) {
             
             @Override
-            protected void setValues() {
-                list.addAll(Arrays.asList(
-                    new Pair("Total number of words",
-                        controller.getTotalWordAmount()),
-                    new Pair("Repeat words", controller.getRepeatWordAmount()),
-                    new Pair("Bundles", controller.getTotalBundleAmount()),
-                    new Pair("Last bundle", DateTimeUtils.localDateToString(
-                        controller.getLastBundleName())),
-                    new Pair("Average word length", String.format("%.1f",
-                        controller.getAverageWordLength())),
-                    new Pair("Future words", controller.getFutureWordsAmount()),
-                    new Pair("Today iterations",
-                        controller.getTodayIterations()),
-                    new Pair("Total iteration amount",
-                        controller.getTotalIterations()),
-                    new Pair("This week iterations",
-                        controller.getThisWeekIterations()),
-                    new Pair("Last 7 days iterations",
-                        controller.getIterationsForDays(7)),
-                    new Pair("Average complexity weight",
-                        controller.getAverageComplexityWeight())
-                ));
+            protected CompletableFuture<List<Pair>> loadValues() {
+                CompletableFuture<Integer> words =
+                    controller.getTotalWordAmountAsync();
+                CompletableFuture<Integer> repeatWords =
+                    controller.getRepeatWordAmountAsync();
+                CompletableFuture<Integer> bundles =
+                    controller.getTotalBundleAmountAsync();
+                CompletableFuture<String> lastBundle = controller
+                    .getLastBundleNameAsync()
+                    .thenApply(DateTimeUtils::localDateToString);
+                CompletableFuture<Double> wordLength =
+                    controller.getAverageWordLengthAsync();
+                CompletableFuture<Integer> futureWords =
+                    controller.getFutureWordsAmountAsync();
+                int todayIterations = controller.getTodayIterations();
+                CompletableFuture<Long> totalIterations =
+                    controller.getTotalIterationsAsync();
+                CompletableFuture<Integer> weekIterations =
+                    controller.getThisWeekIterationsAsync();
+                CompletableFuture<Integer> lastDaysIterations =
+                    controller.getIterationsForDaysAsync(7);
+                CompletableFuture<Integer> complexityWeight =
+                    controller.getAverageComplexityWeightAsync();
+                
+                return CompletableFuture.allOf(words, repeatWords, bundles,
+                    lastBundle, wordLength, futureWords, totalIterations,
+                    weekIterations, lastDaysIterations, complexityWeight)
+                    .thenApply(loaded -> Arrays.asList(
+                        new Pair("Total number of words", words.join()),
+                        new Pair("Repeat words", repeatWords.join()),
+                        new Pair("Bundles", bundles.join()),
+                        new Pair("Last bundle", lastBundle.join()),
+                        new Pair("Average word length", String.format("%.1f",
+                            wordLength.join())),
+                        new Pair("Future words", futureWords.join()),
+                        new Pair("Today iterations", todayIterations),
+                        new Pair("Total iteration amount",
+                            totalIterations.join()),
+                        new Pair("This week iterations", weekIterations.join()),
+                        new Pair("Last 7 days iterations",
+                            lastDaysIterations.join()),
+                        new Pair("Average complexity weight",
+                            complexityWeight.join())
+                    ));
             }
         };
         
@@ -181,12 +205,13 @@ public class StatsPanel extends JPanel {
         oldestListModel = new StatsListModel((ctrl)) {
             
             @Override
-            protected void setValues() {
-                controller.getOldestPickedWords(WORD_LIST_LENGTH).stream().forEach(w -> {
-                    list.add(new Pair(w.getWord(),
-                        DateTimeUtils.getStringFromMillis(w.getLastPickedTimestamp()),
-                        ComplexityGuiUtils.getIcon(w.getComplexity())));
-                });
+            protected CompletableFuture<List<Pair>> loadValues() {
+                return controller.getOldestPickedWordsAsync(WORD_LIST_LENGTH)
+                    .thenApply(words -> words.stream().map(w ->
+                        new Pair(w.getWord(), DateTimeUtils
+                            .getStringFromMillis(w.getLastPickedTimestamp()),
+                            ComplexityGuiUtils.getIcon(w.getComplexity())))
+                    .collect(Collectors.toList()));
             }
         };
         
@@ -208,11 +233,13 @@ public class StatsPanel extends JPanel {
         frequentListModel = new StatsListModel(ctrl) {
             
             @Override
-            protected void setValues() {
-                controller.getMostFrequentlyUsedWords(WORD_LIST_LENGTH).stream().forEach(w -> {
-                    list.add(new Pair(w.getWord(), w.getTimesPicked(),
-                        ComplexityGuiUtils.getIcon(w.getComplexity())));
-                });
+            protected CompletableFuture<List<Pair>> loadValues() {
+                return controller
+                    .getMostFrequentlyUsedWordsAsync(WORD_LIST_LENGTH)
+                    .thenApply(words -> words.stream().map(w ->
+                        new Pair(w.getWord(), w.getTimesPicked(),
+                            ComplexityGuiUtils.getIcon(w.getComplexity())))
+                    .collect(Collectors.toList()));
             }
         };
         
@@ -256,7 +283,8 @@ public class StatsPanel extends JPanel {
         statsListModel.update();
         frequentListModel.update();
         oldestListModel.update();
-        complPanel.updateValues(controller.groupWordsByComplexity());
+        controller.groupWordsByComplexityAsync().thenAcceptAsync(
+            complPanel::updateValues, GuiUtils.EDT);
     }
     
     private abstract static class StatsListModel extends AbstractListModel<Pair> {
@@ -264,7 +292,8 @@ public class StatsPanel extends JPanel {
         protected final List<Pair> list = new ArrayList<>();
         protected final Controller controller;
         
-        protected abstract void setValues();
+        // loads values without blocking the event dispatch thread
+        protected abstract CompletableFuture<List<Pair>> loadValues();
         
         public StatsListModel(Controller ctrl) {
             this.controller = ctrl;
@@ -283,11 +312,12 @@ public class StatsPanel extends JPanel {
         public void update() {
             if (controller == null) return;
             
-            list.clear();
-            
-            setValues();
-            
-            fireContentsChanged(this, 0, getSize() - 1);
+            loadValues().thenAcceptAsync(values -> {
+                list.clear();
+                list.addAll(values);
+                
+                fireContentsChanged(this, 0, getSize() - 1);
+            }, GuiUtils.EDT);
         }
     }
     
@@ -4,6 +4,9 @@ import com.words.controller.Controller;
 import com.words.controller.utils.Utils;
 import com.words.gui.MainFrame;
 import com.words.model.Model;
+import com.words.model.WriteBehindModel;
+import com.words.model.filemodel.FileModel;
+import com.words.model.mysqlmodel.EmbeddedModel;
 import com.words.model.mysqlmodel.MysqlModel;
 import java.io.File;
 import java.io.IOException;
@@ -30,17 +33,42 @@ public class EnglishWords {
             System.getProperty("file.separator") + ".java" +
             System.getProperty("file.separator") + TITLE.toLowerCase());
     
+    // model backend, "file", "file-lazy", "mysql" or "embedded"
+    public static final String MODEL_PROPERTY = "englishwords.model";
+    private static final String DEFAULT_MODEL = "mysql";
+    
     public static void main(String[] args) throws Exception {
         long startTime = System.nanoTime();
         
-//        Model model = new FileModel(PROJECT_DIRECTORY);
-        Model model = new MysqlModel(TITLE);
-//        Model model = new MysqlModel("EnglishWordsTest");
+        Model model = new WriteBehindModel(
+            createModel(System.getProperty(MODEL_PROPERTY, DEFAULT_MODEL)));
         Controller controller = new Controller(model, PROJECT_DIRECTORY);
         
         useSwingGui(controller, startTime);
     }
     
+    /**
+     * Creates model backend.
+     * @param name "file", "file-lazy", "mysql" or "embedded"
+     * @return model
+     * @throws Exception if model can't be opened
+     */
+    private static Model createModel(String name) throws Exception {
+        switch (name) {
+            case "file":
+                return new FileModel(PROJECT_DIRECTORY);
+            case "file-lazy":
+                return new FileModel(PROJECT_DIRECTORY, true);
+            case "mysql":
+                return new MysqlModel(TITLE);
+            case "embedded":
+                return new EmbeddedModel(
+                    PROJECT_DIRECTORY.resolve("embedded"), TITLE);
+            default:
+                throw new IllegalArgumentException("Unknown model: " + name);
+        }
+    }
+    
     public static void restartApplicaiton() {
         try {
             List<String> cmdList = new LinkedList<>();
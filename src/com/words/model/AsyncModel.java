@@ -0,0 +1,314 @@
+package com.words.model;
+
+import com.words.controller.futurewords.FutureWord;
+import com.words.controller.words.Word;
+import com.words.controller.words.wordkinds.WordComplexity;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous facade of any model.
+ * Every call is executed on a dedicated I/O executor and its result is
+ * returned as a CompletableFuture, so model I/O never blocks the caller.
+ * Modifications are executed one by one on a single thread in order of
+ * submission. Reads of a thread-safe model are executed on a separate pool
+ * and may run in parallel, backup has its own thread, so it doesn't block
+ * modifications. Reads and backup of a model which isn't thread-safe are
+ * executed on the modification thread.
+ * Failures are logged and complete the future exceptionally.
+ * Use GuiUtils.EDT to handle results on the event dispatch thread.
+ * @author vlad
+ */
+public class AsyncModel implements AutoCloseable {
+    
+    public static final int DEFAULT_READ_THREADS = 2;
+    
+    private static final long CLOSE_TIMEOUT_SECONDS = 10L;
+    
+    private final Model model;
+    private final ExecutorService readExec;
+    private final ExecutorService writeExec;
+    private final ExecutorService backupExec;
+    
+    public AsyncModel(Model model) {
+        this(model, DEFAULT_READ_THREADS);
+    }
+    
+    /**
+     * Creates facade of the model.
+     * @param model underlying model
+     * @param readThreads amount of threads executing reads
+     */
+    public AsyncModel(Model model, int readThreads) {
+        if (readThreads < 1)
+            throw new IllegalArgumentException("readThreads < 1");
+        
+        this.model = model;
+        writeExec = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "model-io-write");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        if (!model.isThreadSafe()) {
+            readExec = writeExec;
+            backupExec = writeExec;
+            return;
+        }
+        
+        readExec = Executors.newFixedThreadPool(readThreads, r -> {
+            Thread thread = new Thread(r, "model-io-read");
+            thread.setDaemon(true);
+            return thread;
+        });
+        backupExec = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "model-backup");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Get underlying model for synchronous calls which don't do I/O
+     * or are made outside of the event dispatch thread.
+     * @return model
+     */
+    public Model getModel() {
+        return model;
+    }
+    
+    private static <T> Supplier<T> logged(Supplier<T> call) {
+        return () -> {
+            try {
+                return call.get();
+            } catch (RuntimeException ex) {
+                System.err.println("Model call failed: " + ex);
+                throw ex;
+            }
+        };
+    }
+    
+    private <T> CompletableFuture<T> read(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(logged(call), readExec);
+    }
+    
+    private <T> CompletableFuture<T> write(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(logged(call), writeExec);
+    }
+    
+    private CompletableFuture<Void> write(Runnable call) {
+        return write(() -> {
+            call.run();
+            return null;
+        });
+    }
+    
+    public CompletableFuture<Word> getWordInstance(String wordToSearch) {
+        return read(() -> model.getWordInstance(wordToSearch));
+    }
+    
+    public CompletableFuture<Boolean> wordExists(String wordToSearch) {
+        return read(() -> model.wordExists(wordToSearch));
+    }
+    
+    public CompletableFuture<Map<String, Word>> getAllWords() {
+        return read(model::getAllWords);
+    }
+    
+    public CompletableFuture<Double> getAverageWordLength() {
+        return read(model::getAverageWordLength);
+    }
+    
+    public CompletableFuture<Map<WordComplexity, Long>>
+        groupWordsByComplexity() {
+        return read(model::groupWordsByComplexity);
+    }
+    
+    public CompletableFuture<List<Word>> getMostFrequentlyUsedWords(int size) {
+        return read(() -> model.getMostFrequentlyUsedWords(size));
+    }
+    
+    public CompletableFuture<List<Word>> getOldestPickedWords(int size) {
+        return read(() -> model.getOldestPickedWords(size));
+    }
+    
+    public CompletableFuture<Collection<Word>> getEbbinghausWords() {
+        return read(model::getEbbinghausWords);
+    }
+    
+    public CompletableFuture<Collection<Word>> getLastWords() {
+        return read(model::getLastWords);
+    }
+    
+    public CompletableFuture<Integer> getTodayIterations() {
+        return read(model::getTodayIterations);
+    }
+    
+    public CompletableFuture<Void> setTodayIterations(int iter) {
+        return write(() -> model.setTodayIterations(iter));
+    }
+    
+    /**
+     * Sets today iterations if they are greater than the stored ones.
+     * Read and write are made as a single modification.
+     * @param iter today iterations
+     * @return future completed after the update
+     */
+    public CompletableFuture<Void> updateTodayIterations(int iter) {
+        return write(() -> {
+            if (model.getTodayIterations() < iter)
+                model.setTodayIterations(iter);
+        });
+    }
+    
+    public CompletableFuture<Long> getTotalIterations() {
+        return read(model::getTotalIterations);
+    }
+    
+    public CompletableFuture<Integer> getThisWeekIterations() {
+        return read(model::getThisWeekIterations);
+    }
+    
+    public CompletableFuture<Integer> getIterationsForDays(int n) {
+        return read(() -> model.getIterationsForDays(n));
+    }
+    
+    public CompletableFuture<Boolean> isExistingBundle(LocalDate bundle) {
+        return read(() -> model.isExistingBundle(bundle));
+    }
+    
+    public CompletableFuture<Collection<Word>> getBundle(LocalDate bundle) {
+        return read(() -> model.getBundle(bundle));
+    }
+    
+    public CompletableFuture<LocalDate> getLastBundleName() {
+        return read(model::getLastBundleName);
+    }
+    
+    public CompletableFuture<LocalDate> getPenultimateBundleName() {
+        return read(model::getPenultimateBundleName);
+    }
+    
+    public CompletableFuture<Collection<Word>> getRepeatWords() {
+        return read(model::getRepeatWords);
+    }
+    
+    public CompletableFuture<Collection<Word>> getExpiredRepeatWords() {
+        return read(model::getExpiredRepeatWords);
+    }
+    
+    public CompletableFuture<Void> addRepeatWord(String word) {
+        return write(() -> model.addRepeatWord(word));
+    }
+    
+    public CompletableFuture<Void> deleteRepeatWord(String word) {
+        return write(() -> model.deleteRepeatWord(word));
+    }
+    
+    public CompletableFuture<Boolean> addNewWord(Word word) {
+        return write(() -> model.addNewWord(word));
+    }
+    
+    public CompletableFuture<Boolean> deleteWord(String word) {
+        return write(() -> model.deleteWord(word));
+    }
+    
+    public CompletableFuture<Void> editWords(Map<Word, Word> map) {
+        return write(() -> model.editWords(map));
+    }
+    
+    public CompletableFuture<NavigableSet<LocalDate>> allBundlesSorted() {
+        return read(model::allBundlesSorted);
+    }
+    
+    public CompletableFuture<String> getDefinition(String word) {
+        return read(() -> model.getDefinition(word));
+    }
+    
+    public CompletableFuture<Void> setDefinition(String word,
+        String definition) {
+        return write(() -> model.setDefinition(word, definition));
+    }
+    
+    public CompletableFuture<Void> setComplexity(String word,
+        WordComplexity complexity) {
+        return write(() -> model.setComplexity(word, complexity));
+    }
+    
+    public CompletableFuture<Void> setLastPickedTimestamp(String word,
+        long timestamp) {
+        return write(() -> model.setLastPickedTimestamp(word, timestamp));
+    }
+    
+    public CompletableFuture<Boolean> addNewBundle(LocalDate bundle,
+        Collection<Word> words) {
+        return write(() -> model.addNewBundle(bundle, words));
+    }
+    
+    public CompletableFuture<Map<String, FutureWord>> getFutureWords() {
+        return read(model::getFutureWords);
+    }
+    
+    public CompletableFuture<Void> updateFutureWord(String word) {
+        return write(() -> model.updateFutureWord(word));
+    }
+    
+    public CompletableFuture<Void> deleteFutureWords(
+        Collection<String> words) {
+        return write(() -> model.deleteFutureWords(words));
+    }
+    
+    public CompletableFuture<Boolean> isEmpty() {
+        return read(model::isEmpty);
+    }
+    
+    public CompletableFuture<Void> flush() {
+        return write(model::flush);
+    }
+    
+    /**
+     * Backups the model after modifications submitted before the backup.
+     * Backup of a thread-safe model runs on its own thread, so a long
+     * backup doesn't delay later writes.
+     * @return future completed after the backup
+     */
+    public CompletableFuture<Void> backup() {
+        if (backupExec == writeExec) return write(model::backup);
+        
+        return write(() -> { }).thenCompose(ignored ->
+            CompletableFuture.supplyAsync(logged(() -> {
+                model.backup();
+                return null;
+            }), backupExec));
+    }
+    
+    /**
+     * Waits for submitted calls and closes the underlying model.
+     */
+    @Override
+    public void close() {
+        readExec.shutdown();
+        writeExec.shutdown();
+        try {
+            readExec.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            writeExec.awaitTermination(CLOSE_TIMEOUT_SECONDS,
+                TimeUnit.SECONDS);
+            // backup is submitted when preceding writes are done
+            backupExec.shutdown();
+            backupExec.awaitTermination(CLOSE_TIMEOUT_SECONDS,
+                TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        
+        model.close();
+    }
+}
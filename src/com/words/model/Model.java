@@ -7,6 +7,7 @@ import com.words.controller.words.wordkinds.WordComplexity;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.NavigableSet;
 
@@ -63,6 +64,51 @@ public interface Model {
      */
     Map<String, Word> getAllWords();
     
+    /**
+     * Get average length of all words.
+     * @return average word length or 0 if there are no words
+     */
+    default double getAverageWordLength() {
+        return WordQueries.getAverageWordLength(getAllWords().values());
+    }
+    
+    /**
+     * Get amount of words grouped by their complexity.
+     * @return map where key is complexity and value is amount of words
+     */
+    default Map<WordComplexity, Long> groupWordsByComplexity() {
+        return WordQueries.groupWordsByComplexity(getAllWords().values());
+    }
+    
+    /**
+     * Get the most frequently picked words. According to timesPicked.
+     * @param size max amount of words
+     * @return words in descending order of times picked
+     */
+    default List<Word> getMostFrequentlyUsedWords(int size) {
+        return WordQueries.getMostFrequentlyUsedWords(
+            getAllWords().values(), size);
+    }
+    
+    /**
+     * Get words which haven't been picked for the longest time.
+     * @param size max amount of words
+     * @return words in ascending order of last picked timestamp
+     */
+    default List<Word> getOldestPickedWords(int size) {
+        return WordQueries.getOldestPickedWords(getAllWords().values(), size);
+    }
+    
+    /**
+     * Get words with the complexity which isn't easier than specified one.
+     * @param complexity the easiest complexity
+     * @return matching words
+     */
+    default Collection<Word> getWordsNotEasierThan(WordComplexity complexity) {
+        return WordQueries.getWordsNotEasierThan(getAllWords().values(),
+            complexity);
+    }
+    
     /**
      * Get today iterations. Today ends and 6 A.M. the next day in the morning.
      * @return today iterations
@@ -201,6 +247,17 @@ public interface Model {
      */
     void setLastPickedTimestamp(String word, long timestamp);
     
+    /**
+     * Sets lastPickedTimestamp and increases timesPicked field by specified
+     * amount. Used to apply several coalesced picks at once.
+     * @param word word
+     * @param timestamp new timestamp
+     * @param times amount of picks to add
+     */
+    default void setLastPickedTimestamp(String word, long timestamp, int times) {
+        for (int i = 0; i < times; i++) setLastPickedTimestamp(word, timestamp);
+    }
+    
     boolean addNewBundle(LocalDate bundle, Collection<Word> words);
     
     /**
@@ -235,9 +292,33 @@ public interface Model {
         throw new UnsupportedOperationException("destroy");
     }
         
+    /**
+     * Writes all pending changes to a hard disk or into a database.
+     */
+    default void flush() { }
+    
+    /**
+     * Writes all pending changes and releases resources of the model.
+     * Model may also save its state to speed up the next startup.
+     * Invoked by controller on shutdown.
+     */
+    default void close() {
+        flush();
+    }
+    
     /**
      * Backup method.
      * Can be used by controller to save model state.
      */
     void backup();
+    
+    /**
+     * Find if calls of the model can be made from several threads at the
+     * same time. Calls of a model which isn't thread-safe are made one by
+     * one by the asynchronous facade.
+     * @return true if model is thread-safe
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
 }
@@ -0,0 +1,149 @@
+package com.words.model;
+
+import com.words.controller.words.Word;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Hash index of words by canonical key.
+ * Canonical key is computed once per word: verb prefix "to " is stripped,
+ * so verbs and nouns are treated as being the same key. Only keys stored
+ * in the index are interned. Lookups are hash operations, iteration is in
+ * canonical key order using sorted view which is built on demand and
+ * cached until the next modification.
+ * @author vlad
+ */
+public class WordIndex extends AbstractMap<String, Word> {
+    
+    private static final String VERB_PREFIX = "to ";
+    
+    private final Map<String, Word> words = new HashMap<>();
+    
+    // sorted view, null if index was modified
+    private Word[] sorted = null;
+    
+    /**
+     * Get canonical key of the word.
+     * @param word word
+     * @return word without leading "to "
+     */
+    public static String canonicalKey(String word) {
+        Objects.requireNonNull(word);
+        
+        String key = word.startsWith(VERB_PREFIX) ?
+            word.substring(VERB_PREFIX.length()) : word;
+        return key.trim();
+    }
+    
+    /**
+     * Get canonical key of the word which is kept by an index.
+     * Keys are interned, so equal keys of different indexes share memory.
+     * @param word word
+     * @return word without leading "to ", interned
+     */
+    public static String storedKey(String word) {
+        return canonicalKey(word).intern();
+    }
+    
+    /**
+     * Checks if words have the same canonical key.
+     * @param word1 first word
+     * @param word2 second word
+     * @return true if words are treated as being the same
+     */
+    public static boolean sameKey(String word1, String word2) {
+        return canonicalKey(word1).equals(canonicalKey(word2));
+    }
+    
+    @Override
+    public Word get(Object key) {
+        if (!(key instanceof String)) return null;
+        return words.get(canonicalKey((String) key));
+    }
+    
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+    
+    @Override
+    public Word put(String key, Word word) {
+        Objects.requireNonNull(word);
+        
+        sorted = null;
+        return words.put(storedKey(key), word);
+    }
+    
+    @Override
+    public Word remove(Object key) {
+        if (!(key instanceof String)) return null;
+        
+        Word removed = words.remove(canonicalKey((String) key));
+        if (removed != null) sorted = null;
+        return removed;
+    }
+    
+    @Override
+    public void clear() {
+        words.clear();
+        sorted = null;
+    }
+    
+    @Override
+    public int size() {
+        return words.size();
+    }
+    
+    private Word[] sortedArray() {
+        if (sorted == null) {
+            // keys are already canonical
+            String[] keys = words.keySet().toArray(new String[words.size()]);
+            Arrays.sort(keys);
+            
+            Word[] array = new Word[keys.length];
+            for (int i = 0; i < keys.length; i++) array[i] = words.get(keys[i]);
+            sorted = array;
+        }
+        
+        return sorted;
+    }
+    
+    @Override
+    public Set<Map.Entry<String, Word>> entrySet() {
+        return new AbstractSet<Map.Entry<String, Word>>() {
+            @Override
+            public Iterator<Map.Entry<String, Word>> iterator() {
+                Word[] array = sortedArray();
+                
+                return new Iterator<Map.Entry<String, Word>>() {
+                    private int next = 0;
+                    
+                    @Override
+                    public boolean hasNext() {
+                        return next < array.length;
+                    }
+                    
+                    @Override
+                    public Map.Entry<String, Word> next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        
+                        Word word = array[next++];
+                        return new SimpleImmutableEntry<>(word.getWord(), word);
+                    }
+                };
+            }
+            
+            @Override
+            public int size() {
+                return words.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package com.words.model;
+
+import com.words.controller.words.Word;
+import com.words.controller.words.wordkinds.WordComplexity;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Statistic queries over a collection of words.
+ * Shared by models which answer them from all loaded words.
+ * @author vlad
+ */
+public final class WordQueries {
+    
+    private WordQueries() { throw new AssertionError(); }
+    
+    /**
+     * Get average length of the words.
+     * @param words words
+     * @return average word length or 0 if there are no words
+     */
+    public static double getAverageWordLength(Collection<Word> words) {
+        return words.stream().mapToInt(word -> word.getWord().length())
+            .average().orElse(0d);
+    }
+    
+    /**
+     * Get amount of words grouped by their complexity.
+     * @param words words
+     * @return map where key is complexity and value is amount of words
+     */
+    public static Map<WordComplexity, Long> groupWordsByComplexity(
+        Collection<Word> words) {
+        return words.stream().collect(Collectors.groupingBy(
+            Word::getComplexity, Collectors.counting()));
+    }
+    
+    /**
+     * Get the most frequently picked words. According to timesPicked.
+     * @param words words
+     * @param size max amount of words
+     * @return words in descending order of times picked
+     */
+    public static List<Word> getMostFrequentlyUsedWords(
+        Collection<Word> words, int size) {
+        return words.stream()
+            .sorted(Comparator.comparingInt(Word::getTimesPicked).reversed())
+            .limit(size).collect(Collectors.toList());
+    }
+    
+    /**
+     * Get words which haven't been picked for the longest time.
+     * @param words words
+     * @param size max amount of words
+     * @return words in ascending order of last picked timestamp
+     */
+    public static List<Word> getOldestPickedWords(Collection<Word> words,
+        int size) {
+        return words.stream()
+            .sorted(Comparator.comparingLong(Word::getLastPickedTimestamp))
+            .limit(size).collect(Collectors.toList());
+    }
+    
+    /**
+     * Get words with the complexity which isn't easier than specified one.
+     * @param words words
+     * @param complexity the easiest complexity
+     * @return matching words
+     */
+    public static Collection<Word> getWordsNotEasierThan(
+        Collection<Word> words, WordComplexity complexity) {
+        return words.stream()
+            .filter(word -> word.getComplexity().isNotEasierThan(complexity))
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,534 @@
+package com.words.model;
+
+import com.words.controller.futurewords.FutureWord;
+import com.words.controller.words.Word;
+import com.words.controller.words.wordkinds.WordComplexity;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind decorator for any model.
+ * Frequent small updates (picks, complexities and today iterations) are
+ * buffered in memory and coalesced by word. Buffer is flushed to the
+ * underlying model on a fixed interval, when amount of dirty words reaches
+ * threshold and before every other modification of the model.
+ * @author vlad
+ */
+public class WriteBehindModel implements Model {
+    
+    public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofSeconds(30L);
+    public static final int DEFAULT_DIRTY_THRESHOLD = 50;
+    
+    // coalesced picks of a single word
+    private static class Pick {
+        private long timestamp;
+        private int times;
+    }
+    
+    /**
+     * Write-behind statistics.
+     */
+    public static final class Statistics {
+        
+        private final long updates;
+        private final long writes;
+        private final long flushes;
+        private final long totalFlushNanos;
+        private final long maxFlushNanos;
+        
+        private Statistics(long updates, long writes, long flushes,
+            long totalFlushNanos, long maxFlushNanos) {
+            this.updates = updates;
+            this.writes = writes;
+            this.flushes = flushes;
+            this.totalFlushNanos = totalFlushNanos;
+            this.maxFlushNanos = maxFlushNanos;
+        }
+        
+        /** @return amount of buffered updates */
+        public long getUpdates() { return updates; }
+        
+        /** @return amount of calls to the underlying model */
+        public long getWrites() { return writes; }
+        
+        /** @return amount of non-empty flushes */
+        public long getFlushes() { return flushes; }
+        
+        /** @return average flush latency in milliseconds */
+        public double getAverageFlushMillis() {
+            return flushes == 0 ? 0d : totalFlushNanos / 1e6 / flushes;
+        }
+        
+        /** @return max flush latency in milliseconds */
+        public double getMaxFlushMillis() { return maxFlushNanos / 1e6; }
+        
+        /** @return ratio of buffered updates to actual writes */
+        public double getCoalescingRatio() {
+            return writes == 0 ? 0d : 1d * updates / writes;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%d updates, %d writes, %d flushes " +
+                "(avg %.2f ms, max %.2f ms)", updates, writes, flushes,
+                getAverageFlushMillis(), getMaxFlushMillis());
+        }
+    }
+    
+    private final Model model;
+    private final int dirtyThreshold;
+    
+    private final ScheduledExecutorService flushExec;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final AtomicLong updates = new AtomicLong();
+    
+    // guarded by lock
+    private final Object lock = new Object();
+    private Map<String, Pick> picks = new LinkedHashMap<>();
+    private Map<String, WordComplexity> complexities = new LinkedHashMap<>();
+    private Integer todayIterations = null;
+    
+    // guarded by flushLock
+    private final Object flushLock = new Object();
+    private long writes = 0L;
+    private long flushes = 0L;
+    private long totalFlushNanos = 0L;
+    private long maxFlushNanos = 0L;
+    
+    public WriteBehindModel(Model model) {
+        this(model, DEFAULT_FLUSH_INTERVAL, DEFAULT_DIRTY_THRESHOLD);
+    }
+    
+    /**
+     * Creates write-behind model.
+     * @param model underlying model
+     * @param flushInterval interval between periodic flushes
+     * @param dirtyThreshold amount of dirty words which triggers flush
+     */
+    public WriteBehindModel(Model model, Duration flushInterval,
+        int dirtyThreshold) {
+        Objects.requireNonNull(model);
+        Objects.requireNonNull(flushInterval);
+        if (flushInterval.isNegative() || flushInterval.isZero())
+            throw new IllegalArgumentException(
+                "Flush interval should be positive");
+        if (dirtyThreshold < 1) throw new IllegalArgumentException(
+            "Dirty threshold should be positive");
+        
+        this.model = model;
+        this.dirtyThreshold = dirtyThreshold;
+        
+        flushExec = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        long millis = flushInterval.toMillis();
+        flushExec.scheduleWithFixedDelay(this::scheduledFlush, millis, millis,
+            TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Get underlying model.
+     * @return wrapped model instance
+     */
+    public Model getModel() {
+        return model;
+    }
+    
+    // must be invoked while holding lock
+    private void updated() {
+        updates.incrementAndGet();
+        
+        if (picks.size() + complexities.size() >= dirtyThreshold &&
+            flushScheduled.compareAndSet(false, true)) {
+            flushExec.execute(() -> {
+                flushScheduled.set(false);
+                scheduledFlush();
+            });
+        }
+    }
+    
+    /**
+     * Writes all buffered changes to the underlying model.
+     * Blocks until all changes are written.
+     */
+    @Override
+    public void flush() {
+        synchronized (flushLock) {
+            Map<String, Pick> picksToWrite;
+            Map<String, WordComplexity> complexitiesToWrite;
+            Integer iterationsToWrite;
+            
+            synchronized (lock) {
+                if (picks.isEmpty() && complexities.isEmpty() &&
+                    todayIterations == null) return;
+                
+                picksToWrite = picks;
+                complexitiesToWrite = complexities;
+                iterationsToWrite = todayIterations;
+                
+                picks = new LinkedHashMap<>();
+                complexities = new LinkedHashMap<>();
+                todayIterations = null;
+            }
+            
+            long start = System.nanoTime();
+            int written = 0;
+            
+            for (Map.Entry<String, Pick> e : picksToWrite.entrySet()) {
+                Pick pick = e.getValue();
+                try {
+                    model.setLastPickedTimestamp(e.getKey(), pick.timestamp,
+                        pick.times);
+                    written++;
+                } catch (RuntimeException ex) {
+                    System.err.println("Failed to write pick of " +
+                        e.getKey() + ": " + ex);
+                    putBack(e.getKey(), pick);
+                }
+            }
+            for (Map.Entry<String, WordComplexity> e :
+                complexitiesToWrite.entrySet()) {
+                try {
+                    model.setComplexity(e.getKey(), e.getValue());
+                    written++;
+                } catch (RuntimeException ex) {
+                    System.err.println("Failed to write complexity of " +
+                        e.getKey() + ": " + ex);
+                    putBack(e.getKey(), e.getValue());
+                }
+            }
+            if (iterationsToWrite != null) {
+                try {
+                    model.setTodayIterations(iterationsToWrite);
+                    written++;
+                } catch (RuntimeException ex) {
+                    System.err.println("Failed to write today iterations: " +
+                        ex);
+                    putBack(iterationsToWrite);
+                }
+            }
+            
+            long nanos = System.nanoTime() - start;
+            
+            writes += written;
+            flushes++;
+            totalFlushNanos += nanos;
+            if (nanos > maxFlushNanos) maxFlushNanos = nanos;
+        }
+        
+        model.flush();
+    }
+    
+    // returns unwritten pick to the buffer, merging it with newer picks
+    private void putBack(String word, Pick pick) {
+        synchronized (lock) {
+            Pick newer = picks.get(word);
+            if (newer == null) {
+                picks.put(word, pick);
+            } else {
+                newer.times += pick.times;
+                newer.timestamp = Math.max(newer.timestamp, pick.timestamp);
+            }
+        }
+    }
+    
+    // returns unwritten complexity to the buffer unless it's been changed
+    private void putBack(String word, WordComplexity complexity) {
+        synchronized (lock) {
+            complexities.putIfAbsent(word, complexity);
+        }
+    }
+    
+    // returns unwritten iterations to the buffer unless they've been changed
+    private void putBack(int iterations) {
+        synchronized (lock) {
+            if (todayIterations == null) todayIterations = iterations;
+        }
+    }
+    
+    // flush of the executor, exception would cancel periodic flushes
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            System.err.println("Write-behind flush failed: " + ex);
+        }
+    }
+    
+    /**
+     * Get write-behind statistics.
+     * @return snapshot of current statistics
+     */
+    public Statistics getStatistics() {
+        synchronized (flushLock) {
+            return new Statistics(updates.get(), writes, flushes, totalFlushNanos,
+                maxFlushNanos);
+        }
+    }
+    
+    @Override
+    public void setLastPickedTimestamp(String word, long timestamp) {
+        setLastPickedTimestamp(word, timestamp, 1);
+    }
+    
+    @Override
+    public void setLastPickedTimestamp(String word, long timestamp, int times) {
+        synchronized (lock) {
+            Pick pick = picks.get(word);
+            if (pick == null) {
+                pick = new Pick();
+                picks.put(word, pick);
+            }
+            
+            pick.timestamp = timestamp;
+            pick.times += times;
+            
+            updated();
+        }
+    }
+    
+    @Override
+    public void setComplexity(String word, WordComplexity complexity) {
+        synchronized (lock) {
+            complexities.put(word, complexity);
+            updated();
+        }
+    }
+    
+    @Override
+    public void setTodayIterations(int iter) {
+        synchronized (lock) {
+            todayIterations = iter;
+            updated();
+        }
+    }
+    
+    @Override
+    public int getTodayIterations() {
+        synchronized (lock) {
+            if (todayIterations != null) return todayIterations;
+        }
+        
+        return model.getTodayIterations();
+    }
+    
+    @Override
+    public long getTotalIterations() {
+        long pending;
+        synchronized (lock) {
+            pending = picks.values().stream().mapToLong(p -> p.times).sum();
+        }
+        
+        return model.getTotalIterations() + pending;
+    }
+    
+    @Override
+    public Word getWordInstance(String wordToSearch) {
+        return model.getWordInstance(wordToSearch);
+    }
+    
+    @Override
+    public boolean wordExists(String wordToSearch) {
+        return model.wordExists(wordToSearch);
+    }
+    
+    @Override
+    public Collection<Word> getLastWords() {
+        return model.getLastWords();
+    }
+    
+    @Override
+    public Collection<Word> getEbbinghausWords() {
+        return model.getEbbinghausWords();
+    }
+    
+    @Override
+    public Map<String, Word> getAllWords() {
+        return model.getAllWords();
+    }
+    
+    // statistics of the underlying model include buffered updates only after
+    // they've been flushed
+    
+    @Override
+    public double getAverageWordLength() {
+        return model.getAverageWordLength();
+    }
+    
+    @Override
+    public Map<WordComplexity, Long> groupWordsByComplexity() {
+        flush();
+        return model.groupWordsByComplexity();
+    }
+    
+    @Override
+    public List<Word> getMostFrequentlyUsedWords(int size) {
+        flush();
+        return model.getMostFrequentlyUsedWords(size);
+    }
+    
+    @Override
+    public List<Word> getOldestPickedWords(int size) {
+        flush();
+        return model.getOldestPickedWords(size);
+    }
+    
+    @Override
+    public Collection<Word> getWordsNotEasierThan(WordComplexity complexity) {
+        flush();
+        return model.getWordsNotEasierThan(complexity);
+    }
+    
+    @Override
+    public int getThisWeekIterations() {
+        return model.getThisWeekIterations();
+    }
+    
+    @Override
+    public int getIterationsForDays(int n) {
+        return model.getIterationsForDays(n);
+    }
+    
+    @Override
+    public boolean isExistingBundle(LocalDate bundle) {
+        return model.isExistingBundle(bundle);
+    }
+    
+    @Override
+    public Collection<Word> getBundle(LocalDate bundle) {
+        return model.getBundle(bundle);
+    }
+    
+    @Override
+    public LocalDate getLastBundleName() {
+        return model.getLastBundleName();
+    }
+    
+    @Override
+    public LocalDate getPenultimateBundleName() {
+        return model.getPenultimateBundleName();
+    }
+    
+    @Override
+    public Collection<Word> getRepeatWords() {
+        return model.getRepeatWords();
+    }
+    
+    @Override
+    public Collection<Word> getExpiredRepeatWords() {
+        return model.getExpiredRepeatWords();
+    }
+    
+    @Override
+    public void addRepeatWord(String word) {
+        model.addRepeatWord(word);
+    }
+    
+    @Override
+    public void deleteRepeatWord(String word) {
+        model.deleteRepeatWord(word);
+    }
+    
+    @Override
+    public boolean addNewWord(Word word) {
+        flush();
+        return model.addNewWord(word);
+    }
+    
+    @Override
+    public boolean deleteWord(String word) {
+        flush();
+        return model.deleteWord(word);
+    }
+    
+    @Override
+    public void editWords(Map<Word, Word> map) {
+        flush();
+        model.editWords(map);
+    }
+    
+    @Override
+    public NavigableSet<LocalDate> allBundlesSorted() {
+        return model.allBundlesSorted();
+    }
+    
+    @Override
+    public String getDefinition(String word) {
+        return model.getDefinition(word);
+    }
+    
+    @Override
+    public void setDefinition(String word, String definition) {
+        model.setDefinition(word, definition);
+    }
+    
+    @Override
+    public boolean addNewBundle(LocalDate bundle, Collection<Word> words) {
+        flush();
+        return model.addNewBundle(bundle, words);
+    }
+    
+    @Override
+    public Map<String, FutureWord> getFutureWords() {
+        return model.getFutureWords();
+    }
+    
+    @Override
+    public void updateFutureWord(String word) {
+        model.updateFutureWord(word);
+    }
+    
+    @Override
+    public void deleteFutureWords(Collection<String> words) {
+        model.deleteFutureWords(words);
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return model.isEmpty();
+    }
+    
+    @Override
+    public void close() {
+        flushExec.shutdown();
+        flush();
+        model.close();
+    }
+    
+    @Override
+    public void destroy() {
+        synchronized (lock) {
+            picks.clear();
+            complexities.clear();
+            todayIterations = null;
+        }
+        
+        flushExec.shutdownNow();
+        model.destroy();
+    }
+    
+    @Override
+    public void backup() {
+        flush();
+        model.backup();
+    }
+    
+    @Override
+    public boolean isThreadSafe() {
+        return model.isThreadSafe();
+    }
+}
@@ -1,23 +1,65 @@
 package com.words.model.filemodel;
 
 import com.words.main.EnglishWords;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.nio.file.FileVisitResult;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Class required to back up file model.
- * It simply copies all important files into backup folder.
+ * Backups are incremental and content-addressed: every unique file content
+ * is stored once as a blob named by its SHA-256 hash, and every backup is
+ * a manifest which maps files to blobs. Files with the same size and
+ * modification time as in the previous manifest aren't read again, so a
+ * backup only costs the bytes which have changed.
+ * Manifest format:
+ *      {hash}\t{size}\t{modified millis}\t{relative path}
  * @author vlad
  */
 class BackupFileModel {
     
+    static final String BLOB_DIR_NAME = "blobs";
+    static final String MANIFEST_SUFFIX = " filemodel.manifest";
+    
+    private static final String DELIMITER = "\t";
+    private static final String SOUND_DIR_NAME = "sound";
+    
+    // file of the previous backup
+    private static class Entry {
+        private final String hash;
+        private final long size;
+        private final long modified;
+        
+        private Entry(String hash, long size, long modified) {
+            this.hash = hash;
+            this.size = size;
+            this.modified = modified;
+        }
+    }
+    
     private final Path projectDir;
-    private final Path currentDir;
+    private final Path backupDir;
+    private final Path blobDir;
+    private final Path manifest;
+    
+    // statistics of the last backup
+    private int files = 0;
+    private int storedBlobs = 0;
+    private long storedBytes = 0L;
     
     public static void main(String[] args) throws Exception {
         BackupFileModel bfm = new BackupFileModel(EnglishWords.PROJECT_DIRECTORY);
@@ -28,55 +70,177 @@ class BackupFileModel {
     public BackupFileModel(Path projectDir) throws IOException {
         this.projectDir = projectDir;
         
-        currentDir = projectDir.resolve("backup")
-            .resolve(LocalDate.now() + " filemodel");
+        backupDir = projectDir.resolve("backup");
+        blobDir = backupDir.resolve(BLOB_DIR_NAME);
+        manifest = backupDir.resolve(LocalDate.now() + MANIFEST_SUFFIX);
         
-        if (Files.exists(currentDir)) {
-            // then delete
-            Files.walkFileTree(currentDir, new SimpleFileVisitor<Path>() {
-                
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
-                    throws IOException {
-                    Files.delete(file);
-                    return FileVisitResult.CONTINUE;
-                }
+        Files.createDirectories(blobDir);
+    }
+    
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new AssertionError(ex);
+        }
+    }
+    
+    private static String toHex(MessageDigest digest) {
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest()) hex.append(String.format("%02x", b));
+        return hex.toString();
+    }
+    
+    private Path blob(String hash) {
+        return blobDir.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+    
+    // the latest manifest, today's one if backup has been made already
+    private Map<String, Entry> readPreviousManifest() throws IOException {
+        Path previous = null;
+        try (DirectoryStream<Path> stream =
+            Files.newDirectoryStream(backupDir, "*" + MANIFEST_SUFFIX)) {
+            for (Path path : stream) {
+                if (previous == null ||
+                    path.getFileName().compareTo(previous.getFileName()) > 0)
+                    previous = path;
+            }
+        }
+        
+        Map<String, Entry> entries = new HashMap<>();
+        if (previous == null) return entries;
+        
+        try (BufferedReader br =
+            Files.newBufferedReader(previous, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] tokens = line.split(DELIMITER, 4);
+                if (tokens.length < 4) continue;
                 
-                @Override
-                public FileVisitResult postVisitDirectory(Path dir, IOException exc)
-                    throws IOException {
-                    Files.delete(dir);
-                    return FileVisitResult.CONTINUE;
-                }
-            });
+                entries.put(tokens[3], new Entry(tokens[0],
+                    Long.parseLong(tokens[1]), Long.parseLong(tokens[2])));
+            }
         }
         
-        Files.createDirectories(currentDir);
+        return entries;
     }
     
-    private void backupFiles(Path dir, Path destDir) throws IOException {
-        Files.createDirectories(destDir);
+    private static List<Path> listFiles(Path dir) throws IOException {
+        List<Path> list = new ArrayList<>();
+        if (Files.notExists(dir)) return list;
         
-        Files
-            .list(dir)
-//            .parallel()
-            .filter(path -> {
-                try {
-                    return Files.isRegularFile(path) && !Files.isHidden(path);
-                } catch (IOException ex) {
-                    return  false;
-                }
-            }).forEach(path -> {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path path : stream) {
                 try {
-                    Files.copy(path, destDir.resolve(path.getFileName()));
-//                    System.out.println("Copied " + path.getFileName());
+                    if (Files.isRegularFile(path) && !Files.isHidden(path))
+                        list.add(path);
                 } catch (IOException ex) { }
-            });
+            }
+        }
+        
+        return list;
+    }
+    
+    /**
+     * Stores blob of the file if it doesn't exist yet. File is read once:
+     * it's copied to a temporary file while being hashed, and the copy
+     * is moved to the blob named by the hash.
+     * @param file file to store
+     * @return hash of the stored content
+     * @throws IOException if file can't be read or blob can't be written
+     */
+    private String store(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        Path temp = Files.createTempFile(blobDir, null, ".tmp");
+        try {
+            long copied;
+            try (InputStream in = new DigestInputStream(
+                Files.newInputStream(file), digest)) {
+                copied = Files.copy(in, temp,
+                    StandardCopyOption.REPLACE_EXISTING);
+            }
+            
+            String hash = toHex(digest);
+            Path blob = blob(hash);
+            if (Files.exists(blob)) return hash;
+            
+            Files.createDirectories(blob.getParent());
+            Files.move(temp, blob, StandardCopyOption.ATOMIC_MOVE);
+            
+            storedBlobs++;
+            storedBytes += copied;
+            return hash;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    private void backupFile(Path file, String relativePath,
+        Map<String, Entry> previous, BufferedWriter out) throws IOException {
+        long size = Files.size(file);
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        
+        Entry entry = previous.get(relativePath);
+        String hash;
+        if (entry != null && entry.size == size &&
+            entry.modified == modified && Files.exists(blob(entry.hash))) {
+            hash = entry.hash;
+        } else {
+            hash = store(file);
+        }
+        
+        out.write(hash + DELIMITER + size + DELIMITER + modified +
+            DELIMITER + relativePath);
+        out.newLine();
+        files++;
     }
     
     public void backup() throws IOException {
-        backupFiles(projectDir, currentDir);
+        long start = System.nanoTime();
+        Map<String, Entry> previous = readPreviousManifest();
         
-        backupFiles(projectDir.resolve("sound"), currentDir.resolve("sound"));
+        // manifest replaces today's one only when it's complete
+        Path temp = manifest.resolveSibling(manifest.getFileName() + ".tmp");
+        try (BufferedWriter out =
+            Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Path file : listFiles(projectDir))
+                backupFile(file, file.getFileName().toString(), previous, out);
+            
+            for (Path file : listFiles(projectDir.resolve(SOUND_DIR_NAME)))
+                backupFile(file, SOUND_DIR_NAME + "/" + file.getFileName(),
+                    previous, out);
+        }
+        Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        
+        System.err.println(String.format(
+            "Backed up %d files, stored %d new blobs (%d bytes) in %d ms",
+            files, storedBlobs, storedBytes,
+            (System.nanoTime() - start) / 1_000_000));
+    }
+    
+    /**
+     * Restores files of the backup.
+     * @param manifest manifest of the backup
+     * @param targetDir directory to restore files to
+     * @throws IOException if blob is missing or files can't be written
+     */
+    static void restore(Path manifest, Path targetDir) throws IOException {
+        Path blobDir = manifest.resolveSibling(BLOB_DIR_NAME);
+        
+        try (BufferedReader br =
+            Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] tokens = line.split(DELIMITER, 4);
+                if (tokens.length < 4) continue;
+                
+                Path target = targetDir.resolve(tokens[3]);
+                Files.createDirectories(target.getParent());
+                Files.copy(blobDir.resolve(tokens[0].substring(0, 2))
+                    .resolve(tokens[0]), target,
+                    StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
     }
 }
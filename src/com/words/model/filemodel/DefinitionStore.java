@@ -0,0 +1,382 @@
+package com.words.model.filemodel;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Append-only store of word definitions with an offset index.
+ * Only offsets and sizes of records are kept in memory, definitions are
+ * read on demand through the LRU cache bounded by total length of cached
+ * definitions.
+ * New and changed definitions are appended to the end of the data file,
+ * superseded records are dropped on compaction.
+ * Data file format:
+ *      {magic: int} {version: int}
+ *      {word length: int} {word} {definition length: int} {definition}
+ *      ...
+ * Definition length is -1 for deleted definitions.
+ * Index file contains one line per record:
+ *      {offset} {definition length} {word}
+ * Records which are missing in the index are recovered from the data file.
+ * @author vlad
+ */
+class DefinitionStore {
+    
+    public static final String DATA_FILE_NAME =
+        WordDefinitions.FILE_NAME + ".dat";
+    public static final String INDEX_FILE_NAME =
+        WordDefinitions.FILE_NAME + ".idx";
+    
+    public static final int DEFAULT_CACHE_CHARS = 256 * 1024;
+    
+    private static final int MAGIC = 0x45574446; // "EWDF"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    
+    private static final String DELIMITER = "\t";
+    
+    private final Path dataFile;
+    private final Path indexFile;
+    private final int cacheChars;
+    
+    // position of a record in the data file
+    private static class Record {
+        private final long offset;
+        private final long size;
+        
+        Record(long offset, long size) {
+            this.offset = offset;
+            this.size = size;
+        }
+    }
+    
+    // actual records
+    private final Map<String, Record> records = new HashMap<>();
+    
+    // definitions in access order
+    private final LinkedHashMap<String, String> cache =
+        new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedChars = 0L;
+    
+    private long dataSize = HEADER_SIZE;
+    private long garbage = 0L;
+    
+    DefinitionStore(Path projectDir, int cacheChars) throws IOException {
+        dataFile = projectDir.resolve(DATA_FILE_NAME);
+        indexFile = projectDir.resolve(INDEX_FILE_NAME);
+        this.cacheChars = cacheChars;
+        open();
+    }
+    
+    private void open() throws IOException {
+        try (RandomAccessFile raf =
+            new RandomAccessFile(dataFile.toFile(), "rw")) {
+            if (raf.length() < HEADER_SIZE || raf.readInt() != MAGIC ||
+                raf.readInt() != VERSION) {
+                raf.setLength(0);
+                raf.writeInt(MAGIC);
+                raf.writeInt(VERSION);
+                Files.deleteIfExists(indexFile);
+            }
+            
+            long scanFrom = readIndex(raf.length());
+            dataSize = scan(raf, scanFrom);
+        }
+    }
+    
+    // reads index lines, returns end of the last indexed record
+    private long readIndex(long length) {
+        long end = HEADER_SIZE;
+        if (Files.notExists(indexFile)) return end;
+        
+        try (BufferedReader in =
+            Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] tokens = line.split(DELIMITER, 3);
+                if (tokens.length < 3) continue;
+                
+                long offset;
+                int definitionLength;
+                try {
+                    offset = Long.parseLong(tokens[0]);
+                    definitionLength = Integer.parseInt(tokens[1]);
+                } catch (NumberFormatException ex) {
+                    continue;
+                }
+                
+                long recordEnd = offset + recordSize(tokens[2], definitionLength);
+                if (offset < HEADER_SIZE || recordEnd > length) continue;
+                
+                index(tokens[2], offset, definitionLength, recordEnd);
+                end = Math.max(end, recordEnd);
+            }
+        } catch (IOException ex) {
+            System.err.println("Error while reading definitions index");
+        }
+        
+        return end;
+    }
+    
+    // indexes records which are missing in the index file
+    private long scan(RandomAccessFile raf, long position) throws IOException {
+        List<String> lines = new ArrayList<>();
+        long length = raf.length();
+        
+        while (position + 8 <= length) {
+            raf.seek(position);
+            int wordLength = raf.readInt();
+            if (wordLength < 0 || position + 8 + wordLength > length) break;
+            
+            byte[] wordBytes = new byte[wordLength];
+            raf.readFully(wordBytes);
+            int definitionLength = raf.readInt();
+            
+            long recordEnd = position + 8 + wordLength +
+                Math.max(0, definitionLength);
+            if (recordEnd > length) break;
+            
+            String word = new String(wordBytes, StandardCharsets.UTF_8);
+            index(word, position, definitionLength, recordEnd);
+            lines.add(indexLine(position, definitionLength, word));
+            
+            position = recordEnd;
+        }
+        
+        // incomplete record at the end is dropped
+        if (position < length) raf.setLength(position);
+        if (!lines.isEmpty()) appendIndex(lines);
+        
+        return position;
+    }
+    
+    private void index(String word, long offset, int definitionLength,
+        long recordEnd) {
+        long size = recordEnd - offset;
+        Record previous = definitionLength < 0 ? records.remove(word) :
+            records.put(word, new Record(offset, size));
+        
+        // every record except actual one is garbage: superseded record
+        // and the tombstone itself
+        if (previous != null) garbage += previous.size;
+        if (definitionLength < 0) garbage += size;
+    }
+    
+    private static long recordSize(String word, int definitionLength) {
+        return 8 + word.getBytes(StandardCharsets.UTF_8).length +
+            Math.max(0, definitionLength);
+    }
+    
+    private static String indexLine(long offset, int definitionLength,
+        String word) {
+        return offset + DELIMITER + definitionLength + DELIMITER + word;
+    }
+    
+    private void appendIndex(List<String> lines) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(indexFile,
+            StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND)) {
+            for (String line : lines) {
+                out.write(line);
+                out.newLine();
+            }
+        }
+    }
+    
+    /**
+     * Get definition, reads it from the data file if it isn't cached.
+     * @param word word
+     * @return definition or null if there is no definition
+     */
+    synchronized String get(String word) {
+        String definition = cache.get(word);
+        if (definition != null) return definition;
+        
+        Record record = records.get(word);
+        if (record == null) return null;
+        
+        try (RandomAccessFile raf =
+            new RandomAccessFile(dataFile.toFile(), "r")) {
+            raf.seek(record.offset);
+            raf.skipBytes(raf.readInt());
+            
+            byte[] bytes = new byte[raf.readInt()];
+            raf.readFully(bytes);
+            definition = new String(bytes, StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            System.err.println("Error while reading definition");
+            return null;
+        }
+        
+        cache(word, definition);
+        return definition;
+    }
+    
+    private void cache(String word, String definition) {
+        String previous = cache.put(word, definition);
+        if (previous != null) cachedChars -= previous.length();
+        cachedChars += definition.length();
+        
+        Iterator<Map.Entry<String, String>> iter = cache.entrySet().iterator();
+        while (cachedChars > cacheChars && iter.hasNext()) {
+            Map.Entry<String, String> entry = iter.next();
+            if (entry.getKey().equals(word)) continue;
+            
+            cachedChars -= entry.getValue().length();
+            iter.remove();
+        }
+    }
+    
+    private void uncache(String word) {
+        String previous = cache.remove(word);
+        if (previous != null) cachedChars -= previous.length();
+    }
+    
+    /**
+     * Appends definition to the store.
+     * @param word word
+     * @param definition definition or null to delete definition
+     */
+    synchronized void put(String word, String definition) {
+        if (definition == null && !records.containsKey(word)) return;
+        
+        byte[] wordBytes = word.getBytes(StandardCharsets.UTF_8);
+        byte[] definitionBytes = definition == null ? null :
+            definition.getBytes(StandardCharsets.UTF_8);
+        int definitionLength =
+            definitionBytes == null ? -1 : definitionBytes.length;
+        long offset = dataSize;
+        
+        try (RandomAccessFile raf =
+            new RandomAccessFile(dataFile.toFile(), "rw")) {
+            raf.seek(offset);
+            raf.writeInt(wordBytes.length);
+            raf.write(wordBytes);
+            raf.writeInt(definitionLength);
+            if (definitionBytes != null) raf.write(definitionBytes);
+            
+            dataSize = raf.getFilePointer();
+            index(word, offset, definitionLength, dataSize);
+            appendIndex(Collections.singletonList(
+                indexLine(offset, definitionLength, word)));
+        } catch (IOException ex) {
+            System.err.println("Can't write definition");
+            return;
+        }
+        
+        if (definition == null) uncache(word);
+        else cache(word, definition);
+    }
+    
+    synchronized boolean contains(String word) {
+        return records.containsKey(word);
+    }
+    
+    /** @return all words which have definitions */
+    synchronized List<String> words() {
+        return new ArrayList<>(records.keySet());
+    }
+    
+    /** @return true if superseded records take more space than actual */
+    synchronized boolean shouldCompact() {
+        return garbage > 0 && garbage >= dataSize - HEADER_SIZE - garbage;
+    }
+    
+    /**
+     * Rewrites store keeping only definitions of specified words.
+     * Drops all superseded records.
+     * @param keep predicate for words to keep
+     */
+    synchronized void rewrite(Predicate<String> keep) {
+        Path tmpData = dataFile.resolveSibling(DATA_FILE_NAME + ".tmp");
+        Path tmpIndex = indexFile.resolveSibling(INDEX_FILE_NAME + ".tmp");
+        List<String> lines = new ArrayList<>();
+        Map<String, Record> newRecords = new HashMap<>();
+        long position = HEADER_SIZE;
+        
+        try (RandomAccessFile in =
+            new RandomAccessFile(dataFile.toFile(), "r");
+            DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tmpData)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            
+            for (Map.Entry<String, Record> entry : records.entrySet()) {
+                if (!keep.test(entry.getKey())) continue;
+                
+                in.seek(entry.getValue().offset);
+                byte[] wordBytes = new byte[in.readInt()];
+                in.readFully(wordBytes);
+                byte[] definitionBytes = new byte[in.readInt()];
+                in.readFully(definitionBytes);
+                
+                out.writeInt(wordBytes.length);
+                out.write(wordBytes);
+                out.writeInt(definitionBytes.length);
+                out.write(definitionBytes);
+                
+                long size = 8 + wordBytes.length + definitionBytes.length;
+                newRecords.put(entry.getKey(), new Record(position, size));
+                lines.add(indexLine(position, definitionBytes.length,
+                    entry.getKey()));
+                position += size;
+            }
+        } catch (IOException ex) {
+            System.err.println("Can't rewrite definitions");
+            return;
+        }
+        
+        try {
+            try (BufferedWriter out =
+                Files.newBufferedWriter(tmpIndex, StandardCharsets.UTF_8)) {
+                for (String line : lines) {
+                    out.write(line);
+                    out.newLine();
+                }
+            }
+            
+            // missing index is rebuilt from the data file on startup
+            Files.deleteIfExists(indexFile);
+            Files.move(tmpData, dataFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tmpIndex, indexFile);
+        } catch (IOException ex) {
+            System.err.println("Can't rewrite definitions");
+            return;
+        }
+        
+        records.keySet().retainAll(newRecords.keySet());
+        cache.keySet().retainAll(newRecords.keySet());
+        cachedChars = cache.values().stream().mapToLong(String::length).sum();
+        records.putAll(newRecords);
+        dataSize = position;
+        garbage = 0L;
+    }
+    
+    synchronized void destroy() {
+        records.clear();
+        cache.clear();
+        cachedChars = 0L;
+        
+        try {
+            Files.deleteIfExists(dataFile);
+            Files.deleteIfExists(indexFile);
+        } catch (IOException ex) { }
+    }
+}
@@ -10,13 +10,16 @@ import com.words.controller.words.wordkinds.WordComplexity;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.NavigableSet;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 public class FileModel implements Model {
@@ -27,31 +30,96 @@ public class FileModel implements Model {
     
     private final Path projectDir;
     
-    private final WordManager wordManager;
+    private final boolean lazy;
+    
+    private final WordStore wordManager;
     private final RepeatWords repeatWords;
     private final WordDefinitions definitions;
     private final FutureWordManager futureWordManager;
     
+    private final Map<String, Duration> loadTimes;
+    
     public FileModel(Path projectDir) throws IOException {
+        this(projectDir, false);
+    }
+    
+    /**
+     * Creates file model.
+     * @param projectDir project directory
+     * @param lazy if true words are loaded by bundles on demand,
+     *             otherwise all words are loaded on startup
+     * @throws IOException if model files can't be opened
+     */
+    public FileModel(Path projectDir, boolean lazy) throws IOException {
         this.projectDir = projectDir;
+        this.lazy = lazy;
         
         if (Files.notExists(projectDir))
             Files.createDirectories(projectDir);
         
         todayAsString = DateTimeUtils.todayAsString();
         
-        definitions = new WordDefinitions(projectDir);
-        
-        iterations = new IterationLog(projectDir);
-        
-        futureWordManager = new FutureWordManager(projectDir);
+        long start = System.nanoTime();
         
-        wordManager = new WordManager(projectDir);
-        
-        repeatWords = new RepeatWords(projectDir);
+        // independent stores are loaded in parallel
+        try (StoreLoader loader = new StoreLoader()) {
+            CompletableFuture<WordDefinitions> definitionsLoad =
+                loader.submit("definitions",
+                    () -> new WordDefinitions(projectDir));
+            CompletableFuture<IterationLog> iterationsLoad =
+                loader.submit("iterations", () -> new IterationLog(projectDir));
+            
+            FileModelSnapshot snapshot = lazy ? null :
+                loader.load("snapshot", () -> FileModelSnapshot.load(projectDir));
+            
+            CompletableFuture<FutureWordManager> futureWordsLoad =
+                loader.submit("future words", () -> snapshot == null ?
+                    new FutureWordManager(projectDir) :
+                    new FutureWordManager(projectDir,
+                        snapshot.getFutureWords()));
+            CompletableFuture<RepeatWords> repeatWordsLoad =
+                loader.submit("repeat words", () -> snapshot == null ?
+                    new RepeatWords(projectDir) :
+                    new RepeatWords(projectDir, snapshot.getRepeatSchedule()));
+            // lazy words are marked every time their bundle is loaded,
+            // so they're loaded after repeat words
+            CompletableFuture<WordStore> wordsLoad = lazy ?
+                loader.submitAfter("words", repeatWordsLoad,
+                    loadedRepeatWords -> () -> new LazyWordManager(projectDir,
+                        LazyWordManager.DEFAULT_WORD_BUDGET,
+                        word -> markRepeatWord(loadedRepeatWords, word))) :
+                loader.submit("words", () -> snapshot == null ?
+                    new WordManager(projectDir) :
+                    new WordManager(projectDir, snapshot.getBundles()));
+            
+            definitions = StoreLoader.join(definitionsLoad);
+            iterations = StoreLoader.join(iterationsLoad);
+            futureWordManager = StoreLoader.join(futureWordsLoad);
+            repeatWords = StoreLoader.join(repeatWordsLoad);
+            wordManager = StoreLoader.join(wordsLoad);
+            
+            loadTimes = loader.getLoadTimes();
+            System.err.println("File model loaded in " +
+                (System.nanoTime() - start) / 1_000_000 + " ms (" +
+                loader + ")");
+        }
         
-        // mark repeat words
-        getRepeatWords().forEach(word -> word.setWordType(WordType.REPEAT));
+        // mark repeat words, requires both words and repeat words
+        if (!lazy)
+            getRepeatWords().forEach(word -> word.setWordType(WordType.REPEAT));
+    }
+    
+    private static void markRepeatWord(RepeatWords repeatWords, Word word) {
+        if (repeatWords.getRepeatWords().contains(word.getWord()))
+            word.setWordType(WordType.REPEAT);
+    }
+    
+    /**
+     * Get load time of every store measured on startup.
+     * @return map of store names and load durations
+     */
+    public Map<String, Duration> getLoadTimes() {
+        return Collections.unmodifiableMap(loadTimes);
     }
     
     @Override
@@ -60,6 +128,9 @@ public class FileModel implements Model {
         
         definitions.clearRedundancies(wordManager.getAllWords());
         wordManager.clearRedundancies();
+        wordManager.compact();
+        wordManager.flush();
+        saveSnapshot();
         
         try {
             BackupFileModel bfm = new BackupFileModel(projectDir);
@@ -73,25 +144,33 @@ public class FileModel implements Model {
     public boolean wordExists(String wordToSearch) {
         Objects.requireNonNull(wordToSearch);
         
-        wordToSearch = wordToSearch.replace("^to ", "");
-        return wordManager.getAllWords().get(wordToSearch) != null ||
-            wordManager.getAllWords().get("to " + wordToSearch) != null;
+        // index treats verbs and nouns as being the same
+        return wordManager.containsWord(wordToSearch);
     }
     
     @Override
     public Word getWordInstance(String wordToSearch) {
         Objects.requireNonNull(wordToSearch);
-        return wordManager.getAllWords().get(wordToSearch);
+        return wordManager.getWord(wordToSearch);
     }
     
     @Override
     public final Collection<Word> getRepeatWords() {
         return repeatWords.getRepeatWords().stream()
-            .filter(wordManager.getAllWords()::containsKey) // filter invalid keys
-            .map(wordManager.getAllWords()::get)
+            .map(wordManager::getWord)
+            .filter(Objects::nonNull) // filter invalid keys
             .collect(Collectors.toSet());
     }
     
+    /**
+     * Get repeat schedule including words which are only in the journal.
+     * Used to import file model into another model.
+     * @return copy of repeat words grouped by date
+     */
+    public Map<LocalDate, List<String>> getRepeatSchedule() {
+        return repeatWords.getSchedule();
+    }
+    
     @Override
     public void addRepeatWord(String word) {
         repeatWords.addRepeatWord(word);
@@ -109,8 +188,7 @@ public class FileModel implements Model {
     
     @Override
     public long getTotalIterations() {
-        return wordManager.getAllWords().values().stream()
-            .mapToLong(Word::getTimesPicked).sum();
+        return wordManager.getTotalTimesPicked();
     }
     
     
@@ -128,7 +206,7 @@ public class FileModel implements Model {
     @Override
     public boolean isExistingBundle(LocalDate bundle)  {
         Objects.requireNonNull(bundle);
-        return wordManager.getBundleMap().containsKey(bundle);
+        return wordManager.bundles().contains(bundle);
     }
     
     @Override
@@ -138,7 +216,7 @@ public class FileModel implements Model {
     
     @Override
     public Collection<Word> getLastWords() {
-        return wordManager.getBundleMap().lastEntry().getValue();
+        return wordManager.getBundle(getLastBundleName());
     }
     
     @Override
@@ -146,11 +224,35 @@ public class FileModel implements Model {
         return Collections.unmodifiableMap(wordManager.getAllWords());
     }
     
+    @Override
+    public double getAverageWordLength() {
+        return wordManager.getAverageWordLength();
+    }
+    
+    @Override
+    public Map<WordComplexity, Long> groupWordsByComplexity() {
+        return wordManager.groupWordsByComplexity();
+    }
+    
+    @Override
+    public List<Word> getMostFrequentlyUsedWords(int size) {
+        return wordManager.getMostFrequentlyUsedWords(size);
+    }
+    
+    @Override
+    public List<Word> getOldestPickedWords(int size) {
+        return wordManager.getOldestPickedWords(size);
+    }
+    
+    @Override
+    public Collection<Word> getWordsNotEasierThan(WordComplexity complexity) {
+        return wordManager.getWordsNotEasierThan(complexity);
+    }
+    
     @Override
     public Collection<Word> getBundle(LocalDate bundle) {
         if (bundle == null) return Collections.emptyList();
-        return wordManager.getBundleMap()
-            .getOrDefault(bundle, Collections.emptyList());
+        return wordManager.getBundle(bundle);
     }
     
     @Override
@@ -188,7 +290,7 @@ public class FileModel implements Model {
     
     @Override
     public NavigableSet<LocalDate> allBundlesSorted() {
-        return (NavigableSet<LocalDate>) wordManager.getBundleMap().keySet();
+        return wordManager.bundles();
     }
     
     @Override
@@ -201,7 +303,7 @@ public class FileModel implements Model {
         Collection<Word> expiredWords = new HashSet<>();
         
         repeatWords.getExpiredRepeatWords().stream().forEach(
-            key -> expiredWords.add(wordManager.getAllWords().get(key)));
+            key -> expiredWords.add(wordManager.getWord(key)));
         expiredWords.remove(null);
         
         return expiredWords;
@@ -225,7 +327,12 @@ public class FileModel implements Model {
     
     @Override
     public void setLastPickedTimestamp(String word, long timestamp) {
-        wordManager.setLastPickedTimestamp(word, timestamp);
+        setLastPickedTimestamp(word, timestamp, 1);
+    }
+    
+    @Override
+    public void setLastPickedTimestamp(String word, long timestamp, int times) {
+        wordManager.setLastPickedTimestamp(word, timestamp, times);
     }
     
     @Override
@@ -235,11 +342,31 @@ public class FileModel implements Model {
     
     @Override
     public boolean isEmpty() {
-        return wordManager.getAllWords().isEmpty();
+        return wordManager.size() == 0;
+    }
+    
+    @Override
+    public void flush() {
+        wordManager.flush();
+    }
+    
+    @Override
+    public void close() {
+        flush();
+        saveSnapshot();
+    }
+    
+    private void saveSnapshot() {
+        // snapshot contains all words and isn't used in lazy mode
+        if (lazy) return;
+        
+        FileModelSnapshot.save(projectDir, wordManager.copyBundleMap(),
+            repeatWords.getSchedule(), futureWordManager.copyFutureWords());
     }
     
     @Override
     public void destroy() {
+        FileModelSnapshot.delete(projectDir);
         wordManager.destroy();
         repeatWords.destroy();
         definitions.destroy();
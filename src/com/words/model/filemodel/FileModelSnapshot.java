@@ -0,0 +1,334 @@
+package com.words.model.filemodel;
+
+import com.words.controller.futurewords.FutureWord;
+import com.words.controller.words.Word;
+import com.words.controller.words.WordFactory;
+import com.words.controller.words.wordkinds.WordComplexity;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Versioned binary snapshot of the file model.
+ * Contains words with their statistics, repeat schedule and future words.
+ * Snapshot is written on clean shutdown and on backup. It records size and
+ * modification time of every source file and is loaded instead of the text
+ * files only if all of them still match exactly.
+ * Strings are length-prefixed UTF-8, numbers are varint-encoded.
+ * File format:
+ *      {magic} {version}
+ *      {source count} ({size or -1 if file is missing} {mtime})...
+ *      {bundle count} ({epoch day} {word count} ({word} {translation}
+ *          {synonyms} {times picked} {timestamp} {complexity})...)...
+ *      {date count} ({epoch day} {word count} ({word})...)...
+ *      {future word count} ({word} {priority} {date added} {date changed})...
+ * @author vlad
+ */
+class FileModelSnapshot {
+    
+    public static final String FILE_NAME = "snapshot";
+    
+    private static final int MAGIC = 0x4557534e; // "EWSN"
+    private static final int VERSION = 2;
+    
+    // files which content is included into the snapshot
+    private static final String[] SOURCE_FILES = {
+        WordManager.FILE_NAME, WordJournal.FILE_NAME, WordStats.FILE_NAME,
+        MappedStatsStore.DATA_FILE_NAME, MappedStatsStore.INDEX_FILE_NAME,
+        RepeatWords.FILE_NAME, RepeatWords.JOURNAL_FILE_NAME,
+        FutureWordManager.FILE_NAME
+    };
+    
+    private final TreeMap<LocalDate, List<Word>> bundles = new TreeMap<>();
+    private final Map<LocalDate, List<String>> repeatSchedule =
+        new LinkedHashMap<>();
+    private final List<FutureWord> futureWords = new ArrayList<>();
+    
+    private FileModelSnapshot() { }
+    
+    TreeMap<LocalDate, List<Word>> getBundles() { return bundles; }
+    
+    Map<LocalDate, List<String>> getRepeatSchedule() { return repeatSchedule; }
+    
+    List<FutureWord> getFutureWords() { return futureWords; }
+    
+    /**
+     * Loads snapshot if it exists and all source files are unchanged.
+     * Loaded snapshot is deleted, because model state diverges from it
+     * after the first modification.
+     * @param projectDir project directory
+     * @return snapshot or null if it can't be used
+     */
+    static FileModelSnapshot load(Path projectDir) {
+        Path file = projectDir.resolve(FILE_NAME);
+        if (Files.notExists(file)) return null;
+        
+        try {
+            Reader in = new Reader(Files.readAllBytes(file));
+            if (in.readInt() != MAGIC || in.readVarint() != VERSION)
+                throw new IOException("Unsupported snapshot format");
+            if (!isUpToDate(projectDir, in)) return null;
+            
+            FileModelSnapshot snapshot = new FileModelSnapshot();
+            snapshot.read(in);
+            return snapshot;
+        } catch (IOException | RuntimeException ex) {
+            System.err.println("Unable to load snapshot");
+            return null;
+        } finally {
+            delete(projectDir);
+        }
+    }
+    
+    // size and modification time of the source file, size is -1 if the file
+    // doesn't exist
+    private static long[] stamp(Path projectDir, String fileName)
+        throws IOException {
+        Path source = projectDir.resolve(fileName);
+        if (Files.notExists(source)) return new long[] { -1L, 0L };
+        
+        return new long[] { Files.size(source),
+            Files.getLastModifiedTime(source).toMillis() };
+    }
+    
+    // compares recorded stamps with the source files, any difference means
+    // files have been changed after the snapshot had been written
+    private static boolean isUpToDate(Path projectDir, Reader in)
+        throws IOException {
+        if (in.readVarint() != SOURCE_FILES.length) return false;
+        
+        boolean upToDate = true;
+        for (String fileName : SOURCE_FILES) {
+            long[] stamp = stamp(projectDir, fileName);
+            if (in.readVarlong() != stamp[0] || in.readVarlong() != stamp[1])
+                upToDate = false;
+        }
+        
+        return upToDate;
+    }
+    
+    /**
+     * Writes snapshot of the specified model parts.
+     * @param projectDir project directory
+     * @param bundles all words grouped by bundles
+     * @param repeatSchedule repeat words grouped by date
+     * @param futureWords future words
+     */
+    static void save(Path projectDir, Map<LocalDate, List<Word>> bundles,
+        Map<LocalDate, List<String>> repeatSchedule,
+        Iterable<FutureWord> futureWords) {
+        Path file = projectDir.resolve(FILE_NAME);
+        Path tmpFile = projectDir.resolve(FILE_NAME + ".tmp");
+        
+        try (OutputStream os = new BufferedOutputStream(
+            Files.newOutputStream(tmpFile))) {
+            Writer out = new Writer(os);
+            
+            out.writeInt(MAGIC);
+            out.writeVarint(VERSION);
+            
+            out.writeVarint(SOURCE_FILES.length);
+            for (String fileName : SOURCE_FILES) {
+                long[] stamp = stamp(projectDir, fileName);
+                out.writeVarlong(stamp[0]);
+                out.writeVarlong(stamp[1]);
+            }
+            
+            out.writeVarint(bundles.size());
+            for (Map.Entry<LocalDate, List<Word>> entry : bundles.entrySet()) {
+                out.writeVarlong(entry.getKey().toEpochDay());
+                out.writeVarint(entry.getValue().size());
+                for (Word word : entry.getValue()) {
+                    out.writeString(word.getWord());
+                    out.writeString(word.getTranslation());
+                    out.writeString(word.getSynonyms());
+                    out.writeVarint(word.getTimesPicked());
+                    out.writeVarlong(word.getLastPickedTimestamp());
+                    out.writeVarint(word.getComplexity().ordinal());
+                }
+            }
+            
+            out.writeVarint(repeatSchedule.size());
+            for (Map.Entry<LocalDate, List<String>> entry :
+                repeatSchedule.entrySet()) {
+                out.writeVarlong(entry.getKey().toEpochDay());
+                out.writeVarint(entry.getValue().size());
+                for (String word : entry.getValue()) out.writeString(word);
+            }
+            
+            List<FutureWord> futureList = new ArrayList<>();
+            futureWords.forEach(futureList::add);
+            out.writeVarint(futureList.size());
+            for (FutureWord fw : futureList) {
+                out.writeString(fw.getWord());
+                out.writeVarint(fw.getOriginalPriority());
+                out.writeNullableString(fw.getDateAdded());
+                out.writeNullableString(fw.getDateChanged());
+            }
+        } catch (IOException ex) {
+            System.err.println("Unable to write snapshot");
+            return;
+        }
+        
+        try {
+            Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            System.err.println("Unable to write snapshot");
+        }
+    }
+    
+    static void delete(Path projectDir) {
+        try {
+            Files.deleteIfExists(projectDir.resolve(FILE_NAME));
+        } catch (IOException ex) { }
+    }
+    
+    // reads content which follows the source stamps
+    private void read(Reader in) {
+        WordComplexity[] complexities = WordComplexity.values();
+        
+        int bundleCount = in.readVarint();
+        for (int i = 0; i < bundleCount; i++) {
+            LocalDate bundle = LocalDate.ofEpochDay(in.readVarlong());
+            int wordCount = in.readVarint();
+            List<Word> words = new ArrayList<>(wordCount);
+            
+            for (int j = 0; j < wordCount; j++) {
+                Word word = WordFactory.newWord();
+                word.setWord(in.readString());
+                word.setTranslation(in.readString());
+                word.setSynonyms(in.readString());
+                word.setBundle(bundle);
+                word.setTimesPicked(in.readVarint());
+                word.setLastPickedTimestamp(in.readVarlong());
+                
+                int complexity = in.readVarint();
+                word.setComplexity(complexity < complexities.length ?
+                    complexities[complexity] : WordComplexity.NORMAL);
+                
+                words.add(word);
+            }
+            
+            if (!words.isEmpty()) bundles.put(bundle, words);
+        }
+        
+        int dateCount = in.readVarint();
+        for (int i = 0; i < dateCount; i++) {
+            LocalDate date = LocalDate.ofEpochDay(in.readVarlong());
+            int wordCount = in.readVarint();
+            List<String> words = new ArrayList<>(wordCount);
+            for (int j = 0; j < wordCount; j++) words.add(in.readString());
+            repeatSchedule.put(date, words);
+        }
+        
+        int futureCount = in.readVarint();
+        for (int i = 0; i < futureCount; i++) {
+            FutureWord fw = new FutureWord(in.readString());
+            fw.setPriority(in.readVarint());
+            fw.setDateAdded(in.readNullableString());
+            fw.setDateChanged(in.readNullableString());
+            futureWords.add(fw);
+        }
+    }
+    
+    // varint and string encoder
+    private static class Writer {
+        
+        private final OutputStream out;
+        
+        Writer(OutputStream out) {
+            this.out = out;
+        }
+        
+        void writeInt(int value) throws IOException {
+            out.write(value >>> 24);
+            out.write(value >>> 16);
+            out.write(value >>> 8);
+            out.write(value);
+        }
+        
+        void writeVarint(int value) throws IOException {
+            writeVarlong(value);
+        }
+        
+        // zigzag encoding keeps small negative numbers short
+        void writeVarlong(long value) throws IOException {
+            long v = (value << 1) ^ (value >> 63);
+            while ((v & ~0x7FL) != 0L) {
+                out.write((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            out.write((int) v);
+        }
+        
+        void writeString(String s) throws IOException {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            out.write(bytes);
+        }
+        
+        void writeNullableString(String s) throws IOException {
+            if (s == null) {
+                out.write(0);
+            } else {
+                out.write(1);
+                writeString(s);
+            }
+        }
+    }
+    
+    // varint and string decoder over the whole file content
+    private static class Reader {
+        
+        private final byte[] data;
+        private int pos = 0;
+        
+        Reader(byte[] data) {
+            this.data = data;
+        }
+        
+        int readInt() {
+            return ((data[pos++] & 0xFF) << 24) | ((data[pos++] & 0xFF) << 16) |
+                ((data[pos++] & 0xFF) << 8) | (data[pos++] & 0xFF);
+        }
+        
+        int readVarint() {
+            return (int) readVarlong();
+        }
+        
+        long readVarlong() {
+            long v = 0L;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                v |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            
+            return (v >>> 1) ^ -(v & 1);
+        }
+        
+        String readString() {
+            int length = readVarint();
+            String s = new String(data, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return s;
+        }
+        
+        String readNullableString() {
+            return data[pos++] == 0 ? null : readString();
+        }
+    }
+}
@@ -8,7 +8,9 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
@@ -21,13 +23,28 @@ public class FutureWordManager {
     private final Map<String, FutureWord> futureWords;
     
     FutureWordManager(Path projectDir) {
+        this(projectDir, null);
+    }
+    
+    /**
+     * Creates future word manager.
+     * @param projectDir project directory
+     * @param loadedWords already loaded future words or null to read file
+     */
+    FutureWordManager(Path projectDir, Collection<FutureWord> loadedWords) {
         file = projectDir.resolve(FILE_NAME);
         futureWords = new TreeMap<>();
-        read();
+        
+        if (loadedWords == null) read();
+        else loadedWords.forEach(fw -> futureWords.put(fw.getWord(), fw));
     }
     
     Map<String, FutureWord> getFutureWords() { return futureWords; }
     
+    synchronized List<FutureWord> copyFutureWords() {
+        return new ArrayList<>(futureWords.values());
+    }
+    
     synchronized void save() {
         try (BufferedWriter out =
             Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
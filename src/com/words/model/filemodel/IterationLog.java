@@ -3,20 +3,50 @@ package com.words.model.filemodel;
 import com.words.controller.utils.DateTimeUtils;
 import com.words.main.EnglishWords;
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 
+/**
+ * Daily iterations stored as a time series keyed by epoch day.
+ * Counters are kept in a primitive array with prefix sums, so every range
+ * query is O(1). Updating a counter is an in-place write of a single int,
+ * new days are appended to the end of the file.
+ * File format:
+ *      {magic: int} {version: int} {first epoch day: long}
+ *      {iterations of the first day: int} {iterations of the next day: int}
+ *      ...
+ * Legacy properties file is imported if it is newer than the data file.
+ * @author vlad
+ */
 public class IterationLog {
     
+    // legacy properties file
+    // FORMAT: {date}={iterations}
     public static final String LOG_FILE_NAME = "iterations";
+    public static final String DATA_FILE_NAME = LOG_FILE_NAME + ".dat";
+    
+    private static final int MAGIC = 0x45574954; // "EWIT"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
     
     private final Path logFile;
-    private final Properties props;
+    private final Path dataFile;
+    
+    private long firstDay = 0L;
+    private int days = 0;
+    private int[] iterations = new int[0];
+    
+    // prefixSums[i] is the sum of iterations of the first i days
+    private long[] prefixSums = new long[1];
     
     public static void main(String[] args) {
         IterationLog il = new IterationLog(EnglishWords.PROJECT_DIRECTORY);
@@ -29,58 +59,206 @@ public class IterationLog {
     }
     
     IterationLog(Path projectDir) {
-        props = new Properties();
-        
         logFile = projectDir.resolve(LOG_FILE_NAME);
+        dataFile = projectDir.resolve(DATA_FILE_NAME);
+        
+        try {
+            if (Files.exists(logFile) && (Files.notExists(dataFile) ||
+                Files.getLastModifiedTime(logFile).toMillis() >
+                    Files.getLastModifiedTime(dataFile).toMillis())) {
+                importProperties();
+            } else {
+                read();
+            }
+        } catch (IOException ex) {
+            System.err.println("Error while reading iterations");
+        }
+    }
+    
+    /**
+     * Reads daily iterations of the file model.
+     * @param projectDir project directory
+     * @return iterations by date in ascending order, days without
+     *         iterations are skipped
+     */
+    public static Map<LocalDate, Integer> readDailyIterations(Path projectDir) {
+        return new IterationLog(projectDir).getDailyIterations();
+    }
+    
+    private void read() throws IOException {
+        if (Files.notExists(dataFile)) return;
+        
+        byte[] bytes = Files.readAllBytes(dataFile);
+        if (bytes.length < HEADER_SIZE) return;
+        
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) return;
+        
+        long first = buffer.getLong();
+        int[] counters = new int[buffer.remaining() / Integer.BYTES];
+        for (int i = 0; i < counters.length; i++) counters[i] = buffer.getInt();
         
+        init(first, counters);
+    }
+    
+    // imports legacy properties file and writes data file
+    private void importProperties() throws IOException {
+        Properties props = new Properties();
         try (BufferedReader br = Files.newBufferedReader(logFile,
             StandardCharsets.UTF_8)) {
             props.load(br);
-        } catch (IOException e) { }
+        }
+        
+        Map<Long, Integer> map = new LinkedHashMap<>();
+        for (String key : props.stringPropertyNames()) {
+            if (!DateTimeUtils.isValidDate(key)) continue;
+            
+            try {
+                map.put(DateTimeUtils.parseDate(key).toEpochDay(),
+                    Integer.parseInt(props.getProperty(key)));
+            } catch (NumberFormatException ex) { }
+        }
+        
+        if (!map.isEmpty()) {
+            long first = map.keySet().stream().min(Long::compare).get();
+            long last = map.keySet().stream().max(Long::compare).get();
+            int[] counters = new int[(int) (last - first + 1)];
+            map.forEach((day, iter) -> counters[(int) (day - first)] = iter);
+            init(first, counters);
+        }
+        
+        write();
+    }
+    
+    private void init(long first, int[] counters) {
+        firstDay = first;
+        days = counters.length;
+        iterations = counters;
+        prefixSums = new long[days + 1];
+        updatePrefixSums(0);
+    }
+    
+    private void updatePrefixSums(int from) {
+        for (int i = from; i < days; i++)
+            prefixSums[i + 1] = prefixSums[i] + iterations[i];
+    }
+    
+    // rewrites whole data file
+    private void write() throws IOException {
+        ByteBuffer buffer =
+            ByteBuffer.allocate(HEADER_SIZE + days * Integer.BYTES);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(firstDay);
+        for (int i = 0; i < days; i++) buffer.putInt(iterations[i]);
+        
+        Files.write(dataFile, buffer.array());
+    }
+    
+    // writes single counter, extends file if required
+    private void write(int index) throws IOException {
+        try (RandomAccessFile raf =
+            new RandomAccessFile(dataFile.toFile(), "rw")) {
+            if (raf.length() < HEADER_SIZE) {
+                raf.writeInt(MAGIC);
+                raf.writeInt(VERSION);
+                raf.writeLong(firstDay);
+            }
+            
+            // days without iterations are filled with zeros
+            if (raf.length() < HEADER_SIZE + (long) index * Integer.BYTES)
+                raf.setLength(HEADER_SIZE + (long) index * Integer.BYTES);
+            
+            raf.seek(HEADER_SIZE + (long) index * Integer.BYTES);
+            raf.writeInt(iterations[index]);
+        }
+    }
+    
+    private static long epochDay(String key) {
+        return DateTimeUtils.parseDate(key).toEpochDay();
     }
     
     synchronized int getIterations(String key) {
+        long day = epochDay(key);
+        if (days == 0 || day < firstDay || day >= firstDay + days) return 0;
+        
+        return iterations[(int) (day - firstDay)];
+    }
+    
+    synchronized void setIterations(String key, int iter) {
+        long day = epochDay(key);
+        if (day == LocalDate.MIN.toEpochDay()) return;
+        
         try {
-            return Integer.parseInt(props.getProperty(key, "0"));
-        } catch (NumberFormatException ex) {
-            return 0;
+            if (days == 0) {
+                init(day, new int[] { iter });
+                write();
+            } else if (day < firstDay) {
+                // rare case, whole series is shifted
+                int shift = (int) (firstDay - day);
+                int[] counters = new int[days + shift];
+                System.arraycopy(iterations, 0, counters, shift, days);
+                counters[0] = iter;
+                init(day, counters);
+                write();
+            } else {
+                int index = (int) (day - firstDay);
+                if (index >= days) grow(index + 1);
+                
+                iterations[index] = iter;
+                updatePrefixSums(index);
+                write(index);
+            }
+        } catch (IOException ex) {
+            System.err.println("Can't write iterations");
         }
     }
     
-    synchronized void setIterations(String key, int iter) {
-        props.put(key, "" + iter);
+    private void grow(int newDays) {
+        if (newDays > iterations.length) {
+            int capacity = Math.max(newDays, iterations.length * 2);
+            iterations = Arrays.copyOf(iterations, capacity);
+            prefixSums = Arrays.copyOf(prefixSums, capacity + 1);
+        }
         
-        try (BufferedWriter bw = Files.newBufferedWriter(logFile,
-            StandardCharsets.UTF_8)) {
-            props.store(bw, "Format: {date}={iterations}");
-        } catch (IOException e) { }
+        for (int i = days; i < newDays; i++) {
+            iterations[i] = 0;
+            prefixSums[i + 1] = prefixSums[i];
+        }
+        days = newDays;
+    }
+    
+    // sum of iterations in [from, to), days are epoch days
+    private long sum(long from, long to) {
+        long start = Math.max(from, firstDay) - firstDay;
+        long end = Math.min(to, firstDay + days) - firstDay;
+        if (start >= end) return 0L;
+        
+        return prefixSums[(int) end] - prefixSums[(int) start];
     }
     
     // contract is the same as with model interface
     synchronized int getIterationsForDays(int n, String todayAsString) {
         if (n <= 0) return 0;
         // deadline is not included
-        LocalDate today = DateTimeUtils.getCurrentLocalDate();
-        LocalDate deadline = today.minusDays(n);
+        long today = DateTimeUtils.getCurrentLocalDate().toEpochDay();
+        long deadline = today - n;
         
-        return props.entrySet().stream().filter(entry -> {
-            String key = entry.getKey().toString();
-            if (!DateTimeUtils.isValidDate(key)) return false;
-            
-            LocalDate date = DateTimeUtils.parseDate(key);
-            return date.isAfter(deadline) && date.isBefore(today);
-        }).mapToInt(entry -> {
-            try {
-                return Integer.parseInt(entry.getValue().toString());
-            } catch (NumberFormatException ex) {
-                return 0;
-            }
-        }).sum();
+        return (int) sum(deadline + 1, today);
+    }
+    
+    synchronized Map<LocalDate, Integer> getDailyIterations() {
+        Map<LocalDate, Integer> map = new LinkedHashMap<>();
+        for (int i = 0; i < days; i++) {
+            if (iterations[i] != 0)
+                map.put(LocalDate.ofEpochDay(firstDay + i), iterations[i]);
+        }
+        
+        return map;
     }
     
     void destroy() {
         try {
             Files.deleteIfExists(logFile);
+            Files.deleteIfExists(dataFile);
         } catch (IOException ioe) { }
     }
 }
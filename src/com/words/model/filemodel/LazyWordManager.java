@@ -0,0 +1,663 @@
+package com.words.model.filemodel;
+
+import com.words.controller.utils.DateTimeUtils;
+import com.words.controller.words.Word;
+import com.words.controller.words.wordkinds.WordComplexity;
+import com.words.model.WordIndex;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Words file which is loaded on demand.
+ * Only the index is kept in memory: byte ranges of every bundle in the
+ * words file and compact key set (word to bundle). Words of a bundle are
+ * read from the file when the bundle is requested. Loaded bundles are
+ * cached, least recently used ones are evicted when amount of cached
+ * words exceeds the budget.
+ * Words added by not compacted journal entries are kept in memory and
+ * merged into bundles on load.
+ * Word instances which are still referenced outside of the cache are
+ * remembered weakly, so a word is represented by the same instance during
+ * the whole session even after its bundle has been evicted. Amounts and
+ * statistics of words are answered by the index and persisted statistics
+ * without reading bundles.
+ * @author vlad
+ */
+class LazyWordManager implements WordStore {
+    
+    public static final int DEFAULT_WORD_BUDGET = 2000;
+    
+    // byte range of a bundle in the words file
+    private static class Range {
+        private final long offset;
+        private final int length;
+        
+        Range(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+    
+    private final Path projectDir;
+    private final Path file;
+    private final int wordBudget;
+    private final Consumer<Word> loadListener;
+    
+    // word and its bundle stored by canonical key
+    private static class Key {
+        private final String word;
+        private final LocalDate bundle;
+        
+        Key(String word, LocalDate bundle) {
+            this.word = word;
+            this.bundle = bundle;
+        }
+    }
+    
+    private final Map<String, Key> keys = new HashMap<>();
+    private final TreeMap<LocalDate, Integer> bundleSizes = new TreeMap<>();
+    private final Map<LocalDate, List<Range>> ranges = new HashMap<>();
+    private final WordIndex journalWords = new WordIndex();
+    
+    // loaded bundles in access order
+    private final LinkedHashMap<LocalDate, List<Word>> cache =
+        new LinkedHashMap<>(16, 0.75f, true);
+    private int cachedWords = 0;
+    
+    // word instance remembered by its canonical key
+    private static class InstanceRef extends WeakReference<Word> {
+        private final String key;
+        
+        InstanceRef(String key, Word word, ReferenceQueue<Word> queue) {
+            super(word, queue);
+            this.key = key;
+        }
+    }
+    
+    // instances of words which have been read or added during the session
+    private final Map<String, InstanceRef> instances = new HashMap<>();
+    private final ReferenceQueue<Word> collected = new ReferenceQueue<>();
+    
+    private final Map<String, Word> allWords = new AllWordsView();
+    
+    private final WordStats wordStats;
+    private final WordJournal journal;
+    
+    /**
+     * Creates lazy word manager.
+     * @param projectDir project directory
+     * @param wordBudget max amount of words in loaded bundles
+     * @param loadListener invoked once for every word read from the file
+     *                     or added to the manager
+     * @throws IOException if word statistics can't be opened
+     */
+    LazyWordManager(Path projectDir, int wordBudget,
+        Consumer<Word> loadListener) throws IOException {
+        if (wordBudget < 1) throw new IllegalArgumentException(
+            "Word budget should be positive");
+        
+        this.projectDir = projectDir;
+        this.wordBudget = wordBudget;
+        this.loadListener = loadListener;
+        file = projectDir.resolve(WordManager.FILE_NAME);
+        
+        wordStats = new WordStats(projectDir);
+        journal = new WordJournal(projectDir);
+        
+        buildIndex();
+        journal.replay(this::replayEntry);
+        if (journal.shouldCompact()) save();
+    }
+    
+    // reads words file and remembers bundle ranges and word keys
+    private void buildIndex() {
+        keys.clear();
+        bundleSizes.clear();
+        ranges.clear();
+        if (Files.notExists(file)) return;
+        
+        try (InputStream in = Files.newInputStream(file)) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            byte[] chunk = new byte[8192];
+            long position = 0L;
+            long lineStart = 0L;
+            LocalDate bundle = LocalDate.now();
+            long bundleStart = 0L;
+            
+            int n;
+            while ((n = in.read(chunk)) != -1) {
+                for (int i = 0; i < n; i++) {
+                    if (chunk[i] != '\n') {
+                        line.write(chunk[i]);
+                        continue;
+                    }
+                    
+                    long lineEnd = position + i + 1;
+                    String text = new String(line.toByteArray(),
+                        StandardCharsets.UTF_8);
+                    line.reset();
+                    
+                    if (text.startsWith(WordManager.BUNDLE_PREFIX)) {
+                        addRange(bundle, bundleStart, lineStart);
+                        bundle = DateTimeUtils.parseDate(text.substring(
+                            WordManager.BUNDLE_PREFIX.length()).trim());
+                        bundleStart = lineEnd;
+                    } else {
+                        indexWord(text, bundle);
+                    }
+                    
+                    lineStart = lineEnd;
+                }
+                position += n;
+            }
+            
+            // last line without line separator
+            if (line.size() > 0) indexWord(new String(line.toByteArray(),
+                StandardCharsets.UTF_8), bundle);
+            addRange(bundle, bundleStart, position);
+        } catch (IOException ex) {
+            System.err.println("Error while indexing words file");
+        }
+    }
+    
+    private void addRange(LocalDate bundle, long start, long end) {
+        if (end <= start) return;
+        
+        ranges.computeIfAbsent(bundle, key -> new ArrayList<>())
+            .add(new Range(start, (int) (end - start)));
+    }
+    
+    private void indexWord(String rawString, LocalDate bundle) {
+        String[] tokens =
+            rawString.trim().split(WordManager.DELIMITER + "+", 3);
+        if (tokens.length < 2) return;
+        
+        putKey(tokens[0], bundle);
+    }
+    
+    private void putKey(String word, LocalDate bundle) {
+        removeKey(word);
+        keys.put(WordIndex.storedKey(word), new Key(word, bundle));
+        bundleSizes.merge(bundle, 1, Integer::sum);
+    }
+    
+    // removes word key, returns bundle of removed word or null
+    private LocalDate removeKey(String word) {
+        Key key = keys.remove(WordIndex.canonicalKey(word));
+        if (key == null) return null;
+        
+        if (bundleSizes.merge(key.bundle, -1, Integer::sum) <= 0)
+            bundleSizes.remove(key.bundle);
+        
+        return key.bundle;
+    }
+    
+    // returns bundle of the word or null if word doesn't exist
+    private LocalDate bundleOf(String word) {
+        Key key = keys.get(WordIndex.canonicalKey(word));
+        return key == null ? null : key.bundle;
+    }
+    
+    // applies single journal entry to the index
+    private void replayEntry(String[] tokens) {
+        if (tokens.length < 2) return;
+        
+        if (WordJournal.DELETE.equals(tokens[0])) {
+            removeKey(tokens[1]);
+            journalWords.remove(tokens[1]);
+        } else if (WordJournal.ADD.equals(tokens[0]) && tokens.length == 3) {
+            Word word = WordManager.wordFromRawString(tokens[2],
+                DateTimeUtils.parseDate(tokens[1]));
+            if (word == null) return;
+            
+            putKey(word.getWord(), word.getBundle());
+            journalWords.put(word.getWord(), word);
+            remember(word);
+            
+            // journal words stay in memory and are never read again
+            WordManager.applyStats(word, wordStats);
+            if (loadListener != null) loadListener.accept(word);
+        }
+    }
+    
+    // drops references to collected instances
+    private void expungeInstances() {
+        InstanceRef ref;
+        while ((ref = (InstanceRef) collected.poll()) != null) {
+            if (instances.get(ref.key) == ref) instances.remove(ref.key);
+        }
+    }
+    
+    // returns live instance of the word or null
+    private Word instanceOf(String word) {
+        expungeInstances();
+        InstanceRef ref = instances.get(WordIndex.canonicalKey(word));
+        return ref == null ? null : ref.get();
+    }
+    
+    private void remember(Word word) {
+        String key = WordIndex.storedKey(word.getWord());
+        instances.put(key, new InstanceRef(key, word, collected));
+    }
+    
+    // reads words of the bundle which are still actual
+    private List<Word> readBundle(LocalDate bundle) {
+        List<Word> words = new ArrayList<>();
+        List<Word> readWords = new ArrayList<>();
+        
+        for (Range range : ranges.getOrDefault(bundle,
+            Collections.emptyList())) {
+            for (String line : readRange(range)) {
+                Word word = WordManager.wordFromRawString(line, bundle);
+                if (word == null) continue;
+                
+                // word was deleted, moved or replaced by a journal entry
+                if (!bundle.equals(bundleOf(word.getWord())) ||
+                    journalWords.containsKey(word.getWord())) continue;
+                
+                // instance in use is more recent than the file
+                Word instance = instanceOf(word.getWord());
+                if (instance != null) {
+                    words.add(instance);
+                } else {
+                    words.add(word);
+                    readWords.add(word);
+                }
+            }
+        }
+        
+        journalWords.values().stream()
+            .filter(word -> bundle.equals(word.getBundle()))
+            .forEach(words::add);
+        
+        readWords.forEach(word -> {
+            WordManager.applyStats(word, wordStats);
+            remember(word);
+            if (loadListener != null) loadListener.accept(word);
+        });
+        
+        return words;
+    }
+    
+    private String[] readRange(Range range) {
+        try (FileChannel channel =
+            FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(range.length);
+            while (buffer.hasRemaining() && channel.read(buffer,
+                range.offset + buffer.position()) >= 0);
+            
+            return new String(buffer.array(), 0, buffer.position(),
+                StandardCharsets.UTF_8).split("\r?\n");
+        } catch (IOException ex) {
+            System.err.println("Error while reading words file");
+            return new String[0];
+        }
+    }
+    
+    // returns loaded bundle, loads it if required
+    private List<Word> load(LocalDate bundle) {
+        List<Word> words = cache.get(bundle);
+        if (words != null) return words;
+        if (!bundleSizes.containsKey(bundle)) return null;
+        
+        words = readBundle(bundle);
+        cache.put(bundle, words);
+        cachedWords += words.size();
+        evict(bundle);
+        
+        return words;
+    }
+    
+    // evicts least recently used bundles except specified one
+    private void evict(LocalDate bundleToKeep) {
+        Iterator<Map.Entry<LocalDate, List<Word>>> iter =
+            cache.entrySet().iterator();
+        while (cachedWords > wordBudget && iter.hasNext()) {
+            Map.Entry<LocalDate, List<Word>> entry = iter.next();
+            if (entry.getKey().equals(bundleToKeep)) continue;
+            
+            cachedWords -= entry.getValue().size();
+            iter.remove();
+        }
+    }
+    
+    @Override
+    public synchronized Word getWord(String key) {
+        LocalDate bundle = bundleOf(key);
+        if (bundle == null) return null;
+        
+        List<Word> words = load(bundle);
+        if (words == null) return null;
+        
+        return words.stream().filter(word ->
+            WordIndex.sameKey(word.getWord(), key))
+            .findFirst().orElse(null);
+    }
+    
+    @Override
+    public synchronized boolean containsWord(String key) {
+        return bundleOf(key) != null;
+    }
+    
+    @Override
+    public synchronized int size() {
+        return keys.size();
+    }
+    
+    // words of the bundle without putting it into the cache
+    private List<Word> peek(LocalDate bundle) {
+        List<Word> words = cache.get(bundle);
+        return words != null ? words : readBundle(bundle);
+    }
+    
+    // all words without putting not loaded bundles into the cache
+    private synchronized Map<String, Word> readAll() {
+        Map<String, Word> words = new WordIndex();
+        for (LocalDate bundle : bundleSizes.keySet()) {
+            peek(bundle).forEach(word -> words.put(word.getWord(), word));
+        }
+        
+        return words;
+    }
+    
+    // read-only view of all words, single lookups load only one bundle
+    private class AllWordsView extends AbstractMap<String, Word> {
+        
+        @Override
+        public Word get(Object key) {
+            return key instanceof String ? getWord((String) key) : null;
+        }
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && containsWord((String) key);
+        }
+        
+        @Override
+        public int size() {
+            return LazyWordManager.this.size();
+        }
+        
+        @Override
+        public Set<Map.Entry<String, Word>> entrySet() {
+            return Collections.unmodifiableMap(readAll()).entrySet();
+        }
+    }
+    
+    @Override
+    public Map<String, Word> getAllWords() { return allWords; }
+    
+    @Override
+    public synchronized NavigableSet<LocalDate> bundles() {
+        return Collections.unmodifiableNavigableSet(
+            new TreeMap<>(bundleSizes).navigableKeySet());
+    }
+    
+    @Override
+    public synchronized List<Word> getBundle(LocalDate bundle) {
+        List<Word> words = load(bundle);
+        return words == null ? Collections.emptyList() : new ArrayList<>(words);
+    }
+    
+    @Override
+    public synchronized long getTotalTimesPicked() {
+        return keys.values().stream().mapToLong(key ->
+            wordStats.getWordStats(key.word).getTimesPicked()).sum();
+    }
+    
+    @Override
+    public synchronized double getAverageWordLength() {
+        return keys.values().stream().mapToInt(key -> key.word.length())
+            .average().orElse(0d);
+    }
+    
+    @Override
+    public synchronized Map<WordComplexity, Long> groupWordsByComplexity() {
+        return keys.values().stream().collect(Collectors.groupingBy(
+            key -> wordStats.getWordStats(key.word).getComplexity(),
+            Collectors.counting()));
+    }
+    
+    @Override
+    public synchronized List<Word> getMostFrequentlyUsedWords(int size) {
+        return firstWords(Comparator.comparingInt((WordStats.Stats stats) ->
+            stats.getTimesPicked()).reversed(), size);
+    }
+    
+    @Override
+    public synchronized List<Word> getOldestPickedWords(int size) {
+        return firstWords(Comparator.comparingLong(
+            WordStats.Stats::getLastPickedTimestamp), size);
+    }
+    
+    @Override
+    public synchronized Collection<Word> getWordsNotEasierThan(
+        WordComplexity complexity) {
+        return matchingWords(stats ->
+            stats.getComplexity().isNotEasierThan(complexity));
+    }
+    
+    // first words ordered by their persisted statistics,
+    // only bundles of returned words are loaded
+    private List<Word> firstWords(Comparator<WordStats.Stats> order,
+        int size) {
+        return keys.values().stream()
+            .map(key -> new AbstractMap.SimpleEntry<>(key.word,
+                wordStats.getWordStats(key.word)))
+            .sorted(Map.Entry.comparingByValue(order)).limit(size)
+            .map(entry -> getWord(entry.getKey()))
+            .filter(word -> word != null).collect(Collectors.toList());
+    }
+    
+    // words whose persisted statistics match the predicate,
+    // only bundles of matching words are loaded
+    private List<Word> matchingWords(Predicate<WordStats.Stats> predicate) {
+        return keys.values().stream()
+            .filter(key -> predicate.test(wordStats.getWordStats(key.word)))
+            .map(key -> getWord(key.word)).filter(word -> word != null)
+            .collect(Collectors.toList());
+    }
+    
+    @Override
+    public synchronized Map<LocalDate, List<Word>> copyBundleMap() {
+        Map<LocalDate, List<Word>> copy = new TreeMap<>();
+        for (LocalDate bundle : bundleSizes.keySet())
+            copy.put(bundle, new ArrayList<>(peek(bundle)));
+        
+        return copy;
+    }
+    
+    private void addWord(Word word) {
+        removeWord(word.getWord());
+        
+        putKey(word.getWord(), word.getBundle());
+        journalWords.put(word.getWord(), word);
+        remember(word);
+        if (loadListener != null) loadListener.accept(word);
+        
+        List<Word> words = cache.get(word.getBundle());
+        if (words != null) {
+            words.add(word);
+            cachedWords++;
+        }
+    }
+    
+    private boolean removeWord(String word) {
+        LocalDate bundle = removeKey(word);
+        if (bundle == null) return false;
+        
+        journalWords.remove(word);
+        instances.remove(WordIndex.canonicalKey(word));
+        
+        List<Word> words = cache.get(bundle);
+        if (words != null) {
+            int size = words.size();
+            words.removeIf(w ->
+                WordIndex.sameKey(w.getWord(), word));
+            cachedWords -= size - words.size();
+            
+            if (!bundleSizes.containsKey(bundle)) {
+                cache.remove(bundle);
+                cachedWords -= words.size();
+            }
+        }
+        
+        return true;
+    }
+    
+    // appends entries to the journal, compacts journal if it's too long
+    private void log(List<String> entries) {
+        journal.append(entries);
+        if (journal.shouldCompact()) save();
+    }
+    
+    @Override
+    public synchronized void addNewWord(Word word) {
+        addWord(word);
+        log(Collections.singletonList(WordManager.addEntry(word)));
+    }
+    
+    @Override
+    public synchronized boolean addNewBundle(LocalDate bundle,
+        Collection<Word> words) {
+        if (bundleSizes.containsKey(bundle)) return false;
+        
+        words.forEach(word -> {
+            word.setBundle(bundle);
+            addWord(word);
+        });
+        
+        log(words.stream().map(WordManager::addEntry)
+            .collect(Collectors.toList()));
+        
+        return true;
+    }
+    
+    @Override
+    public synchronized boolean deleteWord(String word) {
+        boolean deleted = removeWord(word);
+        
+        if (deleted) log(Collections.singletonList(
+            WordManager.deleteEntry(word)));
+        
+        return deleted;
+    }
+    
+    @Override
+    public synchronized void editWords(Map<Word, Word> map) {
+        List<String> entries = new ArrayList<>(map.size() * 2);
+        
+        for (Map.Entry<Word, Word> entry : map.entrySet()) {
+            Word originalWord = entry.getValue();
+            Word editedWord = entry.getKey();
+            
+            removeWord(originalWord.getWord());
+            addWord(editedWord);
+            
+            entries.add(WordManager.deleteEntry(originalWord.getWord()));
+            entries.add(WordManager.addEntry(editedWord));
+        }
+        
+        log(entries);
+    }
+    
+    @Override
+    public void setComplexity(String word, WordComplexity complexity) {
+        wordStats.setComplexity(word, complexity);
+    }
+    
+    @Override
+    public void setLastPickedTimestamp(String word, long timestamp, int times) {
+        wordStats.setLastPickedTimestamp(word, timestamp, times);
+    }
+    
+    @Override
+    public synchronized void compact() {
+        if (journal.size() > 0) save();
+    }
+    
+    // writes all bundles into the new words file and rebuilds index
+    private void save() {
+        Path tmpFile = projectDir.resolve(WordManager.FILE_NAME + ".tmp");
+        
+        try (BufferedWriter out =
+            Files.newBufferedWriter(tmpFile, StandardCharsets.UTF_8)) {
+            for (LocalDate bundle : bundleSizes.keySet()) {
+                out.write(WordManager.BUNDLE_PREFIX +
+                    DateTimeUtils.localDateToString(bundle));
+                out.newLine();
+                
+                for (Word word : peek(bundle)) {
+                    out.write(WordManager.wordToRawString(word));
+                    out.newLine();
+                }
+            }
+        } catch (IOException ex) {
+            System.err.println("Can't open file");
+            return;
+        }
+        
+        try {
+            Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            System.err.println("Can't replace words file");
+            return;
+        }
+        
+        journal.clear();
+        journalWords.clear();
+        buildIndex();
+    }
+    
+    @Override
+    public void flush() {
+        wordStats.flush();
+    }
+    
+    @Override
+    public void clearRedundancies() {
+        wordStats.clearRedundancies(allWords);
+        WordManager.clearSounds(projectDir, allWords);
+    }
+    
+    @Override
+    public synchronized void destroy() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) { }
+        
+        cache.clear();
+        cachedWords = 0;
+        instances.clear();
+        journal.destroy();
+        wordStats.destroy();
+    }
+}
@@ -0,0 +1,324 @@
+package com.words.model.filemodel;
+
+import com.words.controller.words.wordkinds.WordComplexity;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary store of word statistics with fixed-width records.
+ * Data file is memory-mapped, so updating statistics of a single word
+ * is an in-place write of one record.
+ * Data file format:
+ *      {magic: int} {version: int} {record count: int} {reserved: int}
+ *      {times picked: int} {last picked timestamp: long} {complexity: int}
+ *      ...
+ * Index file contains one word per line, line number is a record slot.
+ * Rewrite builds both files under temporary names and moves them over the
+ * old ones, data file first. Index left behind without its data file means
+ * the data file has been moved already and the index is moved on open.
+ * @author vlad
+ */
+class MappedStatsStore {
+    
+    public static final String DATA_FILE_NAME = WordStats.FILE_NAME + ".dat";
+    public static final String INDEX_FILE_NAME = WordStats.FILE_NAME + ".idx";
+    
+    private static final int MAGIC = 0x45575354; // "EWST"
+    private static final int VERSION = 1;
+    
+    private static final int HEADER_SIZE = 16;
+    private static final int COUNT_OFFSET = 8;
+    static final int RECORD_SIZE = 16;
+    
+    private static final int INITIAL_CAPACITY = 1024; // in records
+    
+    private final Path dataFile;
+    private final Path indexFile;
+    private final Path tempDataFile;
+    private final Path tempIndexFile;
+    
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final List<String> words = new ArrayList<>();
+    
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    
+    MappedStatsStore(Path projectDir) throws IOException {
+        dataFile = projectDir.resolve(DATA_FILE_NAME);
+        indexFile = projectDir.resolve(INDEX_FILE_NAME);
+        tempDataFile = projectDir.resolve(DATA_FILE_NAME + ".tmp");
+        tempIndexFile = projectDir.resolve(INDEX_FILE_NAME + ".tmp");
+        open();
+    }
+    
+    // completes or discards interrupted rewrite
+    private void recover() throws IOException {
+        if (Files.notExists(tempIndexFile)) {
+            Files.deleteIfExists(tempDataFile);
+        } else if (Files.exists(tempDataFile)) {
+            Files.delete(tempDataFile);
+            Files.delete(tempIndexFile);
+        } else {
+            Files.move(tempIndexFile, indexFile,
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+    
+    private void open() throws IOException {
+        recover();
+        
+        channel = FileChannel.open(dataFile, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        
+        int count = 0;
+        boolean valid = channel.size() >= HEADER_SIZE;
+        if (valid) {
+            map(Math.max(INITIAL_CAPACITY,
+                (int) ((channel.size() - HEADER_SIZE) / RECORD_SIZE)));
+            valid = buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION;
+            count = buffer.getInt(COUNT_OFFSET);
+        }
+        
+        if (!valid) {
+            map(INITIAL_CAPACITY);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(COUNT_OFFSET, 0);
+            Files.deleteIfExists(indexFile);
+            count = 0;
+        }
+        
+        if (Files.exists(indexFile)) {
+            try (BufferedReader in =
+                Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+                String line;
+                while (words.size() < count && (line = in.readLine()) != null) {
+                    slots.put(line, words.size());
+                    words.add(line);
+                }
+            }
+        }
+        
+        // record without index line is lost
+        if (words.size() != count)
+            buffer.putInt(COUNT_OFFSET, words.size());
+    }
+    
+    private void map(int records) throws IOException {
+        capacity = records;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+            HEADER_SIZE + (long) capacity * RECORD_SIZE);
+    }
+    
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+    
+    /** @return true if store has no records */
+    synchronized boolean isEmpty() {
+        return words.isEmpty();
+    }
+    
+    /**
+     * Get statistics of specified word.
+     * @param word word to search
+     * @return stats or null if word has no record
+     */
+    synchronized WordStats.Stats get(String word) {
+        if (buffer == null) return null;
+        
+        Integer slot = slots.get(word);
+        if (slot == null) return null;
+        
+        int offset = offset(slot);
+        int complexity = buffer.getInt(offset + 12);
+        
+        return new WordStats.Stats(buffer.getInt(offset),
+            buffer.getLong(offset + 4),
+            complexity >= 0 && complexity < WordComplexity.values().length ?
+                WordComplexity.values()[complexity] : WordComplexity.NORMAL);
+    }
+    
+    /**
+     * Writes statistics record. Existing record is overwritten in place,
+     * new one is appended to the end of the store.
+     * @param word word
+     * @param stats statistics to save
+     */
+    synchronized void put(String word, WordStats.Stats stats) {
+        if (buffer == null) {
+            System.err.println("Word statistics store is closed");
+            return;
+        }
+        
+        try {
+            Integer slot = slots.get(word);
+            if (slot == null) slot = allocate(word);
+            
+            write(slot, stats);
+        } catch (IOException ex) {
+            System.err.println("Can't write word statistics");
+        }
+    }
+    
+    private void write(int slot, WordStats.Stats stats) {
+        write(buffer, slot, stats);
+    }
+    
+    private static void write(ByteBuffer buf, int slot,
+        WordStats.Stats stats) {
+        int offset = offset(slot);
+        buf.putInt(offset, stats.getTimesPicked());
+        buf.putLong(offset + 4, stats.getLastPickedTimestamp());
+        buf.putInt(offset + 12, stats.getComplexity().ordinal());
+    }
+    
+    private int allocate(String word) throws IOException {
+        int slot = words.size();
+        if (slot >= capacity) map(capacity * 2);
+        
+        try (BufferedWriter out = Files.newBufferedWriter(indexFile,
+            StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND)) {
+            out.write(word);
+            out.newLine();
+        }
+        
+        slots.put(word, slot);
+        words.add(word);
+        buffer.putInt(COUNT_OFFSET, words.size());
+        
+        return slot;
+    }
+    
+    /**
+     * Replaces contents of the store with specified statistics.
+     * Used to import legacy files and to drop records of deleted words.
+     * If rewrite fails the old contents stay in use.
+     * @param stats statistics to keep
+     */
+    synchronized void rewrite(Map<String, WordStats.Stats> stats) {
+        try {
+            writeTempFiles(stats);
+        } catch (IOException ex) {
+            System.err.println("Can't rewrite word statistics");
+            try {
+                Files.deleteIfExists(tempDataFile);
+                Files.deleteIfExists(tempIndexFile);
+            } catch (IOException ignored) { }
+            return;
+        }
+        
+        try {
+            close();
+            Files.move(tempDataFile, dataFile,
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+            Files.move(tempIndexFile, indexFile,
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            System.err.println("Can't replace word statistics");
+        }
+        
+        // recovery keeps either old or new files
+        try {
+            close();
+            open();
+        } catch (IOException ex) {
+            System.err.println("Can't open word statistics");
+        }
+    }
+    
+    private void writeTempFiles(Map<String, WordStats.Stats> stats)
+        throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(
+            HEADER_SIZE + stats.size() * RECORD_SIZE);
+        data.putInt(0, MAGIC);
+        data.putInt(4, VERSION);
+        data.putInt(COUNT_OFFSET, stats.size());
+        
+        int slot = 0;
+        for (WordStats.Stats record : stats.values())
+            write(data, slot++, record);
+        
+        try (FileChannel out = FileChannel.open(tempDataFile,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE)) {
+            while (data.hasRemaining()) out.write(data);
+            out.force(true);
+        }
+        
+        // index is written last, so an unfinished rewrite keeps data file
+        try (BufferedWriter out = Files.newBufferedWriter(tempIndexFile,
+            StandardCharsets.UTF_8)) {
+            for (String word : stats.keySet()) {
+                out.write(word);
+                out.newLine();
+            }
+        }
+    }
+    
+    /**
+     * Get all words which have records.
+     * @return list of words in slot order
+     */
+    synchronized List<String> words() {
+        return new ArrayList<>(words);
+    }
+    
+    /**
+     * Forces all changes to the storage device.
+     */
+    synchronized void force() {
+        if (buffer != null) buffer.force();
+    }
+    
+    /**
+     * Last modification of the index. Changes only when new words appear
+     * or the store is rewritten.
+     * @return last modified time in millis or 0 if there is no index
+     */
+    long indexModifiedTime() {
+        try {
+            return Files.getLastModifiedTime(indexFile).toMillis();
+        } catch (IOException ex) {
+            return 0L;
+        }
+    }
+    
+    private void close() throws IOException {
+        if (buffer != null) buffer.force();
+        buffer = null;
+        if (channel != null) channel.close();
+        channel = null;
+        slots.clear();
+        words.clear();
+        capacity = 0;
+    }
+    
+    synchronized void destroy() {
+        try {
+            close();
+            Files.deleteIfExists(dataFile);
+            Files.deleteIfExists(indexFile);
+            Files.deleteIfExists(tempDataFile);
+            Files.deleteIfExists(tempIndexFile);
+        } catch (IOException ex) { }
+    }
+}
@@ -10,19 +10,33 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Repeat words to remember old forgotten words.
+ * Schedule is indexed by epoch day, words of a day are stored as a set of
+ * word ids. Reverse index keeps the last day of every word.
+ * Changes are appended to the journal, which is compacted into the
+ * properties file on startup or when it grows too big.
+ * Properties file format:
+ *      {date: dd.MM.yyyy}={word};{word};...
+ * Journal format:
+ *      +|- {date: dd.MM.yyyy} {word}
+ * @author vlad
  */
 public class RepeatWords {
     
     public static final String FILE_NAME = "repeat";
+    public static final String JOURNAL_FILE_NAME = FILE_NAME + ".journal";
     
     // Delimiter for property string
     public static final String DELIMITER = ";";
@@ -32,34 +46,145 @@ public class RepeatWords {
     // Number of times to jump backwords for additional words
     private static final int NUM_TIMES = 5;
     
+    // word ids of a single day
+    private static class Day {
+        private final BitSet ids = new BitSet();
+        private int size = 0;
+    }
+    
     private final Path file;
-    private final Properties prop;
-    private final Set<String> repeatWords;
+    private final WordJournal journal;
+    
+    // word dictionary
+    private final List<String> words = new ArrayList<>();
+    private final Map<String, Integer> ids = new HashMap<>();
+    
+    private final TreeMap<Long, Day> schedule = new TreeMap<>();
+    private final Map<String, Long> lastDays = new HashMap<>();
+    
+    // set used as cache to fast find repeat words
+    private final Set<String> repeatWords = new HashSet<>();
     
     public RepeatWords(Path projectDir) {
+        this(projectDir, null);
+    }
+    
+    /**
+     * Creates repeat words.
+     * @param projectDir project directory
+     * @param schedule already loaded repeat words grouped by date
+     *                 or null to read file
+     */
+    RepeatWords(Path projectDir, Map<LocalDate, List<String>> schedule) {
         this.file = projectDir.resolve(FILE_NAME);
-        prop = new Properties();
+        journal = new WordJournal(projectDir, JOURNAL_FILE_NAME);
+        
+        if (schedule == null) {
+            read();
+            journal.replay(this::replayEntry);
+            if (journal.size() > 0) save();
+        } else {
+            schedule.forEach((date, list) -> list.forEach(word ->
+                add(date.toEpochDay(), word)));
+        }
         
+        long deadline = deadline();
+        lastDays.forEach((word, day) -> {
+            if (day > deadline) repeatWords.add(word);
+        });
+    }
+    
+    private static long deadline() {
+        return DateTimeUtils.getCurrentLocalDate().minusDays(NUM_TIMES + 1)
+            .toEpochDay();
+    }
+    
+    private void read() {
+        Properties prop = new Properties();
         try (BufferedReader br =
             Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
             prop.load(br);
         } catch (IOException e) { }
         
-        // set used as cache to fast find repeat words
-        repeatWords = new HashSet<>();
-        LocalDate deadline =
-            DateTimeUtils.getCurrentLocalDate().minusDays(NUM_TIMES + 1);
-        prop.stringPropertyNames().stream()
-            .filter(key -> DateTimeUtils.parseDate(key).isAfter(deadline))
-            .forEach(key -> repeatWords.addAll(
-                Arrays.asList(prop.getProperty(key).split(DELIMITER))));
+        prop.stringPropertyNames().forEach(key -> {
+            long day = DateTimeUtils.parseDate(key).toEpochDay();
+            for (String word : prop.getProperty(key).split(DELIMITER))
+                if (!word.isEmpty()) add(day, word);
+        });
+    }
+    
+    private void replayEntry(String[] tokens) {
+        if (tokens.length < 3) return;
+        
+        long day = DateTimeUtils.parseDate(tokens[1]).toEpochDay();
+        if (WordJournal.ADD.equals(tokens[0])) add(day, tokens[2]);
+        else if (WordJournal.DELETE.equals(tokens[0])) remove(day, tokens[2]);
     }
     
-    private synchronized void saveProperties() {
+    private synchronized void save() {
+        Properties prop = new Properties();
+        getSchedule().forEach((date, list) -> prop.setProperty(
+            DateTimeUtils.localDateToString(date),
+            String.join(DELIMITER, list)));
+        
         try (BufferedWriter bw =
             Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
             prop.store(bw, "");
-        } catch (IOException e) { }
+        } catch (IOException e) {
+            return;
+        }
+        
+        journal.clear();
+    }
+    
+    private int idOf(String word) {
+        Integer id = ids.get(word);
+        if (id == null) {
+            id = words.size();
+            words.add(word);
+            ids.put(word, id);
+        }
+        
+        return id;
+    }
+    
+    private void add(long day, String word) {
+        Day dayWords = schedule.computeIfAbsent(day, key -> new Day());
+        int id = idOf(word);
+        if (dayWords.ids.get(id)) return;
+        
+        dayWords.ids.set(id);
+        dayWords.size++;
+        
+        Long lastDay = lastDays.get(word);
+        if (lastDay == null || lastDay < day) lastDays.put(word, day);
+    }
+    
+    private void remove(long day, String word) {
+        Day dayWords = schedule.get(day);
+        Integer id = ids.get(word);
+        if (dayWords == null || id == null || !dayWords.ids.get(id)) return;
+        
+        dayWords.ids.clear(id);
+        if (--dayWords.size == 0) schedule.remove(day);
+        
+        // reverse index points to the previous day of the word,
+        // walk stops at the nearest day which contains it
+        Long lastDay = lastDays.get(word);
+        if (lastDay != null && lastDay == day) {
+            Map.Entry<Long, Day> previous = schedule.lowerEntry(day);
+            while (previous != null && !previous.getValue().ids.get(id))
+                previous = schedule.lowerEntry(previous.getKey());
+            
+            if (previous == null) lastDays.remove(word);
+            else lastDays.put(word, previous.getKey());
+        }
+    }
+    
+    private static String entry(String operation, long day, String word) {
+        return operation + WordManager.DELIMITER +
+            DateTimeUtils.localDateToString(LocalDate.ofEpochDay(day)) +
+            WordManager.DELIMITER + word;
     }
     
     /**
@@ -69,44 +194,31 @@ public class RepeatWords {
     public synchronized void addRepeatWord(String word) {
         if (repeatWords.contains(word)) return;
         
-        LocalDate date = DateTimeUtils.getCurrentLocalDate();
+        long today = DateTimeUtils.getCurrentLocalDate().toEpochDay();
         
-        List<String> keysWithMinWords = new ArrayList<>();
+        // day with minimal amount of words, random on ties
+        List<Long> daysWithMinWords = new ArrayList<>(DATE_RANGE);
         int min = Integer.MAX_VALUE;
-        
-        String key, value;
-        for(int i = 0; i < DATE_RANGE; i++) {
-            date = date.plusDays(1);
+        for (long day = today + 1; day <= today + DATE_RANGE; day++) {
+            Day dayWords = schedule.get(day);
+            int amount = dayWords == null ? 0 : dayWords.size;
             
-            key = DateTimeUtils.localDateToString(date);
-            value = prop.getProperty(key);
-            
-            int amount = 0;
-            if (value != null) amount = value.split(DELIMITER).length;
-            
-            if (min == amount) keysWithMinWords.add(key);
+            if (min == amount) daysWithMinWords.add(day);
             else if (amount < min) {
                 min = amount;
-                keysWithMinWords.clear();
-                keysWithMinWords.add(key);
+                daysWithMinWords.clear();
+                daysWithMinWords.add(day);
             }
         }
         
-        key = keysWithMinWords.get(
-            Utils.RANDOM.nextInt(keysWithMinWords.size()));
+        long day = daysWithMinWords.get(
+            Utils.RANDOM.nextInt(daysWithMinWords.size()));
         
-        addWord(key, word);
-    }
-    
-    private synchronized void addWord(String key, String word) {
-        String value = prop.getProperty(key, "");
-        
-        if (!value.isEmpty()) value += DELIMITER;
-        value += word;
-        
-        prop.setProperty(key, value);
+        add(day, word);
         repeatWords.add(word);
-        saveProperties();
+        journal.append(Collections.singletonList(
+            entry(WordJournal.ADD, day, word)));
+        if (journal.shouldCompact()) save();
     }
     
     /**
@@ -116,28 +228,32 @@ public class RepeatWords {
     public synchronized void deleteRepeatWord(String wordToDelete) {
         if (!repeatWords.contains(wordToDelete)) return;
         
-        LocalDate deadline =
-            DateTimeUtils.getCurrentLocalDate().minusDays(NUM_TIMES + 1);
-        
-        for (String key : prop.stringPropertyNames()) {
-            LocalDate date = DateTimeUtils.parseDate(key);
-            if (date.isAfter(deadline)) {
-                String value = prop.getProperty(key);
-                if (value.contains(wordToDelete)) {
-                    List<String> tokens =
-                        new ArrayList<>(Arrays.asList(value.split(DELIMITER)));
-                    tokens.remove(wordToDelete);
-                    value = String.join(DELIMITER, tokens);
-                    
-                    if (value.isEmpty()) prop.remove(key);
-                    else prop.put(key, value);
-                    
-                    saveProperties();
-                    repeatWords.remove(wordToDelete);
-                    return;
-                }
-            }
+        Long day = lastDays.get(wordToDelete);
+        if (day != null && day > deadline()) {
+            remove(day, wordToDelete);
+            journal.append(Collections.singletonList(
+                entry(WordJournal.DELETE, day, wordToDelete)));
+            if (journal.shouldCompact()) save();
         }
+        
+        repeatWords.remove(wordToDelete);
+    }
+    
+    /**
+     * Get repeat schedule. Used to write model snapshot.
+     * @return repeat words grouped by date
+     */
+    synchronized Map<LocalDate, List<String>> getSchedule() {
+        Map<LocalDate, List<String>> map = new TreeMap<>();
+        schedule.forEach((day, dayWords) ->
+            map.put(LocalDate.ofEpochDay(day), wordsOf(dayWords)));
+        return map;
+    }
+    
+    private List<String> wordsOf(Day day) {
+        List<String> list = new ArrayList<>(day.size);
+        day.ids.stream().forEach(id -> list.add(words.get(id)));
+        return list;
     }
     
     /**
@@ -152,18 +268,16 @@ public class RepeatWords {
      * Get words deleted today from the repeat list.
      * @return expired repeat words
      */
-    public Collection<String> getExpiredRepeatWords() {
-        LocalDate deadline =
-            DateTimeUtils.getCurrentLocalDate().minusDays(NUM_TIMES + 1);
-        String key = DateTimeUtils.localDateToString(deadline);
-        String value = prop.getProperty(key, "");
-        
-        return Arrays.asList(value.split(DELIMITER));
+    public synchronized Collection<String> getExpiredRepeatWords() {
+        Day day = schedule.get(deadline());
+        return day == null ? Collections.emptyList() : wordsOf(day);
     }
     
     void destroy() {
         try {
             Files.deleteIfExists(file);
         } catch (IOException ex) { }
+        
+        journal.destroy();
     }
 }
@@ -0,0 +1,140 @@
+package com.words.model.filemodel;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Loads independent model stores in parallel on a bounded pool
+ * and measures load time of every store.
+ * @author vlad
+ */
+class StoreLoader implements AutoCloseable {
+    
+    // max amount of stores loaded at the same time
+    static final int MAX_THREADS = 4;
+    
+    @FunctionalInterface
+    interface Loader<T> {
+        T load() throws IOException;
+    }
+    
+    private final ExecutorService loadExec;
+    private final Map<String, Duration> loadTimes =
+        Collections.synchronizedMap(new LinkedHashMap<>());
+    
+    StoreLoader() {
+        int threads = Math.max(1, Math.min(MAX_THREADS,
+            Runtime.getRuntime().availableProcessors()));
+        loadExec = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "store-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Starts loading store in the pool.
+     * @param <T> store type
+     * @param name store name used in timings
+     * @param loader store constructor
+     * @return future of the loaded store
+     */
+    <T> CompletableFuture<T> submit(String name, Loader<T> loader) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return load(name, loader);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }, loadExec);
+    }
+    
+    /**
+     * Starts loading store in the pool after the store it depends on
+     * has been loaded.
+     * @param <D> type of the store it depends on
+     * @param <T> store type
+     * @param name store name used in timings
+     * @param dependency future of the store it depends on
+     * @param loader store constructor for the loaded dependency
+     * @return future of the loaded store
+     */
+    <D, T> CompletableFuture<T> submitAfter(String name,
+        CompletableFuture<D> dependency, Function<D, Loader<T>> loader) {
+        return dependency.thenApplyAsync(loaded -> {
+            try {
+                return load(name, loader.apply(loaded));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }, loadExec);
+    }
+    
+    /**
+     * Loads store in the current thread.
+     * @param <T> store type
+     * @param name store name used in timings
+     * @param loader store constructor
+     * @return loaded store
+     * @throws IOException if store can't be loaded
+     */
+    <T> T load(String name, Loader<T> loader) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return loader.load();
+        } finally {
+            loadTimes.put(name, Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+    
+    /**
+     * Waits until store is loaded.
+     * @param <T> store type
+     * @param future future returned by submit
+     * @return loaded store
+     * @throws IOException if store can't be loaded
+     */
+    static <T> T join(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof UncheckedIOException)
+                throw ((UncheckedIOException) ex.getCause()).getCause();
+            if (ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            throw ex;
+        }
+    }
+    
+    /**
+     * Get load time of every store in order of completion.
+     * @return map of store names and load durations
+     */
+    Map<String, Duration> getLoadTimes() {
+        synchronized (loadTimes) {
+            return new LinkedHashMap<>(loadTimes);
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return getLoadTimes().entrySet().stream()
+            .map(e -> e.getKey() + " " + e.getValue().toMillis() + " ms")
+            .collect(Collectors.joining(", "));
+    }
+    
+    @Override
+    public void close() {
+        loadExec.shutdown();
+    }
+}
@@ -1,31 +1,59 @@
 package com.words.model.filemodel;
 
-import com.words.controller.utils.Utils;
 import com.words.controller.words.Word;
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Properties;
+import java.util.function.Predicate;
 
 /**
- * Definitions for the words
+ * Definitions for the words.
+ * Definitions are kept in the indexed append-only store and loaded
+ * on demand. Legacy properties file is imported if it is newer than
+ * the store.
  * @author vlad
  */
 public class WordDefinitions {
     
     public static final String FILE_NAME = "definitions";
     
+    // legacy properties file
     private final Path file;
-    private final Properties props = new Properties();
+    private final DefinitionStore store;
     
-    WordDefinitions(Path projectDir) {
+    WordDefinitions(Path projectDir) throws IOException {
         file = projectDir.resolve(FILE_NAME);
-        read();
+        
+        Path dataFile = projectDir.resolve(DefinitionStore.DATA_FILE_NAME);
+        boolean legacy = Files.exists(file) && (Files.notExists(dataFile) ||
+            Files.getLastModifiedTime(file).toMillis() >
+                Files.getLastModifiedTime(dataFile).toMillis());
+        
+        store = new DefinitionStore(projectDir,
+            DefinitionStore.DEFAULT_CACHE_CHARS);
+        if (legacy) importProperties();
+    }
+    
+    // imports legacy properties file into the store
+    private void importProperties() {
+        Properties props = new Properties();
+        
+        try (BufferedReader in =
+            Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            props.load(in);
+        } catch (IOException e) {
+            return;
+        }
+        
+        store.rewrite(word -> false);
+        props.stringPropertyNames().forEach(word ->
+            store.put(word, props.getProperty(word)));
+        
+        System.err.println("Imported " + props.size() + " definitions");
     }
     
     /**
@@ -33,8 +61,8 @@ public class WordDefinitions {
      * @param word word to check
      * @return definition or null if words is not presented
      */
-    synchronized String getDefinition(String word) {
-        return props.getProperty(word);
+    String getDefinition(String word) {
+        return store.get(word);
     }
     
     /**
@@ -42,39 +70,16 @@ public class WordDefinitions {
      * @param word word to set definition for
      * @param definition definition
      */
-    synchronized void setDefinition(String word, String definition) {
-        if (props == null) read();
-        props.setProperty(word, definition);
-        save();
-    }
-    
-    private synchronized void read() {
-        try (BufferedReader in =
-            Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
-            props.load(in);
-        } catch (IOException e) { }
-    }
-    
-    private synchronized void save() {
-        try (BufferedWriter out =
-            Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
-            props.store(out, "");
-        } catch (IOException e) { }
+    void setDefinition(String word, String definition) {
+        store.put(word, definition);
     }
     
     synchronized void clearRedundancies(Map<String, Word> words) {
-        boolean changed = false;
-        Iterator<Map.Entry<Object,Object>> iter = props.entrySet().iterator();
+        Predicate<String> exists = key ->
+            words.containsKey(key) || words.containsKey("to " + key);
         
-        while (iter.hasNext()) {
-            String key = iter.next().getKey().toString();
-            if (!words.containsKey(key) && !words.containsKey("to " + key)) {
-                iter.remove();
-                changed = true;
-            }
-        }
-        
-        if (changed) save();
+        if (store.shouldCompact() || !store.words().stream().allMatch(exists))
+            store.rewrite(exists);
     }
     
     /**
@@ -82,31 +87,27 @@ public class WordDefinitions {
      * @param map edited words
      */
     public synchronized void editWords(Map<Word, Word> map) {
-        boolean changed = false;
-        
         for (Map.Entry<Word, Word> entry : map.entrySet()) {
             String editedWord = entry.getKey().getWord();
             String originalWord = entry.getValue().getWord();
             
             if (!editedWord.equals(originalWord)) {
-                // swap definitions
-                String definition = props.getProperty(originalWord);
+                // move definition
+                String definition = store.get(originalWord);
                 
                 if (definition != null) {
-                    props.remove(originalWord);
-                    props.put(editedWord, definition);
-                    
-                    changed = true;
+                    store.put(originalWord, null);
+                    store.put(editedWord, definition);
                 }
             }
         }
-        
-        if (changed) save();
     }
     
     void destroy() {
         try {
             Files.deleteIfExists(file);
         } catch (IOException ex) { }
+        
+        store.destroy();
     }
 }
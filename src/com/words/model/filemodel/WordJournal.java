@@ -0,0 +1,116 @@
+package com.words.model.filemodel;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Append-only journal of word mutations.
+ * Every change of the words file is appended as a single line instead of
+ * rewriting the whole file. Journal is replayed on startup and compacted
+ * into the base file by WordManager. Also used by RepeatWords.
+ * File format:
+ *      + {date: dd.MM.yyyy} {raw word string}
+ *      - {word}
+ * @author vlad
+ */
+class WordJournal {
+    
+    public static final String FILE_NAME = WordManager.FILE_NAME + ".journal";
+    
+    static final String ADD = "+";
+    static final String DELETE = "-";
+    
+    // amount of entries after which journal should be compacted
+    static final int MAX_ENTRIES = 500;
+    
+    private final Path file;
+    private int entries = 0;
+    
+    WordJournal(Path projectDir) {
+        this(projectDir, FILE_NAME);
+    }
+    
+    /**
+     * Creates journal with specified file name.
+     * @param projectDir project directory
+     * @param fileName journal file name
+     */
+    WordJournal(Path projectDir, String fileName) {
+        file = projectDir.resolve(fileName);
+    }
+    
+    /**
+     * Replays all journal entries.
+     * @param action consumer of tab-delimited entry tokens
+     */
+    synchronized void replay(Consumer<String[]> action) {
+        entries = 0;
+        if (Files.notExists(file)) return;
+        
+        try (BufferedReader in =
+            Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                
+                action.accept(line.split(WordManager.DELIMITER, 3));
+                entries++;
+            }
+        } catch (IOException ex) {
+            System.err.println("Error while reading word journal");
+        }
+    }
+    
+    /**
+     * Appends entries to the end of the journal.
+     * @param lines entries to append
+     */
+    synchronized void append(List<String> lines) {
+        if (lines.isEmpty()) return;
+        
+        try (BufferedWriter out = Files.newBufferedWriter(file,
+            StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND)) {
+            for (String line : lines) {
+                out.write(line);
+                out.newLine();
+            }
+            entries += lines.size();
+        } catch (IOException ex) {
+            System.err.println("Can't append to word journal");
+        }
+    }
+    
+    /** @return true if journal has grown enough to be compacted */
+    synchronized boolean shouldCompact() {
+        return entries >= MAX_ENTRIES;
+    }
+    
+    /** @return number of entries in the journal */
+    synchronized int size() {
+        return entries;
+    }
+    
+    /**
+     * Truncates journal. Should be invoked only after base file
+     * has been successfully saved.
+     */
+    synchronized void clear() {
+        entries = 0;
+        
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) { }
+    }
+    
+    void destroy() {
+        clear();
+    }
+}
@@ -5,6 +5,8 @@ import com.words.controller.utils.DateTimeUtils;
 import com.words.controller.words.Word;
 import com.words.controller.words.WordFactory;
 import com.words.controller.words.wordkinds.WordComplexity;
+import com.words.model.WordIndex;
+import com.words.model.WordQueries;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
@@ -19,12 +21,16 @@ import java.time.LocalDate;
 import java.time.Month;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Random;
 import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 /**
  * All words in a text single file.
@@ -34,9 +40,11 @@ import java.util.logging.Logger;
  *      {BUNDLE_PREFIX} {date: dd.MM.yyyy}
  *      {list of words}
  *      ...
+ * Changes are appended to the WordJournal and periodically compacted
+ * into the words file.
  * @author vlad
  */
-public class WordManager {
+public class WordManager implements WordStore {
     
     public  static final String FILE_NAME = "words";
     
@@ -46,27 +54,126 @@ public class WordManager {
     private final Path projectDir;
     private final Path file;
     
-    private final TreeMap<String, Word> allWords = new TreeMap<>((s1, s2) ->
-        s1.replaceAll("^to ", "").compareTo(s2.replaceAll("^to ", "")));
+    private final WordIndex allWords = new WordIndex();
     private final TreeMap<LocalDate, List<Word>> bundleMap;
     
     private final WordStats wordStats;
+    private final WordJournal journal;
     
     WordManager(Path projectDir) throws IOException {
+        this(projectDir, null);
+    }
+    
+    /**
+     * Creates word manager.
+     * @param projectDir project directory
+     * @param bundles already loaded words with their statistics
+     *                or null to read words file
+     * @throws IOException if word statistics can't be opened
+     */
+    WordManager(Path projectDir, Map<LocalDate, List<Word>> bundles)
+        throws IOException {
         this.projectDir = projectDir;
         file = projectDir.resolve(FILE_NAME);
         
         wordStats = new WordStats(projectDir);
+        journal = new WordJournal(projectDir);
         
         bundleMap = new TreeMap<>();
         
+        if (bundles != null) {
+            bundles.values().forEach(words -> words.forEach(this::addWord));
+            return;
+        }
+        
 //        if (Files.notExists(file)) createDefaults();
         read();
+        journal.replay(this::replayEntry);
+        if (journal.shouldCompact()) save();
+    }
+    
+    @Override
+    public synchronized Map<String, Word> getAllWords() {
+        Map<String, Word> copy = new WordIndex();
+        copy.putAll(allWords);
+        return copy;
+    }
+    
+    @Override
+    public synchronized Word getWord(String word) {
+        return allWords.get(word);
+    }
+    
+    @Override
+    public synchronized boolean containsWord(String word) {
+        return allWords.containsKey(word);
+    }
+    
+    @Override
+    public synchronized int size() {
+        return allWords.size();
+    }
+    
+    @Override
+    public synchronized NavigableSet<LocalDate> bundles() {
+        return new TreeSet<>(bundleMap.navigableKeySet());
+    }
+    
+    @Override
+    public synchronized List<Word> getBundle(LocalDate bundle) {
+        return new ArrayList<>(
+            bundleMap.getOrDefault(bundle, Collections.emptyList()));
+    }
+    
+    @Override
+    public synchronized long getTotalTimesPicked() {
+        return allWords.values().stream().mapToLong(Word::getTimesPicked).sum();
+    }
+    
+    @Override
+    public synchronized double getAverageWordLength() {
+        return WordQueries.getAverageWordLength(allWords.values());
+    }
+    
+    @Override
+    public synchronized Map<WordComplexity, Long> groupWordsByComplexity() {
+        return WordQueries.groupWordsByComplexity(allWords.values());
+    }
+    
+    @Override
+    public synchronized List<Word> getMostFrequentlyUsedWords(int size) {
+        return WordQueries.getMostFrequentlyUsedWords(allWords.values(), size);
     }
     
-    Map<String, Word> getAllWords() { return allWords; }
+    @Override
+    public synchronized List<Word> getOldestPickedWords(int size) {
+        return WordQueries.getOldestPickedWords(allWords.values(), size);
+    }
     
-    TreeMap<LocalDate, List<Word>> getBundleMap() { return bundleMap; }
+    @Override
+    public synchronized Collection<Word> getWordsNotEasierThan(
+        WordComplexity complexity) {
+        return WordQueries.getWordsNotEasierThan(allWords.values(), complexity);
+    }
+    
+    @Override
+    public synchronized Map<LocalDate, List<Word>> copyBundleMap() {
+        Map<LocalDate, List<Word>> copy = new TreeMap<>();
+        bundleMap.forEach((bundle, words) -> {
+            List<Word> list = new ArrayList<>(words.size());
+            for (Word word : words) {
+                Word wordCopy = WordFactory.newWord();
+                wordCopy.setWord(word.getWord());
+                wordCopy.setTranslation(word.getTranslation());
+                wordCopy.setSynonyms(word.getSynonyms());
+                wordCopy.setBundle(bundle);
+                applyStats(wordCopy, wordStats);
+                list.add(wordCopy);
+            }
+            copy.put(bundle, list);
+        });
+        return copy;
+    }
     
     private void createDefaults() {
         LocalDate today = DateTimeUtils.getCurrentLocalDate();
@@ -94,21 +201,71 @@ public class WordManager {
                 if (line.startsWith(BUNDLE_PREFIX)) {
                     bundle = DateTimeUtils.parseDate(line.substring(BUNDLE_PREFIX.length()));
                 } else {
-                    Word word = wordFromRawString(line, bundle);
-                    
-                    // set stats
-                    WordStats.Stats stats = wordStats.getWordStats(word.getWord());
-                    word.setLastPickedTimestamp(stats.getLastPickedTimestamp());
-                    word.setTimesPicked(stats.getTimesPicked());
-                    word.setComplexity(stats.getComplexity());
-                    
-                    addWord(word);
+                    addWord(readWord(line, bundle));
                 }
             }
         } catch (IOException ex) { }
     }
     
-    synchronized void save() {
+    // creates word from raw string and sets its stats
+    private Word readWord(String rawString, LocalDate bundle) {
+        Word word = wordFromRawString(rawString, bundle);
+        if (word == null) return null;
+        
+        applyStats(word, wordStats);
+        return word;
+    }
+    
+    /**
+     * Sets persisted statistics to the word.
+     * @param word word to update
+     * @param wordStats statistics storage
+     */
+    static void applyStats(Word word, WordStats wordStats) {
+        WordStats.Stats stats = wordStats.getWordStats(word.getWord());
+        word.setLastPickedTimestamp(stats.getLastPickedTimestamp());
+        word.setTimesPicked(stats.getTimesPicked());
+        word.setComplexity(stats.getComplexity());
+    }
+    
+    // applies single journal entry to the loaded words
+    private void replayEntry(String[] tokens) {
+        if (tokens.length < 2) return;
+        
+        if (WordJournal.DELETE.equals(tokens[0])) {
+            removeWord(tokens[1]);
+        } else if (WordJournal.ADD.equals(tokens[0]) && tokens.length == 3) {
+            Word word = readWord(tokens[2],
+                DateTimeUtils.parseDate(tokens[1]));
+            if (word == null) return;
+            
+            removeWord(word.getWord());
+            addWord(word);
+        }
+    }
+    
+    static String addEntry(Word word) {
+        return WordJournal.ADD + DELIMITER +
+            DateTimeUtils.localDateToString(word.getBundle()) + DELIMITER +
+            wordToRawString(word);
+    }
+    
+    static String deleteEntry(String word) {
+        return WordJournal.DELETE + DELIMITER + word;
+    }
+    
+    // appends entries to the journal, compacts journal if it's too long
+    private void log(List<String> entries) {
+        journal.append(entries);
+        if (journal.shouldCompact()) save();
+    }
+    
+    @Override
+    public synchronized void compact() {
+        if (journal.size() > 0) save();
+    }
+    
+    private synchronized void save() {
         try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
             for (LocalDate bundle : bundleMap.keySet()) {
                 out.write(BUNDLE_PREFIX + DateTimeUtils.localDateToString(bundle));
@@ -121,10 +278,13 @@ public class WordManager {
             }
         } catch (IOException ex) { 
             System.err.println("Can't open file");
+            return;
         }
+        
+        journal.clear();
     }
     
-    private Word wordFromRawString(String rawString, LocalDate date) {
+    static Word wordFromRawString(String rawString, LocalDate date) {
         String[] tokens = rawString.trim().split(DELIMITER + "+");
         if (tokens.length < 2) return null;
         
@@ -137,7 +297,7 @@ public class WordManager {
         return word;
     }
     
-    private String wordToRawString(Word word) {
+    static String wordToRawString(Word word) {
         StringBuilder sb = new StringBuilder();
         
         sb.append(word.getWord()).append(DELIMITER).append(DELIMITER)
@@ -156,6 +316,21 @@ public class WordManager {
         }
     }
     
+    // removes word from both maps
+    private boolean removeWord(String word) {
+        Word wordToDelete = allWords.remove(word);
+        if (wordToDelete == null) return false;
+        
+        LocalDate bundle = wordToDelete.getBundle();
+        List<Word> words = bundleMap.get(bundle);
+        if (words == null) return false;
+        
+        boolean deleted = words.remove(wordToDelete);
+        if (words.isEmpty()) bundleMap.remove(bundle);
+        
+        return deleted;
+    }
+    
     private void addToBundleMap(LocalDate bundle, Word word) {
         List<Word> value =
             bundleMap.getOrDefault(bundle, new ArrayList<>());
@@ -163,7 +338,8 @@ public class WordManager {
         bundleMap.put(bundle, value);
     }
     
-    synchronized void addNewWord(Word word) {
+    @Override
+    public synchronized void addNewWord(Word word) {
         LocalDate date = word.getBundle();
         
         allWords.put(word.getWord(), word);
@@ -173,10 +349,11 @@ public class WordManager {
         bundleList.add(word);
         bundleMap.put(date, bundleList);
         
-        save();
+        log(Collections.singletonList(addEntry(word)));
     }
     
-    synchronized boolean addNewBundle(LocalDate bundle, Collection<Word> words) {
+    @Override
+    public synchronized boolean addNewBundle(LocalDate bundle, Collection<Word> words) {
         if (bundleMap.containsKey(bundle)) return false;
         
         List<Word> list = new ArrayList<>(words);
@@ -188,28 +365,25 @@ public class WordManager {
         
         bundleMap.put(bundle, list);
         
-        save();
+        log(list.stream().map(WordManager::addEntry)
+            .collect(Collectors.toList()));
         
         return true;
     }
     
-    synchronized boolean deleteWord(String word) {
-        Word wordToDelete = allWords.remove(word);
-        if (wordToDelete == null) return false;
-        
-        LocalDate bundle = wordToDelete.getBundle();
-        List<Word> words = bundleMap.get(bundle);
-        if (words == null) return false;
-        
-        boolean deleted = words.remove(wordToDelete);
-        if (words.isEmpty()) bundleMap.remove(bundle);
+    @Override
+    public synchronized boolean deleteWord(String word) {
+        boolean deleted = removeWord(word);
         
-        save();
+        if (deleted) log(Collections.singletonList(deleteEntry(word)));
         
         return deleted;
     }
     
-    synchronized void editWords(Map<Word, Word> map) {
+    @Override
+    public synchronized void editWords(Map<Word, Word> map) {
+        List<String> entries = new ArrayList<>(map.size() * 2);
+        
         for (Map.Entry<Word, Word> entry : map.entrySet()) {
             Word originalWord = entry.getValue();
             Word editedWord = entry.getKey();
@@ -233,23 +407,41 @@ public class WordManager {
                 bundleMap.getOrDefault(editedBundle, new ArrayList<>());
             editedWords.add(editedWord);
             bundleMap.put(editedBundle, editedWords);
+            
+            entries.add(deleteEntry(originalWord.getWord()));
+            entries.add(addEntry(editedWord));
         }
         
-        save();
+        log(entries);
     }
     
+    @Override
     public void setComplexity(String word, WordComplexity complexity) {
         wordStats.setComplexity(word, complexity);
     }
     
-    public void setLastPickedTimestamp(String word, long timestamp) {
-        wordStats.setLastPickedTimestamp(word, timestamp);
+    @Override
+    public void setLastPickedTimestamp(String word, long timestamp, int times) {
+        wordStats.setLastPickedTimestamp(word, timestamp, times);
     }
     
-    void clearRedundancies() {
+    @Override
+    public void flush() {
+        wordStats.flush();
+    }
+    
+    @Override
+    public synchronized void clearRedundancies() {
         wordStats.clearRedundancies(allWords);
-        
-        // check mp3 files
+        clearSounds(projectDir, allWords);
+    }
+    
+    /**
+     * Deletes mp3 files of words which don't exist.
+     * @param projectDir project directory
+     * @param allWords all existing words
+     */
+    static void clearSounds(Path projectDir, Map<String, Word> allWords) {
         Path soundDir = projectDir.resolve(Controller.SOUND_DIR_NAME);
         if (Files.notExists(soundDir) || !Files.isDirectory(soundDir)) return;
         
@@ -276,11 +468,13 @@ public class WordManager {
         }
     }
     
-    void destroy() {
+    @Override
+    public void destroy() {
         try {
             Files.deleteIfExists(file);
         } catch (IOException ex) { }
 
+        journal.destroy();
         wordStats.destroy();
     }
 }
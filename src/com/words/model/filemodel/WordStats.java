@@ -4,7 +4,6 @@ import com.words.controller.words.Word;
 import com.words.controller.words.wordkinds.WordComplexity;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -12,13 +11,15 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.Month;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
 /**
- * Encapsulates word statistics into a properties file.
+ * Encapsulates word statistics into a memory-mapped binary store.
  * Statistics to save: word picked times, last picked date, word complexity
+ * Legacy properties file is imported if it is newer than the store.
  * @author vlad
  */
 public class WordStats {
@@ -34,6 +35,15 @@ public class WordStats {
         private long lastPickedTimestamp = DEFAULT_TIMESTAMP;
         private WordComplexity complexity = WordComplexity.NORMAL;
         
+        public Stats() { }
+        
+        public Stats(int timesPicked, long lastPickedTimestamp,
+            WordComplexity complexity) {
+            this.timesPicked = timesPicked;
+            this.lastPickedTimestamp = lastPickedTimestamp;
+            this.complexity = complexity;
+        }
+        
         public Stats(String rawString) {
             if (rawString == null) return;
             
@@ -70,7 +80,11 @@ public class WordStats {
         }
         
         public void setLastPickedTimestamp(long lastPickedTimestamp) {
-            timesPicked++;
+            setLastPickedTimestamp(lastPickedTimestamp, 1);
+        }
+        
+        public void setLastPickedTimestamp(long lastPickedTimestamp, int times) {
+            timesPicked += times;
             this.lastPickedTimestamp = lastPickedTimestamp;
         }
         
@@ -88,69 +102,81 @@ public class WordStats {
     }
     
     public static final String DELIMITER = ";";
-    private static final String INFO_MESSAGE = "FORMAT: {times picked};" +
-        "{timestamp millis};{COMPLEXITY}";
     public static final String FILE_NAME = "wordstats";
     
+    // legacy properties file
+    // FORMAT: {times picked};{timestamp millis};{COMPLEXITY}
     private final Path file;
-    private Properties props;
+    private final MappedStatsStore store;
     
-    WordStats(Path projectDir) {
+    WordStats(Path projectDir) throws IOException {
         file = projectDir.resolve(FILE_NAME);
-        read();
+        store = new MappedStatsStore(projectDir);
+        
+        if (Files.exists(file) && (store.isEmpty() ||
+            Files.getLastModifiedTime(file).toMillis() >
+                store.indexModifiedTime())) importProperties();
     }
     
-    private synchronized void read() {
-        props = new Properties();
+    // imports legacy properties file into the binary store
+    private void importProperties() {
+        Properties props = new Properties();
         
         try (BufferedReader in =
             Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
             props.load(in);
-        } catch (IOException e) { }
-    }
-    
-    private synchronized void save() {
-        try (BufferedWriter out =
-            Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
-            props.store(out, INFO_MESSAGE);
-        } catch (IOException e) { }
+        } catch (IOException e) {
+            return;
+        }
+        
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        props.stringPropertyNames().forEach(word ->
+            stats.put(word, new Stats(props.getProperty(word))));
+        store.rewrite(stats);
+        
+        System.err.println("Imported statistics of " + stats.size() + " words");
     }
     
     public Stats getWordStats(String word) {
-        return new Stats(props.getProperty(word));
+        Stats stats = store.get(word);
+        return stats != null ? stats : new Stats();
     }
     
     public synchronized void setComplexity(String word, WordComplexity complexity) {
-        Stats stats = new Stats(props.getProperty(word));
+        Stats stats = getWordStats(word);
         stats.setComplexity(complexity);
-        props.put(word, stats.toString());
-        save();
+        store.put(word, stats);
     }
     
-    public synchronized void setLastPickedTimestamp(String word, long timestamp) {
-        Stats stats = new Stats(props.getProperty(word));
-        stats.setLastPickedTimestamp(timestamp);
-        props.put(word, stats.toString());
-        save();
+    public synchronized void setLastPickedTimestamp(String word, long timestamp,
+        int times) {
+        Stats stats = getWordStats(word);
+        stats.setLastPickedTimestamp(timestamp, times);
+        store.put(word, stats);
     }
     
     synchronized void clearRedundancies(Map<String, Word> words) {
-        boolean changed = false;
-        Iterator<Map.Entry<Object,Object>> iter = props.entrySet().iterator();
+        List<String> storedWords = store.words();
+        if (storedWords.stream().allMatch(words::containsKey)) return;
         
-        while (iter.hasNext()) {
-            if (!words.containsKey(iter.next().getKey().toString())) {
-                iter.remove();
-                changed = true;
-            }
-        }
-        
-        if (changed) save();
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        storedWords.stream().filter(words::containsKey)
+            .forEach(word -> stats.put(word, store.get(word)));
+        store.rewrite(stats);
+    }
+    
+    /**
+     * Forces statistics to the storage device.
+     */
+    void flush() {
+        store.force();
     }
     
     void destroy() {
         try {
             Files.deleteIfExists(file);
         } catch (IOException ex) { }
+        
+        store.destroy();
     }
 }
@@ -0,0 +1,120 @@
+package com.words.model.filemodel;
+
+import com.words.controller.words.Word;
+import com.words.controller.words.wordkinds.WordComplexity;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+
+/**
+ * Storage of words used by the file model.
+ * Stores are thread-safe: returned maps and lists are copies or
+ * synchronized views, so they can be read while words are modified.
+ * @author vlad
+ */
+interface WordStore {
+    
+    /**
+     * Get all words. Verbs starting with "to " and nouns are treated
+     * as being the same key.
+     * @return copy of all words or synchronized lazy view
+     */
+    Map<String, Word> getAllWords();
+    
+    /**
+     * Get word instance. Verbs starting with "to " and nouns are treated
+     * as being the same key.
+     * @param word word to search
+     * @return word instance or null if word doesn't exist
+     */
+    Word getWord(String word);
+    
+    /**
+     * Find if word exists. Verbs starting with "to " and nouns are treated
+     * as being the same key.
+     * @param word word to search
+     * @return true if word exists
+     */
+    boolean containsWord(String word);
+    
+    /** @return amount of words */
+    int size();
+    
+    /** @return copy of all bundles in ascending order */
+    NavigableSet<LocalDate> bundles();
+    
+    /**
+     * Get words of the specified bundle.
+     * @param bundle bundle date
+     * @return copy of the bundle or empty list if bundle doesn't exist
+     */
+    List<Word> getBundle(LocalDate bundle);
+    
+    /** @return sum of times picked of all words */
+    long getTotalTimesPicked();
+    
+    /** @return average length of all words */
+    double getAverageWordLength();
+    
+    /** @return amount of words grouped by their complexity */
+    Map<WordComplexity, Long> groupWordsByComplexity();
+    
+    /**
+     * Get the most frequently picked words.
+     * @param size max amount of words
+     * @return words in descending order of times picked
+     */
+    List<Word> getMostFrequentlyUsedWords(int size);
+    
+    /**
+     * Get words which haven't been picked for the longest time.
+     * @param size max amount of words
+     * @return words in ascending order of last picked timestamp
+     */
+    List<Word> getOldestPickedWords(int size);
+    
+    /**
+     * Get words with the complexity which isn't easier than specified one.
+     * @param complexity the easiest complexity
+     * @return matching words
+     */
+    Collection<Word> getWordsNotEasierThan(WordComplexity complexity);
+    
+    void addNewWord(Word word);
+    
+    boolean addNewBundle(LocalDate bundle, Collection<Word> words);
+    
+    boolean deleteWord(String word);
+    
+    void editWords(Map<Word, Word> map);
+    
+    void setComplexity(String word, WordComplexity complexity);
+    
+    void setLastPickedTimestamp(String word, long timestamp, int times);
+    
+    /**
+     * Copies current bundles with persisted statistics.
+     * Used to write model snapshot.
+     * @return copy of the bundle map
+     */
+    Map<LocalDate, List<Word>> copyBundleMap();
+    
+    /**
+     * Rewrites words file and truncates journal.
+     */
+    void compact();
+    
+    /**
+     * Forces word statistics to the storage device.
+     */
+    void flush();
+    
+    /**
+     * Deletes statistics and sound files of words which don't exist.
+     */
+    void clearRedundancies();
+    
+    void destroy();
+}
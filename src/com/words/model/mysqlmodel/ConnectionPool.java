@@ -0,0 +1,335 @@
+package com.words.model.mysqlmodel;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lightweight pool of database connections.
+ * Every operation leases its own connection and closes it when done,
+ * closing returns connection to the pool. Uncommitted changes of the
+ * returned connection are rolled back, so every lease starts with
+ * a clean transaction. Connections which have been idle for a while are
+ * validated before being leased again. Prepared statements are cached
+ * per connection, see {@link StatementCache}.
+ * @author vlad
+ */
+public class ConnectionPool implements AutoCloseable {
+    
+    public static final int DEFAULT_SIZE =
+        Runtime.getRuntime().availableProcessors() + 1;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 30_000L;
+    
+    // idle connections are validated after this amount of time
+    private static final long VALIDATION_INTERVAL_MILLIS = 30_000L;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    
+    // physical connection with its statements
+    private static class Pooled {
+        private final Connection connection;
+        private final StatementCache statements;
+        
+        // time connection has been returned to the pool
+        private long returned;
+        
+        private Pooled(Connection connection, StatementCache statements) {
+            this.connection = connection;
+            this.statements = statements;
+        }
+    }
+    
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int size;
+    private final long timeoutMillis;
+    
+    private final Deque<Pooled> idle = new ArrayDeque<>();
+    private int opened = 0;
+    private int leased = 0;
+    private boolean closed = false;
+    
+    // statistics
+    private long leases = 0L;
+    private long totalWaitNanos = 0L;
+    private long maxWaitNanos = 0L;
+    private int peakLeased = 0;
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+    
+    /**
+     * Creates pool, connections are opened on demand.
+     * @param url JDBC url
+     * @param user database user
+     * @param password database password
+     * @param size max amount of connections
+     * @param timeoutMillis max time to wait for a free connection
+     */
+    ConnectionPool(String url, String user, String password, int size,
+        long timeoutMillis) {
+        if (size < 1) throw new IllegalArgumentException("size < 1");
+        
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.size = size;
+        this.timeoutMillis = timeoutMillis;
+    }
+    
+    /**
+     * Leases connection from the pool. Connection has auto-commit disabled,
+     * it must be closed to be returned to the pool.
+     * @return connection
+     * @throws SQLException if pool is closed, connection can't be opened or
+     *         there is no free connection during timeout
+     */
+    public Connection lease() throws SQLException {
+        long start = System.nanoTime();
+        Pooled pooled = take(start);
+        
+        synchronized (this) {
+            long wait = System.nanoTime() - start;
+            leases++;
+            totalWaitNanos += wait;
+            maxWaitNanos = Math.max(maxWaitNanos, wait);
+        }
+        
+        return wrap(pooled);
+    }
+    
+    private Pooled take(long start) throws SQLException {
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        
+        while (true) {
+            Pooled candidate = null;
+            boolean open = false;
+            
+            synchronized (this) {
+                while (!closed && idle.isEmpty() && opened >= size) {
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) throw new SQLException(
+                        "Timeout while waiting for database connection");
+                    
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(this, left);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted", ex);
+                    }
+                }
+                
+                if (closed) throw new SQLException("Connection pool is closed");
+                
+                if (!idle.isEmpty()) candidate = idle.pollLast();
+                else open = true;
+                
+                // slot is reserved before leaving synchronized block
+                if (open) opened++;
+                leased++;
+                peakLeased = Math.max(peakLeased, leased);
+            }
+            
+            if (open) {
+                try {
+                    return open();
+                } catch (SQLException ex) {
+                    discard(null);
+                    throw ex;
+                }
+            }
+            
+            if (isValid(candidate)) return candidate;
+            discard(candidate);
+        }
+    }
+    
+    private Pooled open() throws SQLException {
+        Connection connection =
+            DriverManager.getConnection(url, user, password);
+        connection.setAutoCommit(false);
+        return new Pooled(connection,
+            new StatementCache(connection, statementHits, statementMisses));
+    }
+    
+    private static boolean isValid(Pooled candidate) {
+        if (System.currentTimeMillis() - candidate.returned <
+            VALIDATION_INTERVAL_MILLIS) return true;
+        
+        try {
+            return candidate.connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+    
+    // frees slot of the broken connection
+    private void discard(Pooled pooled) {
+        if (pooled != null) close(pooled);
+        
+        synchronized (this) {
+            opened--;
+            leased--;
+            notifyAll();
+        }
+    }
+    
+    private static void close(Pooled pooled) {
+        pooled.statements.clear();
+        try {
+            pooled.connection.close();
+        } catch (SQLException ignore) { }
+    }
+    
+    private void release(Pooled pooled) {
+        boolean broken;
+        try {
+            pooled.connection.rollback();
+            broken = pooled.connection.isClosed();
+        } catch (SQLException ex) {
+            broken = true;
+        }
+        
+        synchronized (this) {
+            if (!broken && !closed) {
+                pooled.returned = System.currentTimeMillis();
+                idle.addLast(pooled);
+                leased--;
+                notifyAll();
+                return;
+            }
+        }
+        
+        discard(pooled);
+    }
+    
+    // connection which returns to the pool on close
+    private Connection wrap(Pooled pooled) {
+        Connection connection = pooled.connection;
+        InvocationHandler handler = new InvocationHandler() {
+            private boolean released = false;
+            
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args)
+                throws Throwable {
+                if (method.getDeclaringClass() == Object.class) {
+                    return method.invoke(connection, args);
+                }
+                
+                switch (method.getName()) {
+                    case "close":
+                        if (!released) {
+                            released = true;
+                            release(pooled);
+                        }
+                        return null;
+                    case "isClosed":
+                        return released || connection.isClosed();
+                    default:
+                        if (released) throw new SQLException(
+                            "Connection has been returned to the pool");
+                }
+                
+                // statements without cursor options are cached
+                if (method.getName().equals("prepareStatement")) {
+                    if (args.length == 1)
+                        return pooled.statements.prepare((String) args[0],
+                            Statement.NO_GENERATED_KEYS);
+                    if (args.length == 2 && args[1] instanceof Integer)
+                        return pooled.statements.prepare((String) args[0],
+                            (Integer) args[1]);
+                }
+                
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException ex) {
+                    throw ex.getCause();
+                }
+            }
+        };
+        
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] { Connection.class }, handler);
+    }
+    
+    /** @return max amount of connections */
+    public int getSize() {
+        return size;
+    }
+    
+    /** @return amount of connections currently in use */
+    public synchronized int getLeasedConnections() {
+        return leased;
+    }
+    
+    /** @return amount of opened connections */
+    public synchronized int getOpenedConnections() {
+        return opened;
+    }
+    
+    /** @return part of the pool currently in use, from 0 to 1 */
+    public synchronized double getUtilization() {
+        return (double) leased / size;
+    }
+    
+    /** @return max part of the pool which has been used at the same time */
+    public synchronized double getPeakUtilization() {
+        return (double) peakLeased / size;
+    }
+    
+    /** @return average time spent waiting for a connection */
+    public synchronized Duration getAverageWaitTime() {
+        return leases == 0 ? Duration.ZERO :
+            Duration.ofNanos(totalWaitNanos / leases);
+    }
+    
+    /** @return max time spent waiting for a connection */
+    public synchronized Duration getMaxWaitTime() {
+        return Duration.ofNanos(maxWaitNanos);
+    }
+    
+    /** @return part of prepared statements taken from the cache */
+    public double getStatementCacheHitRate() {
+        long hits = statementHits.sum();
+        long total = hits + statementMisses.sum();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return String.format("leased %d/%d, opened %d, peak %d, " +
+            "leases %d, avg wait %.3f ms, max wait %.3f ms, " +
+            "statement cache hits %.1f%%",
+            leased, size, opened, peakLeased, leases,
+            leases == 0 ? 0.0 : totalWaitNanos / (double) leases / 1e6,
+            maxWaitNanos / 1e6, getStatementCacheHitRate() * 100);
+    }
+    
+    /**
+     * Closes idle connections, leased connections are closed
+     * when they are returned.
+     */
+    @Override
+    public void close() {
+        Deque<Pooled> toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = new ArrayDeque<>(idle);
+            opened -= idle.size();
+            idle.clear();
+            notifyAll();
+        }
+        
+        toClose.forEach(ConnectionPool::close);
+    }
+}
@@ -0,0 +1,49 @@
+package com.words.model.mysqlmodel;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Part of the SQL model which depends on the database engine: where the
+ * database lives and how it's created and dropped. Queries of the model
+ * and its migrations are portable between engines.
+ * @author vlad
+ */
+interface Dialect {
+    
+    /**
+     * Get url of the database.
+     * @param dbName name of the database
+     * @return JDBC url used by the connection pool
+     */
+    String getUrl(String dbName);
+    
+    /** @return database user */
+    String getUser();
+    
+    /** @return database password */
+    String getPassword();
+    
+    /**
+     * Find if database already exists.
+     * @param dbName name of the database
+     * @return true if database exists
+     * @throws SQLException if database server can't be reached
+     */
+    boolean databaseExists(String dbName) throws SQLException;
+    
+    /**
+     * Creates empty database, existing database is dropped.
+     * @param dbName name of the database
+     * @throws SQLException if database can't be created
+     */
+    void createDatabase(String dbName) throws SQLException;
+    
+    /**
+     * Drops database with all its data.
+     * @param con connection to the database
+     * @param dbName name of the database
+     * @throws SQLException if database can't be dropped
+     */
+    void dropDatabase(Connection con, String dbName) throws SQLException;
+}
@@ -0,0 +1,72 @@
+package com.words.model.mysqlmodel;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Embedded H2 database in MySQL compatibility mode.
+ * Database is a single file in the directory, it's created by the first
+ * connection. Names are kept in lower case like MySQL does, so database
+ * metadata is searched with the same names.
+ * @author vlad
+ */
+class EmbeddedDialect implements Dialect {
+    
+    private static final String DRIVER = "org.h2.Driver";
+    private static final String URL_PARAMETERS =
+        ";MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+    private static final String FILE_EXTENSION = ".mv.db";
+    
+    private static final String USER = "sa";
+    private static final String PASSWORD = "";
+    
+    private final Path directory;
+    
+    /**
+     * Loads H2 driver.
+     * @param directory directory of the database files
+     * @throws ClassNotFoundException if driver isn't in the classpath
+     */
+    EmbeddedDialect(Path directory) throws ClassNotFoundException {
+        this.directory = directory.toAbsolutePath();
+        
+        Class.forName(DRIVER);
+    }
+    
+    @Override
+    public String getUrl(String dbName) {
+        return "jdbc:h2:" + directory.resolve(dbName) + URL_PARAMETERS;
+    }
+    
+    @Override
+    public String getUser() { return USER; }
+    
+    @Override
+    public String getPassword() { return PASSWORD; }
+    
+    @Override
+    public boolean databaseExists(String dbName) {
+        return Files.exists(directory.resolve(dbName + FILE_EXTENSION));
+    }
+    
+    @Override
+    public void createDatabase(String dbName) throws SQLException {
+        try (Connection con = DriverManager.getConnection(
+            getUrl(dbName), USER, PASSWORD);
+            Statement statement = con.createStatement()) {
+            statement.executeUpdate("DROP ALL OBJECTS");
+        }
+    }
+    
+    @Override
+    public void dropDatabase(Connection con, String dbName)
+        throws SQLException {
+        try (Statement statement = con.createStatement()) {
+            statement.executeUpdate("DROP ALL OBJECTS DELETE FILES");
+        }
+    }
+}
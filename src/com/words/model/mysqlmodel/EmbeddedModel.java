@@ -0,0 +1,23 @@
+package com.words.model.mysqlmodel;
+
+import java.nio.file.Path;
+
+/**
+ * SQL model backed by embedded H2 database, no database server is
+ * required. Database has the same schema and queries as MySQL database
+ * and is configured by the same db.properties, connection settings are
+ * ignored.
+ * @author vlad
+ */
+public final class EmbeddedModel extends MysqlModel {
+    
+    /**
+     * Opens database, creates it if it doesn't exist.
+     * @param directory directory of the database files
+     * @param dbName name of the database
+     * @throws Exception if database can't be opened
+     */
+    public EmbeddedModel(Path directory, String dbName) throws Exception {
+        super(dbName, loadProperties(), new EmbeddedDialect(directory));
+    }
+}
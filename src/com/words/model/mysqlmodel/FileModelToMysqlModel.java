@@ -5,71 +5,213 @@ import com.words.controller.utils.DateTimeUtils;
 import com.words.controller.words.Word;
 import com.words.controller.words.wordkinds.WordComplexity;
 import com.words.main.EnglishWords;
-import com.words.model.Model;
+import com.words.model.WordIndex;
 import com.words.model.filemodel.FileModel;
 import com.words.model.filemodel.IterationLog;
-import com.words.model.filemodel.RepeatWords;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.sql.Connection;
+import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumMap;
-import java.util.Properties;
-import java.util.stream.Collectors;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
+/**
+ * Bulk import of the file model into the database.
+ * Rows are inserted with batches of CHUNK_SIZE rows, every batch is
+ * committed separately. Bundle and word ids are resolved once with a single
+ * query. In parallel mode words with definitions are read from the file
+ * model by a producer thread while previous chunk is being inserted.
+ * Progress and throughput of every table are printed.
+ */
 class FileModelToMysqlModel {
     
+    // rows per batch and transaction
+    static final int CHUNK_SIZE = 500;
+    
+    // chunks read ahead by the producer
+    private static final int QUEUE_CHUNKS = 4;
+    
+    // word with its definition
+    private static class WordRow {
+        private final Word word;
+        private final String definition;
+        
+        private WordRow(Word word, String definition) {
+            this.word = word;
+            this.definition = definition;
+        }
+    }
+    
+    @FunctionalInterface
+    private interface RowBinder<T> {
+        // returns false if row should be skipped
+        boolean bind(PreparedStatement ps, T row) throws SQLException;
+    }
+    
+    // prints progress of a single table
+    private static class Progress {
+        private final String name;
+        private final int total;
+        private final long start = System.nanoTime();
+        private int inserted = 0;
+        
+        private Progress(String name, int total) {
+            this.name = name;
+            this.total = total;
+        }
+        
+        private void add(int rows) {
+            inserted += rows;
+            if (total > CHUNK_SIZE)
+                System.out.println(name + ": " + inserted + "/" + total);
+        }
+        
+        private void finish() {
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.println(String.format(
+                "Inserted %d %s in %.2f s (%.0f rows/s)", inserted, name,
+                seconds, seconds == 0 ? 0.0 : inserted / seconds));
+        }
+    }
+    
     private final Connection connection;
-    private final Model model;
+    private final FileModel model;
+    private final boolean parallel;
+    
+    private final Map<LocalDate, Integer> bundleIds = new HashMap<>();
     
     public FileModelToMysqlModel(Connection connection)
+        throws IOException {
+        this(connection, true);
+    }
+    
+    /**
+     * Creates importer of the file model from the project directory.
+     * @param connection connection to the database
+     * @param parallel read words in a separate thread
+     * @throws IOException if file model can't be read
+     */
+    public FileModelToMysqlModel(Connection connection, boolean parallel)
         throws IOException {
         this.connection = connection;
         this.model = new FileModel(EnglishWords.PROJECT_DIRECTORY);
+        this.parallel = parallel;
+    }
+    
+    // splits rows into chunks
+    private static <T> Iterable<List<T>> chunks(List<T> rows) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i += CHUNK_SIZE)
+            chunks.add(rows.subList(i, Math.min(rows.size(), i + CHUNK_SIZE)));
+        return chunks;
+    }
+    
+    /**
+     * Inserts rows with a batch per chunk and commits every chunk.
+     * @param <T> row type
+     * @param name table name used in progress
+     * @param total total amount of rows
+     * @param query insert query
+     * @param chunks chunks of rows
+     * @param binder sets statement parameters
+     * @return amount of inserted rows
+     * @throws SQLException if batch fails, previous chunks stay committed
+     */
+    private <T> int insertChunks(String name, int total, String query,
+        Iterable<List<T>> chunks, RowBinder<T> binder) throws SQLException {
+        Progress progress = new Progress(name, total);
+        
+        try (PreparedStatement ps = connection.prepareStatement(query)) {
+            for (List<T> chunk : chunks) {
+                int rows = 0;
+                for (T row : chunk) {
+                    if (!binder.bind(ps, row)) continue;
+                    
+                    ps.addBatch();
+                    rows++;
+                }
+                
+                if (rows == 0) continue;
+                
+                ps.executeBatch();
+                connection.commit();
+                progress.add(rows);
+            }
+        }
+        
+        progress.finish();
+        return progress.inserted;
     }
     
     private void insertBundles() throws SQLException {
-        String bundlesStr = model.allBundlesSorted().stream()
-            .map(s -> "('" + s + "')").collect(Collectors.joining(", "));
+        List<LocalDate> bundles = new ArrayList<>(model.allBundlesSorted());
         
-        try (Statement st = connection.createStatement()) {
-            int inserted = st.executeUpdate(
-                "INSERT INTO bundles (bundle_date) VALUES " + bundlesStr);
-            
-            System.out.println(
-                "Inserted " + inserted + " bundles");
+        insertChunks("bundles", bundles.size(),
+            "INSERT INTO bundles (bundle_date) VALUES (?)", chunks(bundles),
+            (ps, bundle) -> {
+                ps.setDate(1, Date.valueOf(bundle));
+                return true;
+            });
+        
+        try (PreparedStatement ps = connection.prepareStatement(
+            "SELECT bundle_id, bundle_date FROM bundles")) {
+            ResultSet rs = ps.executeQuery();
+            while (rs.next()) {
+                bundleIds.put(rs.getDate("bundle_date").toLocalDate(),
+                    rs.getInt("bundle_id"));
+            }
         }
     }
     
     private void insertFutureWords() throws SQLException {
         String query = "INSERT INTO future_words " +
             "(future_word, priority, date_added, date_changed) VALUES " +
-            "(?, ?, STR_TO_DATE(?, '%d.%m.%Y'), STR_TO_DATE(?, '%d.%m.%Y'))";
+            "(?, ?, ?, ?)";
         
-        try (PreparedStatement ps = connection.prepareStatement(query)) {
-            int inserted = 0;
-            for (FutureWord fw : model.getFutureWords().values()) {
+        List<FutureWord> futureWords =
+            new ArrayList<>(model.getFutureWords().values());
+        
+        insertChunks("future words", futureWords.size(), query,
+            chunks(futureWords), (ps, fw) -> {
                 ps.setString(1, fw.getWord());
                 ps.setInt(2, fw.getOriginalPriority());
-                ps.setString(3, fw.getDateAdded());
-                ps.setString(4, fw.getDateChanged());
-                inserted += ps.executeUpdate();
-            }
-            
-            System.out.println("Inserted " + inserted + " future words");
-        }
+                ps.setDate(3, parseDate(fw.getDateAdded()));
+                ps.setDate(4, parseDate(fw.getDateChanged()));
+                return true;
+            });
+    }
+    
+    // parses date of the file model, null if it's missing or invalid
+    private static Date parseDate(String date) {
+        if (date == null || !DateTimeUtils.isValidDate(date)) return null;
+        return Date.valueOf(DateTimeUtils.parseDate(date));
+    }
+    
+    private List<WordRow> readWords(List<Word> words) {
+        List<WordRow> rows = new ArrayList<>(words.size());
+        for (Word word : words)
+            rows.add(new WordRow(word, model.getDefinition(word.getWord())));
+        return rows;
     }
     
     private void insertWords() throws SQLException {
         EnumMap<WordComplexity, Integer> complexityMap =
             new EnumMap<>(WordComplexity.class);
-        try (Statement statement = connection.createStatement()) {
-            ResultSet rs = statement.executeQuery(
-                "SELECT complexity_id, complexity_name FROM complexities");
+        try (PreparedStatement ps = connection.prepareStatement(
+            "SELECT complexity_id, complexity_name FROM complexities")) {
+            ResultSet rs = ps.executeQuery();
             while (rs.next()) {
                 complexityMap.put(WordComplexity.valueOf(
                     rs.getString("complexity_name")),
@@ -78,85 +220,150 @@ class FileModelToMysqlModel {
         }
         
         String query = "INSERT INTO words (word, translation, synonyms, " +
-            "bundle_id, times_picked, last_picked_timestamp, complexity_id, definition)" +
-            "SELECT ?, ?, ?, bundle_id, ?, ?, ?, ? FROM bundles WHERE bundle_date = ?";
+            "bundle_id, times_picked, last_picked_timestamp, complexity_id, " +
+            "definition, canonical_word) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
         
-        try (PreparedStatement ps = connection.prepareStatement(query)) {
-            int inserted = 0;
-            for (Word word : model.getAllWords().values()) {
-                ps.setString(1, word.getWord());
-                ps.setString(2, word.getTranslation());
-                ps.setString(3, word.getSynonyms());
-                ps.setInt(4, word.getTimesPicked());
-                ps.setLong(5, word.getLastPickedTimestamp());
-                ps.setInt(6, complexityMap.get(word.getComplexity()));
-                ps.setString(7, model.getDefinition(word.getWord()));
-                ps.setString(8, word.getBundle().toString());
-                inserted += ps.executeUpdate();
+        RowBinder<WordRow> binder = (ps, row) -> {
+            Word word = row.word;
+            Integer bundleId = bundleIds.get(word.getBundle());
+            if (bundleId == null) return false;
+            
+            ps.setString(1, word.getWord());
+            ps.setString(2, word.getTranslation());
+            ps.setString(3, word.getSynonyms());
+            ps.setInt(4, bundleId);
+            ps.setInt(5, word.getTimesPicked());
+            ps.setLong(6, word.getLastPickedTimestamp());
+            ps.setInt(7, complexityMap.get(word.getComplexity()));
+            ps.setString(8, row.definition);
+            ps.setString(9, WordIndex.canonicalKey(word.getWord()));
+            return true;
+        };
+        
+        List<Word> words = new ArrayList<>(model.getAllWords().values());
+        
+        if (!parallel) {
+            insertChunks("words", words.size(), query,
+                chunks(readWords(words)), binder);
+            return;
+        }
+        
+        // definitions are read while previous chunk is being inserted
+        BlockingQueue<List<WordRow>> queue =
+            new ArrayBlockingQueue<>(QUEUE_CHUNKS);
+        List<WordRow> end = Collections.emptyList();
+        RuntimeException[] failure = { null };
+        
+        Thread producer = new Thread(() -> {
+            try {
+                for (List<Word> chunk : chunks(words))
+                    queue.put(readWords(chunk));
+            } catch (InterruptedException ex) {
+                return;
+            } catch (RuntimeException ex) {
+                failure[0] = ex;
+            }
+            
+            try {
+                queue.put(end);
+            } catch (InterruptedException ignore) { }
+        }, "import-producer");
+        producer.setDaemon(true);
+        producer.start();
+        
+        Iterable<List<WordRow>> chunks = () -> new Iterator<List<WordRow>>() {
+            private List<WordRow> next = null;
+            
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    try {
+                        next = queue.take();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        next = end;
+                    }
+                }
+                
+                return next != end;
             }
             
-            System.out.println("Inserted " + inserted + " words into the model");
+            @Override
+            public List<WordRow> next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                
+                List<WordRow> chunk = next;
+                next = null;
+                return chunk;
+            }
+        };
+        
+        try {
+            insertChunks("words", words.size(), query, chunks, binder);
+        } finally {
+            producer.interrupt();
         }
+        
+        if (failure[0] != null) throw failure[0];
+    }
+    
+    private Map<String, Integer> readWordIds() throws SQLException {
+        Map<String, Integer> wordIds = new HashMap<>();
+        try (PreparedStatement ps = connection.prepareStatement(
+            "SELECT word_id, word FROM words")) {
+            ResultSet rs = ps.executeQuery();
+            while (rs.next())
+                wordIds.put(rs.getString("word"), rs.getInt("word_id"));
+        }
+        
+        return wordIds;
     }
     
     private void insertIterations() {
         String query = "INSERT INTO daily_iterations (local_date, iterations) " +
             "VALUES (?, ?)";
         
+        List<Map.Entry<LocalDate, Integer>> iterations = new ArrayList<>(
+            IterationLog.readDailyIterations(EnglishWords.PROJECT_DIRECTORY)
+                .entrySet());
+        
         try {
-            Properties props = new Properties();
-            props.load(Files.newBufferedReader(
-                EnglishWords.PROJECT_DIRECTORY.resolve(IterationLog.LOG_FILE_NAME),
-                StandardCharsets.UTF_8));
-            
-            try (PreparedStatement ps = connection.prepareStatement(query)) {
-                int i = 0;
-                for (String date : props.stringPropertyNames()) {
-                    try {
-                        if (!DateTimeUtils.isValidDate(date)) continue;
-                        ps.setString(1, DateTimeUtils.parseDate(date).toString());
-                        ps.setInt(2, Integer.parseInt(props.getProperty(date)));
-                        i += ps.executeUpdate();
-                    } catch (NumberFormatException nfe) { }
-                }
-                
-                System.out.println("Inserted " + i + " days of iterations");
-            } catch (SQLException ignore) {
-                ignore.printStackTrace();
-            }
-        } catch (IOException ignore) {
+            insertChunks("days of iterations", iterations.size(), query,
+                chunks(iterations), (ps, entry) -> {
+                    ps.setDate(1, Date.valueOf(entry.getKey()));
+                    ps.setInt(2, entry.getValue());
+                    return true;
+                });
+        } catch (SQLException ignore) {
             ignore.printStackTrace();
         }
     }
     
-    private void insertRepeatWords() {
+    private void insertRepeatWords() throws SQLException {
         String query = "INSERT INTO repeat_words (word_id, date_added) " +
-            "SELECT words.word_id, ? FROM words WHERE word = ?";
+            "VALUES (?, ?)";
         
-        Properties props = new Properties();
-        try {
-            props.load(Files.newBufferedReader(
-                EnglishWords.PROJECT_DIRECTORY.resolve(RepeatWords.FILE_NAME),
-                StandardCharsets.UTF_8));
-            
-            try (PreparedStatement ps = connection.prepareStatement(query)) {
-                int i = 0;
-                for (String date : props.stringPropertyNames()) {
-                    String value = props.getProperty(date);
-                    String[] tokens = value.split(";");
-                    
-                    for (String word : tokens) {
-                        ps.setString(1, DateTimeUtils.parseDate(date).toString());
-                        ps.setString(2, word);
-                        i += ps.executeUpdate();
-                    }
-                }
-                System.out.println("Inserted " + i + " repeat words");
-            } catch (SQLException ignore) { }
-        } catch (IOException ignore) { }
+        // pairs of date and word
+        List<Map.Entry<LocalDate, String>> repeatWords = new ArrayList<>();
+        model.getRepeatSchedule().forEach((date, words) -> words.forEach(
+            word -> repeatWords.add(new SimpleEntry<>(date, word))));
+        
+        Map<String, Integer> wordIds = readWordIds();
+        
+        insertChunks("repeat words", repeatWords.size(), query,
+            chunks(repeatWords), (ps, entry) -> {
+                Integer wordId = wordIds.get(entry.getValue());
+                if (wordId == null) return false;
+                
+                ps.setInt(1, wordId);
+                ps.setDate(2, Date.valueOf(entry.getKey()));
+                return true;
+            });
     }
     
     public void insert() throws SQLException {
+        long start = System.nanoTime();
+        
         insertBundles();
         insertFutureWords();
         insertWords();
@@ -164,5 +371,8 @@ class FileModelToMysqlModel {
         insertRepeatWords();
         
         connection.commit();
+        
+        System.out.println(String.format("File model imported in %d ms",
+            (System.nanoTime() - start) / 1_000_000));
     }
 }
@@ -0,0 +1,86 @@
+package com.words.model.mysqlmodel;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+/**
+ * MySQL server, databases are catalogs of the server.
+ * Server and driver are taken from db.url and db.driver properties.
+ * @author vlad
+ */
+class MysqlDialect implements Dialect {
+    
+    private static final String DEFAULT_SERVER_URL = "jdbc:mysql://localhost/";
+    private static final String DEFAULT_DRIVER = "com.mysql.jdbc.Driver";
+    private static final String URL_PARAMETERS =
+        "?useUnicode=true&useServerPrepStmts=true" +
+        "&rewriteBatchedStatements=true&useCursorFetch=true";
+    
+    private final String serverUrl;
+    private final String user;
+    private final String password;
+    
+    /**
+     * Loads driver of the server.
+     * @param props database properties
+     * @throws ClassNotFoundException if driver isn't in the classpath
+     */
+    MysqlDialect(Properties props) throws ClassNotFoundException {
+        serverUrl = props.getProperty("db.url", DEFAULT_SERVER_URL);
+        user = props.getProperty("db.user");
+        password = props.getProperty("db.password");
+        
+        Class.forName(props.getProperty("db.driver", DEFAULT_DRIVER));
+    }
+    
+    @Override
+    public String getUrl(String dbName) {
+        return serverUrl + dbName + URL_PARAMETERS;
+    }
+    
+    @Override
+    public String getUser() { return user; }
+    
+    @Override
+    public String getPassword() { return password; }
+    
+    private Connection connectToServer() throws SQLException {
+        return DriverManager.getConnection(serverUrl + URL_PARAMETERS,
+            user, password);
+    }
+    
+    @Override
+    public boolean databaseExists(String dbName) throws SQLException {
+        try (Connection con = connectToServer();
+            ResultSet resultSet = con.getMetaData().getCatalogs()) {
+            while (resultSet.next()) {
+                if (resultSet.getString(1).equals(dbName)) return true;
+            }
+            
+            return false;
+        }
+    }
+    
+    @Override
+    public void createDatabase(String dbName) throws SQLException {
+        try (Connection con = connectToServer();
+            Statement statement = con.createStatement()) {
+            statement.executeUpdate("DROP DATABASE IF EXISTS " + dbName);
+            
+            int result = statement.executeUpdate("CREATE DATABASE " + dbName);
+            if (result != 1) throw new SQLException("Error creating database");
+        }
+    }
+    
+    @Override
+    public void dropDatabase(Connection con, String dbName)
+        throws SQLException {
+        try (Statement statement = con.createStatement()) {
+            statement.executeUpdate("DROP DATABASE IF EXISTS " + dbName);
+        }
+    }
+}
@@ -8,14 +8,15 @@ import com.words.controller.words.wordkinds.WordComplexity;
 import com.words.controller.words.wordkinds.WordType;
 import com.words.main.EnglishWords;
 import com.words.model.Model;
+import com.words.model.WordIndex;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.Date;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -26,6 +27,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.NavigableSet;
 import java.util.Objects;
@@ -35,7 +37,12 @@ import java.util.TreeSet;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public final class MysqlModel implements Model {
+/**
+ * Model backed by SQL database, MySQL server by default.
+ * Engine specific parts are left to the {@link Dialect}, queries are
+ * portable between MySQL and H2 in MySQL mode, see {@link EmbeddedModel}.
+ */
+public class MysqlModel implements Model {
     
     private static final int REPEAT_DAYS_TO_EXPIRE = 5;
     
@@ -48,15 +55,29 @@ public final class MysqlModel implements Model {
         return GET_WORD_QUERY_WITHOUT_CONDITION + " " + condition;
     }
     
+    private static final String INSERT_WORD_QUERY =
+        "INSERT INTO words (word, translation, synonyms, " +
+        "bundle_id, times_picked, last_picked_timestamp, complexity_id, " +
+        "canonical_word) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_WORD_QUERY =
+        "UPDATE words SET translation = ?, synonyms = ?, " +
+        "bundle_id = ?, times_picked = ?, last_picked_timestamp = ?, " +
+        "complexity_id = ? WHERE word = ?";
+    private static final String DELETE_WORD_QUERY =
+        "DELETE FROM words WHERE word = ?";
+    
     private final LocalDate today;
     private final Map<WordComplexity, Integer> complexityMap =
         new EnumMap<>(WordComplexity.class);
     
     private final String dbName;
-    private final Connection con;
+    private final Dialect dialect;
+    private final ConnectionPool pool;
+    
+    private final WordIndex wordMap = new WordIndex();
     
-    private final Map<String, Word> wordMap = new TreeMap<>((s1, s2) ->
-        s1.replaceAll("^to ", "").compareTo(s2.replaceAll("^to ", "")));
+    // bundles and aggregates, updated by mutating methods
+    private final QueryCache cache = new QueryCache();
     
     public static void main(String[] args) throws Exception {
         MysqlModel model = new MysqlModel("EnglishWordsTestDb");
@@ -83,11 +104,24 @@ public final class MysqlModel implements Model {
         System.out.println(model.isExistingBundle(LocalDate.of(2015, Month.JANUARY, 8)));
     }
     
-    public Connection getConnection() { return con; }
+    /**
+     * Leases connection from the pool, connection must be closed after use.
+     * @return connection to the model database
+     * @throws SQLException if there is no free connection
+     */
+    public Connection getConnection() throws SQLException {
+        return pool.lease();
+    }
+    
+    /** @return pool of database connections with usage statistics */
+    public ConnectionPool getConnectionPool() { return pool; }
     
     private Word getWordFromResultSet(ResultSet rs) throws SQLException {
         String englishWord = rs.getString("word");
-        if (wordMap.containsKey(englishWord)) return wordMap.get(englishWord);
+        synchronized (wordMap) {
+            Word cached = wordMap.get(englishWord);
+            if (cached != null) return cached;
+        }
         
         Word word = WordFactory.newWord();
         word.setWord(englishWord);
@@ -98,7 +132,12 @@ public final class MysqlModel implements Model {
         word.setTimesPicked(rs.getInt("times_picked"));
         word.setLastPickedTimestamp(rs.getLong("last_picked_timestamp"));
         
-        wordMap.put(englishWord, word);
+        synchronized (wordMap) {
+            // word could be loaded by another thread
+            Word cached = wordMap.get(englishWord);
+            if (cached != null) return cached;
+            wordMap.put(englishWord, word);
+        }
         
         return word;
     }
@@ -107,12 +146,6 @@ public final class MysqlModel implements Model {
         ex.printStackTrace();
     }
     
-    private void rollback() {
-        try {
-            con.rollback();
-        } catch (SQLException ignore) { }
-    }
-    
     private int getIdFromComplexity(WordComplexity complexity) {
         return complexityMap.getOrDefault(complexity, 1);
     }
@@ -127,15 +160,17 @@ public final class MysqlModel implements Model {
     
     /**
      * Gets bundle id. Returns -1 if bundles doesn't exist.
+     * @param con leased connection
      * @param bundle bundle to search
      * @return bundle id or -1
      * @throws SQLExceptin if something happens with database
      */
-    private int getBundleId(LocalDate bundle) throws SQLException {
+    private int getBundleId(Connection con, LocalDate bundle)
+        throws SQLException {
         String searchQuery =
             "SELECT bundle_id FROM bundles WHERE bundle_date = ?";
         
-        try (PreparedStatement ps = con.prepareCall(searchQuery)) {
+        try (PreparedStatement ps = con.prepareStatement(searchQuery)) {
             ps.setString(1, bundle.toString());
             ResultSet rs = ps.executeQuery();
             if (rs.next()) return rs.getInt("bundle_id");
@@ -143,13 +178,47 @@ public final class MysqlModel implements Model {
         }
     }
     
+    /**
+     * Gets bundle id, registers bundle if it doesn't exist.
+     * Resolved ids are remembered to be used by the next words of the batch.
+     * @param con leased connection
+     * @param bundleIds ids resolved during current batch
+     * @param bundle bundle to search
+     * @return bundle id
+     * @throws SQLException if something happens with database
+     */
+    private int resolveBundleId(Connection con, Map<LocalDate, Integer> bundleIds,
+        LocalDate bundle) throws SQLException {
+        Integer bundleId = bundleIds.get(bundle);
+        if (bundleId != null) return bundleId;
+        
+        bundleId = getBundleId(con, bundle);
+        if (bundleId == -1) bundleId = registerNewBundle(con, bundle);
+        
+        bundleIds.put(bundle, bundleId);
+        return bundleId;
+    }
+    
+    // counts rows changed by batch
+    private static int countUpdated(int[] results) {
+        int updated = 0;
+        for (int result : results) {
+            if (result > 0) updated += result;
+            else if (result == Statement.SUCCESS_NO_INFO) updated++;
+        }
+        
+        return updated;
+    }
+    
     /**
      * Registers new bundle and return generated id.
+     * @param con leased connection
      * @param bundle bundle to insert
      * @return newly generated bundle id
      * @throws SQLException if something wrong with database or bundle exists
      */
-    private int registerNewBundle(LocalDate bundle) throws SQLException {
+    private int registerNewBundle(Connection con, LocalDate bundle)
+        throws SQLException {
         String insertQuery = "INSERT INTO bundles (bundle_date) VALUES (?)";
         try (PreparedStatement ps = con.prepareStatement(
             insertQuery, Statement.RETURN_GENERATED_KEYS)) {
@@ -164,44 +233,58 @@ public final class MysqlModel implements Model {
     }
     
     public MysqlModel(String dbName) throws Exception {
+        this(dbName, loadProperties());
+    }
+    
+    private MysqlModel(String dbName, Properties props) throws Exception {
+        this(dbName, props, new MysqlDialect(props));
+    }
+    
+    /**
+     * Opens database, creates it if it doesn't exist.
+     * @param dbName name of the database
+     * @param props database properties
+     * @param dialect database engine
+     * @throws Exception if database can't be opened
+     */
+    MysqlModel(String dbName, Properties props, Dialect dialect)
+        throws Exception {
         this.dbName = dbName;
+        this.dialect = dialect;
         
-        Properties props = new Properties();
-        props.load(getClass().getResource("/resources/mysql/db.properties").openStream());
-//            Files.newBufferedReader(PROJECT_DIRECTORY.resolve("db.properties"),
-//            Charset.defaultCharset()));
-        String user = props.getProperty("db.user");
-        String password = props.getProperty("db.password");
         boolean recreate =
             Boolean.parseBoolean(props.getProperty("db.recreate"));
         boolean importDb =
             Boolean.parseBoolean(props.getProperty("db.import"));
+        int poolSize = Integer.parseInt(props.getProperty("db.pool.size",
+            String.valueOf(ConnectionPool.DEFAULT_SIZE)));
+        long poolTimeout = Long.parseLong(props.getProperty("db.pool.timeout",
+            String.valueOf(ConnectionPool.DEFAULT_TIMEOUT_MILLIS)));
         
-        Class.forName("com.mysql.jdbc.Driver");
-        con = DriverManager.getConnection(
-            "jdbc:mysql://localhost/?allowMultiQueries=true&useUnicode=true",
-            user, password);
-        con.setAutoCommit(false);
-        
-        // find if database already exists
-        boolean dbExists = false;
-        try (ResultSet resultSet = con.getMetaData().getCatalogs()) {
-            while (resultSet.next()) {
-                if (resultSet.getString(1).equals(dbName)) {
-                    dbExists = true;
-                    break;
-                }
-            }
+        // database is created before pool connections are opened
+        boolean created = false;
+        if (recreate || !dialect.databaseExists(dbName)) {
+            dialect.createDatabase(dbName);
+            created = true;
         }
         
-        if (!dbExists || recreate) createDatabase(dbName, importDb);
+        pool = new ConnectionPool(dialect.getUrl(dbName),
+            dialect.getUser(), dialect.getPassword(), poolSize, poolTimeout);
+        
+        if (created) createTables();
         
-        useDatabase(dbName);
+        // bring both new and existing databases to the latest schema
+        try (Connection con = pool.lease()) {
+            SchemaMigrations.migrate(con);
+        }
+        
+        if (created && importDb) importFileModel();
         
         // hash complexity ids
-        try (Statement statement = con.createStatement()) {
-            ResultSet rs = statement.executeQuery(
-                "SELECT complexity_id, complexity_name FROM complexities");
+        try (Connection con = pool.lease();
+            PreparedStatement ps = con.prepareStatement(
+                "SELECT complexity_id, complexity_name FROM complexities")) {
+            ResultSet rs = ps.executeQuery();
             while (rs.next()) {
                 complexityMap.put(WordComplexity.valueOf(
                     rs.getString("complexity_name")),
@@ -215,29 +298,46 @@ public final class MysqlModel implements Model {
         getRepeatWords();
     }
     
-    // creates database from scratch using predefined script
-    // deletes all table and data if exists
+    /**
+     * Loads database properties.
+     * @return properties of db.properties
+     * @throws IOException if properties can't be read
+     */
+    static Properties loadProperties() throws IOException {
+        Properties props = new Properties();
+        try (InputStream in = MysqlModel.class.getResourceAsStream(
+            "/resources/mysql/db.properties")) {
+            props.load(in);
+        }
+        
+        return props;
+    }
+    
+    // creates tables of the new database using predefined script
     // throws Exception if something goes wrong
-    private void createDatabase(String dbName, boolean importDb)
-        throws Exception {
-        // drop database if exists
-        try (Statement statement = con.createStatement()) {
-            statement.executeUpdate("DROP DATABASE IF EXISTS " + dbName);
-            
-            int result = statement.executeUpdate("CREATE DATABASE " + dbName);
-            if (result != 1) throw new SQLException("Error creating database");
-            
-            useDatabase(dbName);
-            
-            Path sqlScriptPath = Paths.get(getClass()
-                .getResource("/resources/mysql/create_tables.sql").toURI());
-            String sqlScript =  new String(Files.readAllBytes(sqlScriptPath),
-                StandardCharsets.UTF_8);
+    private void createTables() throws Exception {
+        Path sqlScriptPath = Paths.get(getClass()
+            .getResource("/resources/mysql/create_tables.sql").toURI());
+        String sqlScript =  new String(Files.readAllBytes(sqlScriptPath),
+            StandardCharsets.UTF_8);
+        
+        try (Connection con = pool.lease()) {
+            // statements are executed one by one, not every driver
+            // accepts a script
+            try (Statement statement = con.createStatement()) {
+                for (String sql : sqlScript.split(";")) {
+                    if (!sql.trim().isEmpty()) statement.executeUpdate(sql);
+                }
+            }
             
-            statement.executeUpdate(sqlScript);
+            initComplexities(con);
         }
-
-        // init complexity table
+        
+        System.out.println("Created db");
+    }
+    
+    // fills complexity table and commits
+    private void initComplexities(Connection con) throws SQLException {
         try (PreparedStatement insertComplexities = con.prepareStatement(
             "INSERT INTO complexities (complexity_name, weight, privileged) " +
                 "VALUES (?, ?, ?)")) {
@@ -250,25 +350,23 @@ public final class MysqlModel implements Model {
         }
         
         con.commit();
-        
-        if (importDb) importFileModel();
-        
-        System.out.println("Created db");
     }
     
     @Override
     public void backup() {
         try {
-            new MysqlModelToFileModel(EnglishWords.PROJECT_DIRECTORY, con)
+            new MysqlModelToFileModel(EnglishWords.PROJECT_DIRECTORY, pool)
                 .backup();
-        } catch (Exception ex) {
+        } catch (IOException ex) {
             System.err.println("Error while buckuping file model");
         }
     }
     
     private void importFileModel() throws IOException, SQLException {
-        FileModelToMysqlModel importer = new FileModelToMysqlModel(con);
-        importer.insert();
+        try (Connection con = pool.lease()) {
+            FileModelToMysqlModel importer = new FileModelToMysqlModel(con);
+            importer.insert();
+        }
     }
     
     private void fillDatabaseWithDefaults() throws Exception {
@@ -277,21 +375,23 @@ public final class MysqlModel implements Model {
         int normalComplexityId;
         int firstBundleId;
         
-        try (Statement statement = con.createStatement()) {
-            ResultSet rs = statement.executeQuery(
-                "SELECT complexity_id FROM complexities WHERE complexity_name='" +
-                    WordComplexity.NORMAL.name() + "'");
+        try (Connection con = pool.lease();
+            PreparedStatement ps = con.prepareStatement(
+                "SELECT complexity_id FROM complexities WHERE complexity_name = ?")) {
+            ps.setString(1, WordComplexity.NORMAL.name());
+            ResultSet rs = ps.executeQuery();
             rs.next();
             normalComplexityId = rs.getInt("complexity_id");
             
-            firstBundleId = statement.executeUpdate(
-                "INSERT INTO bundles (bundle_name) VALUES ('" + firstBundle + "')",
-                Statement.RETURN_GENERATED_KEYS);
+            firstBundleId = registerNewBundle(con, firstBundle);
+            
+            con.commit();
         }
         
-        try (PreparedStatement insertWords = con.prepareStatement(
-            "INSERT INTO words (word, translation, synonyms, bundle_id, complexity_id) " +
-                "VALUES (?, ?, ?, ?, ?)")) {
+        try (Connection con = pool.lease();
+            PreparedStatement insertWords = con.prepareStatement(
+            "INSERT INTO words (word, translation, synonyms, bundle_id, " +
+                "complexity_id, canonical_word) VALUES (?, ?, ?, ?, ?, ?)")) {
             for (String line : Files.readAllLines(Paths.get(getClass()
                 .getResource("/resources/irregular_verbs").toURI()),
                 StandardCharsets.UTF_8)) {
@@ -301,16 +401,11 @@ public final class MysqlModel implements Model {
                 insertWords.setString(3, tokens[2]);
                 insertWords.setInt(4, firstBundleId);
                 insertWords.setInt(5, normalComplexityId);
+                insertWords.setString(6, WordIndex.canonicalKey(tokens[0]));
                 insertWords.executeUpdate();
             }
-        }
-        
-        con.commit();
-    }
-    
-    private void useDatabase(String dbName) throws SQLException {
-        try (Statement useStatement = con.createStatement()) {
-            useStatement.executeUpdate("USE " + dbName);
+            
+            con.commit();
         }
     }
     
@@ -318,12 +413,16 @@ public final class MysqlModel implements Model {
     public Word getWordInstance(String wordToSearch) {
         Objects.requireNonNull(wordToSearch);
         
-        Word word = wordMap.get(wordToSearch);
+        Word word;
+        synchronized (wordMap) {
+            word = wordMap.get(wordToSearch);
+        }
         if (word != null) return word;
         
         String query = getWordQuery("WHERE word = ?");
         
-        try (PreparedStatement ps = con.prepareStatement(query)) {
+        try (Connection con = pool.lease();
+            PreparedStatement ps = con.prepareStatement(query)) {
             ps.setString(1, wordToSearch);
             ResultSet rs = ps.executeQuery();
             
@@ -339,12 +438,16 @@ public final class MysqlModel implements Model {
     public boolean wordExists(String word) {
         Objects.requireNonNull(word);
         
-        String query = "SELECT 1 FROM words WHERE word IN (?, ?)";
-        word = word.replaceAll("^to ", "");
+        // index treats verbs and nouns as being the same
+        synchronized (wordMap) {
+            if (wordMap.containsKey(word)) return true;
+        }
         
-        try (PreparedStatement ps = con.prepareStatement(query)) {
-            ps.setString(1, word);
-            ps.setString(2, "to " + word);
+        String query = "SELECT 1 FROM words WHERE canonical_word = ? LIMIT 1";
+        
+        try (Connection con = pool.lease();
+            PreparedStatement ps = con.prepareStatement(query)) {
+            ps.setString(1, WordIndex.canonicalKey(word));
             ResultSet rs = ps.executeQuery();
             return rs.next();
         } catch (SQLException sqle) {
@@ -355,17 +458,18 @@ public final class MysqlModel implements Model {
     
     @Override
     public final Map<String, Word> getAllWords() {
-        if (!wordMap.isEmpty()) return wordMap;
+        synchronized (wordMap) {
+            if (!wordMap.isEmpty()) return wordMap;
+        }
         
         String query = GET_WORD_QUERY_WITHOUT_CONDITION;
         
-        try (PreparedStatement ps = con.prepareStatement(query)) {
+        try (Connection con = pool.lease();
+            PreparedStatement ps = con.prepareStatement(query)) {
             ResultSet rs = ps.executeQuery();
             
-            while (rs.next()) {
-                Word word = getWordFromResultSet(rs);
-                wordMap.put(word.getWord(), word);
-            }
+            // words are put into the index while reading
+            while (rs.next()) getWordFromResultSet(rs);
             
             return Collections.unmodifiableMap(wordMap);
         } catch (SQLException sqle) {
@@ -379,7 +483,8 @@ public final class MysqlModel implements Model {
         String query =
             "SELECT iterations FROM daily_iterations WHERE local_date = ?";
         
-        try (PreparedStatement ps = con.prepareStatement(query)) {
+        try (Connection con = pool.lease();
+            PreparedStatement ps = con.prepareStatement(query)) {
             ps.setDate(1, Date.valueOf(today));
             ResultSet rs = ps.executeQuery();
             
@@ -393,12 +498,20 @@ public final class MysqlModel implements Model {
     
     @Override
     public long getTotalIterations() {
+        Long cached = cache.getTotalIterations();
+        if (cached != null) return cached;
+        
         String query = "SELECT SUM(times_picked) AS sum FROM words";
+        long version = cache.version();
         
-        try (Statement statement = con.createStatement()) {
-            ResultSet rs = statement.executeQuery(query);
+        try (Connection con = pool.lease();
+            PreparedStatement ps = con.prepareStatement(query)) {
+            ResultSet rs = ps.executeQuery();
             rs.next();
-            return rs.getLong("sum");
+            long sum = rs.getLong("sum");
+            
+            cache.putTotalIterations(sum, version);
+            return sum;
         } catch (SQLException sqle) {
             defaultExceptionHandler(sqle);
             return 0;
@@ -420,7 +533,8 @@ public final class MysqlModel implements Model {
         String query = "SELECT SUM(iterations) FROM daily_iterations " +
             "WHERE local_date BETWEEN ? AND ?";
         
-        try (PreparedStatement ps = con.prepareStatement(query)) {
+        try (Connection con = pool.lease();
+            PreparedStatement ps = con.prepareStatement(query)) {
             ps.setDate(1, Date.valueOf(startDate));
             ps.setDate(2, Date.valueOf(endDate));
             
@@ -438,14 +552,14 @@ public final class MysqlModel implements Model {
         String query = "INSERT INTO daily_iterations (local_date, iterations) " +
             "VALUES (?, ?) ON DUPLICATE KEY UPDATE iterations = VALUES(iterations)";
         
-        try (PreparedStatement ps = con.prepareStatement(query)) {
+        try (Connection con = pool.lease();
+            PreparedStatement ps = con.prepareStatement(query)) {
             ps.setDate(1, Date.valueOf(today));
             ps.setInt(2, iter);
             ps.executeUpdate();
             
             con.commit();
         } catch (SQLException sqle) {
-            rollback();
             defaultExceptionHandler(sqle);
         }
     }
@@ -454,10 +568,15 @@ public final class MysqlModel implements Model {
     public Collection<Word> getBundle(LocalDate bundle) {
         if (bundle == null) return Collections.emptyList();
         
+        Collection<Word> cached = cache.getBundle(bundle);
+        if (cached != null) return cached;
+        
         String query = getWordQuery("WHERE bundle_date = ?");
         Collection<Word> words = new ArrayList<>(40);
+        long version = cache.version();
         
-        try (PreparedStatement ps = con.prepareStatement(query)) {
+        try (Connection con = pool.lease();
+            PreparedStatement ps = con.prepareStatement(query)) {
             ps.setDate(1, Date.valueOf(bundle));
             ResultSet rs = ps.executeQuery();
             
@@ -466,6 +585,7 @@ public final class MysqlModel implements Model {
                 words.add(word);
             }
             
+            cache.putBundle(bundle, words, version);
             return words;
         } catch (SQLException sqle) {
             defaultExceptionHandler(sqle);
@@ -475,21 +595,25 @@ public final class MysqlModel implements Model {
     
     @Override
     public boolean deleteWord(String wordToDelete) {
-        String query = "DELETE FROM words WHERE word = ?";
-        
-        try (PreparedStatement ps = con.prepareStatement(query)) {
+        try (Connection con = pool.lease();
+            PreparedStatement ps = con.prepareStatement(DELETE_WORD_QUERY)) {
             ps.setString(1, wordToDelete);
             int result = ps.executeUpdate();
             
             if (result != 0) {
                 con.commit();
-                wordMap.remove(wordToDelete);
+                
+                Word deleted;
+                synchronized (wordMap) {
+                    deleted = wordMap.remove(wordToDelete);
+                }
+                cache.wordDeleted(wordToDelete, deleted);
+                
                 return true;
             }
             
             return false;
         } catch (SQLException sqle) {
-            rollback();
             defaultExceptionHandler(sqle);
             return false;
         }
@@ -498,19 +622,18 @@ public final class MysqlModel implements Model {
     @Override
     public Map<String, FutureWord> getFutureWords() {
         Map<String, FutureWord> map = new TreeMap<>();
-        String query = "SELECT future_word, priority, " +
-            "DATE_FORMAT(date_added, '%d.%m.%Y') AS 'date_added', " +
-            "DATE_FORMAT(date_changed, '%d.%m.%Y') AS 'date_created' " +
-            "FROM future_words";
+        String query = "SELECT future_word, priority, date_added, " +
+            "date_changed FROM future_words";
         
-        try (Statement statement = con.createStatement()) {
-            ResultSet rs = statement.executeQuery(query);
+        try (Connection con = pool.lease();
+            PreparedStatement ps = con.prepareStatement(query)) {
+            ResultSet rs = ps.executeQuery();
             
             while (rs.next()) {
                 FutureWord fw = new FutureWord(rs.getString("future_word"));
                 fw.setPriority(rs.getInt("priority"));
-                fw.setDateAdded(rs.getString("date_added"));
-                fw.setDateChanged(rs.getString("date_created"));
+                fw.setDateAdded(formatDate(rs.getDate("date_added")));
+                fw.setDateChanged(formatDate(rs.getDate("date_changed")));
                 map.put(fw.getWord(), fw);
             }
             
@@ -521,6 +644,12 @@ public final class MysqlModel implements Model {
         }
     }
     
+    // formats date like file model does, null stays null
+    private static String formatDate(Date date) {
+        if (date == null) return null;
+        return DateTimeUtils.localDateToString(date.toLocalDate());
+    }
+    
     @Override
     public void updateFutureWord(String word) {
         String query = "INSERT INTO future_words " +
@@ -529,13 +658,13 @@ public final class MysqlModel implements Model {
             "ON DUPLICATE KEY UPDATE " +
             "priority = priority + 1, date_changed = CURDATE()";
         
-        try (PreparedStatement ps = con.prepareStatement(query)) {
+        try (Connection con = pool.lease();
+            PreparedStatement ps = con.prepareStatement(query)) {
             ps.setString(1, word);
             ps.executeUpdate();
             
             con.commit();
         } catch (SQLException sqle) {
-            rollback();
             defaultExceptionHandler(sqle);
         }
     }
@@ -544,32 +673,32 @@ public final class MysqlModel implements Model {
     public void deleteFutureWords(Collection<String> words) {
         String query = "DELETE FROM future_words WHERE future_word = ?";
         
-        try (PreparedStatement ps = con.prepareStatement(query)) {
-            words.forEach(word -> {
-                try {
-                    ps.setString(1, word);
-                    ps.executeUpdate();
-                } catch (SQLException sqle) {
-                    rollback();
-                    defaultExceptionHandler(sqle);
-                }
-            });
+        try (Connection con = pool.lease();
+            PreparedStatement ps = con.prepareStatement(query)) {
+            for (String word : words) {
+                ps.setString(1, word);
+                ps.addBatch();
+            }
             
+            ps.executeBatch();
             con.commit();
         } catch (SQLException sqle) {
-            rollback();
             defaultExceptionHandler(sqle);
         }
     }
     
-    private Collection<Word> getRepeatWordsWithCondition(String condition) {
+    // condition has a single date parameter
+    private Collection<Word> getRepeatWordsWithCondition(String condition,
+        LocalDate date) {
         String query = getWordQuery("JOIN repeat_words ON " +
             "words.word_id = repeat_words.word_id " + condition);
         
         Collection<Word> words = new ArrayList<>();
         
-        try (Statement statement = con.createStatement()) {
-            ResultSet rs = statement.executeQuery(query);
+        try (Connection con = pool.lease();
+            PreparedStatement ps = con.prepareStatement(query)) {
+            ps.setDate(1, Date.valueOf(date));
+            ResultSet rs = ps.executeQuery();
             
             while (rs.next()) {
                 Word w = getWordFromResultSet(rs);
@@ -585,10 +714,8 @@ public final class MysqlModel implements Model {
     
     @Override
     public Collection<Word> getRepeatWords() {
-        String query = "WHERE date_added >= DATE(DATE_SUB('" + today +
-            "', INTERVAL " + REPEAT_DAYS_TO_EXPIRE + " DAY))";
-        
-        Collection<Word> repeatWords = getRepeatWordsWithCondition(query);
+        Collection<Word> repeatWords = getRepeatWordsWithCondition(
+            "WHERE date_added >= ?", today.minusDays(REPEAT_DAYS_TO_EXPIRE));
         repeatWords.forEach(w -> w.setWordType(WordType.REPEAT));
         
         return repeatWords;
@@ -596,9 +723,8 @@ public final class MysqlModel implements Model {
     
     @Override
     public Collection<Word> getExpiredRepeatWords() {
-        String query = "WHERE date_added = DATE(DATE_SUB('" + today +
-            "', INTERVAL " + (REPEAT_DAYS_TO_EXPIRE + 1) + " DAY))";
-        return getRepeatWordsWithCondition(query);
+        return getRepeatWordsWithCondition("WHERE date_added = ?",
+            today.minusDays(REPEAT_DAYS_TO_EXPIRE + 1));
     }
     
     @Override
@@ -607,70 +733,86 @@ public final class MysqlModel implements Model {
         String query = "INSERT IGNORE INTO repeat_words (word_id, date_added) " +
             "SELECT word_id, ? FROM words WHERE word = ?";
         
-        try (PreparedStatement ps = con.prepareStatement(query)) {
+        try (Connection con = pool.lease();
+            PreparedStatement ps = con.prepareStatement(query)) {
             ps.setDate(1, Date.valueOf(insertDate));
             ps.setString(2, word);
             ps.executeUpdate();
             
             con.commit();
         } catch (SQLException sqle) {
-            rollback();
             defaultExceptionHandler(sqle);
         }
     }
     
     @Override
     public void deleteRepeatWord(String word) {
-        String query = "DELETE FROM repeat_words WHERE word_id IN " +
-            "(SELECT word_id FROM words WHERE word = ?) " +
-            "ORDER BY date_added DESC LIMIT 1";
+        // the latest entry is found first, not every database can
+        // delete with ORDER BY and LIMIT
+        String searchQuery = "SELECT repeat_word_id FROM repeat_words " +
+            "JOIN words ON repeat_words.word_id = words.word_id " +
+            "WHERE word = ? ORDER BY repeat_words.date_added DESC LIMIT 1";
+        String deleteQuery =
+            "DELETE FROM repeat_words WHERE repeat_word_id = ?";
         
-        try (PreparedStatement ps = con.prepareStatement(query)) {
-            ps.setString(1, word);
-            ps.executeUpdate();
+        try (Connection con = pool.lease();
+            PreparedStatement search = con.prepareStatement(searchQuery);
+            PreparedStatement delete = con.prepareStatement(deleteQuery)) {
+            search.setString(1, word);
+            ResultSet rs = search.executeQuery();
+            if (!rs.next()) return;
+            
+            delete.setInt(1, rs.getInt("repeat_word_id"));
+            delete.executeUpdate();
             
             con.commit();
         } catch (SQLException sqle) {
-            rollback();
             defaultExceptionHandler(sqle);
         }
     }
     
     @Override
     public boolean addNewWord(Word word) {
-        String query = "INSERT INTO words (word, translation, synonyms, " +
-            "bundle_id, times_picked, last_picked_timestamp, complexity_id) " +
-            "VALUES (?, ?, ?, ?, ?, ?, ?)";
-        
-        int complexityId = getIdFromComplexity(word.getComplexity());
+        return insertWords(Collections.singletonList(word)) != 0;
+    }
+    
+    /**
+     * Inserts words with a single batch and commits them at once.
+     * @param words words to insert, bundles are registered if required
+     * @return number of inserted words, 0 if transaction has failed
+     */
+    private int insertWords(Collection<Word> words) {
+        if (words.isEmpty()) return 0;
         
-        try (PreparedStatement ps = con.prepareStatement(query)) {
-            LocalDate bundle = word.getBundle();
-            int bundleId = getBundleId(bundle);
-            if (bundleId == -1) bundleId = registerNewBundle(bundle);
+        try (Connection con = pool.lease();
+            PreparedStatement ps = con.prepareStatement(INSERT_WORD_QUERY)) {
+            Map<LocalDate, Integer> bundleIds = new HashMap<>();
+            long timestamp = System.currentTimeMillis();
             
-            ps.setString(1, word.getWord());
-            ps.setString(2, word.getTranslation());
-            ps.setString(3, word.getSynonyms());
-            ps.setInt(4, bundleId);
-            ps.setInt(5, word.getTimesPicked());
-            ps.setLong(6, System.currentTimeMillis());
-            ps.setInt(7, complexityId);
+            for (Word word : words) {
+                ps.setString(1, word.getWord());
+                ps.setString(2, word.getTranslation());
+                ps.setString(3, word.getSynonyms());
+                ps.setInt(4, resolveBundleId(con, bundleIds, word.getBundle()));
+                ps.setInt(5, word.getTimesPicked());
+                ps.setLong(6, timestamp);
+                ps.setInt(7, getIdFromComplexity(word.getComplexity()));
+                ps.setString(8, WordIndex.canonicalKey(word.getWord()));
+                ps.addBatch();
+            }
             
-            int result = ps.executeUpdate();
+            int inserted = countUpdated(ps.executeBatch());
+            con.commit();
             
-            if (result != 0) {
-                con.commit();
-                wordMap.put(word.getWord(), word);
-                
-                return true;
+            synchronized (wordMap) {
+                words.forEach(word -> wordMap.put(word.getWord(), word));
             }
+            words.forEach(cache::wordAdded);
             
-            return false;
+            return inserted;
         } catch (SQLException sqle) {
-            rollback();
             defaultExceptionHandler(sqle);
-            return false;
+            return 0;
         }
     }
     
@@ -678,60 +820,41 @@ public final class MysqlModel implements Model {
     public boolean isExistingBundle(LocalDate bundle) {
         Objects.requireNonNull(bundle);
         
-        String query = "SELECT 1 FROM words JOIN bundles ON " +
-            "words.bundle_id = bundles.bundle_id WHERE bundle_date = ?";
+        Boolean cached = cache.isExistingBundle(bundle);
+        if (cached != null) return cached;
         
-        try (PreparedStatement ps = con.prepareStatement(query)) {
-            ps.setDate(1, Date.valueOf(bundle));
-            return ps.executeQuery().next();
-        } catch (SQLException sqle) {
-            defaultExceptionHandler(sqle);
-            return false;
-        }
+        return allBundlesSorted().contains(bundle);
     }
     
     @Override
     public LocalDate getLastBundleName() {
-        String query = "SELECT DISTINCT bundle_date FROM bundles " +
-            "JOIN words ON bundles.bundle_id = words.bundle_id " +
-            "ORDER BY bundle_date DESC LIMIT 1";
-        
-        try (Statement statement = con.createStatement()) {
-            ResultSet rs = statement.executeQuery(query);
-            if (rs.next()) return rs.getDate("bundle_date").toLocalDate();
-            else return null;
-        } catch (SQLException sqle) {
-            defaultExceptionHandler(sqle);
-            return null;
-        }
+        NavigableSet<LocalDate> bundles = allBundlesSorted();
+        return bundles.isEmpty() ? null : bundles.last();
     }
     
     @Override
     public LocalDate getPenultimateBundleName() {
-        String query = "SELECT DISTINCT bundle_date FROM bundles " +
-            "JOIN words ON bundles.bundle_id = words.bundle_id " +
-            "ORDER BY bundle_date DESC LIMIT 1, 1";
-        
-        try (Statement statement = con.createStatement()) {
-            ResultSet rs = statement.executeQuery(query);
-            if (rs.next()) return rs.getDate("bundle_date").toLocalDate();
-            else return null;
-        } catch (SQLException sqle) {
-            defaultExceptionHandler(sqle);
-            return null;
-        }
+        NavigableSet<LocalDate> bundles = allBundlesSorted();
+        return bundles.isEmpty() ? null : bundles.lower(bundles.last());
     }
     
     @Override
     public NavigableSet<LocalDate> allBundlesSorted() {
+        NavigableSet<LocalDate> cached = cache.getBundles();
+        if (cached != null) return cached;
+        
         TreeSet<LocalDate> bundles = new TreeSet<>();
         String query = "SELECT DISTINCT bundle_date FROM bundles " +
             "JOIN words ON bundles.bundle_id = words.bundle_id";
+        long version = cache.version();
         
-        try (Statement statement = con.createStatement()) {
-            ResultSet rs = statement.executeQuery(query);
+        try (Connection con = pool.lease();
+            PreparedStatement ps = con.prepareStatement(query)) {
+            ResultSet rs = ps.executeQuery();
             while (rs.next())
                 bundles.add(rs.getDate("bundle_date").toLocalDate());
+            
+            cache.putBundles(bundles, version);
             return bundles;
         } catch (SQLException sqle) {
             defaultExceptionHandler(sqle);
@@ -743,7 +866,8 @@ public final class MysqlModel implements Model {
     public String getDefinition(String word) {
         String query = "SELECT definition FROM words WHERE word = ?";
         
-        try (PreparedStatement ps = con.prepareStatement(query)) {
+        try (Connection con = pool.lease();
+            PreparedStatement ps = con.prepareStatement(query)) {
             ps.setString(1, word);
             ResultSet rs = ps.executeQuery();
             if (rs.next()) return rs.getString("definition");
@@ -758,13 +882,13 @@ public final class MysqlModel implements Model {
     public void setDefinition(String word, String definition) {
         String query = "UPDATE words SET definition = ? WHERE word = ?";
         
-        try (PreparedStatement ps = con.prepareStatement(query)) {
+        try (Connection con = pool.lease();
+            PreparedStatement ps = con.prepareStatement(query)) {
             ps.setString(1, definition);
             ps.setString(2, word);
             ps.executeUpdate();
             con.commit();
         } catch (SQLException sqle) {
-            rollback();
             defaultExceptionHandler(sqle);
         }
     }
@@ -773,80 +897,113 @@ public final class MysqlModel implements Model {
     public void setComplexity(String word, WordComplexity complexity) {
         String query = "UPDATE words SET complexity_id = ? WHERE word = ?";
         
-        try (PreparedStatement ps = con.prepareStatement(query)) {
+        try (Connection con = pool.lease();
+            PreparedStatement ps = con.prepareStatement(query)) {
             ps.setInt(1, getIdFromComplexity(complexity));
             ps.setString(2, word);
             ps.executeUpdate();
             con.commit();
         } catch (SQLException sqle) {
-            rollback();
             defaultExceptionHandler(sqle);
         }
     }
     
     @Override
     public void setLastPickedTimestamp(String word, long timestamp) {
+        setLastPickedTimestamp(word, timestamp, 1);
+    }
+    
+    @Override
+    public void setLastPickedTimestamp(String word, long timestamp, int times) {
         String query = "UPDATE words SET last_picked_timestamp = ?, "
-            + "times_picked = times_picked + 1 WHERE word = ?";
+            + "times_picked = times_picked + ? WHERE word = ?";
         
-        try (PreparedStatement ps = con.prepareStatement(query)) {
+        try (Connection con = pool.lease();
+            PreparedStatement ps = con.prepareStatement(query)) {
             ps.setLong(1, timestamp);
-            ps.setString(2, word);
+            ps.setInt(2, times);
+            ps.setString(3, word);
             ps.executeUpdate();
             con.commit();
+            
+            cache.wordPicked(times);
         } catch (SQLException sqle) {
-            rollback();
             defaultExceptionHandler(sqle);
         }
     }
     
     @Override
     public void editWords(Map<Word, Word> map) {
-        for (Map.Entry<Word, Word> entry : map.entrySet()) {
-            try {
-                Word originalWord = entry.getValue();
-                Word editedWord = entry.getKey();
-                
-                if (!originalWord.getWord().equals(editedWord.getWord())) {
-                    String wordToDelete = originalWord.getWord();
-                    deleteWord(wordToDelete);
-                    wordMap.remove(wordToDelete);
-                    
-                    addNewWord(editedWord); // commits changes
-                    
-                    continue; // move to the next word
-                }
-                
-                String query = "UPDATE words SET translation = ? , synonyms = ?, " +
-                    "bundle_id = ?, times_picked = ?, last_picked_timestamp = ?, " +
-                    "complexity_id = ?, definition = ? WHERE word = ?";
-                
-                try (PreparedStatement ps = con.prepareStatement(query)) {
-                    int complexityId = getIdFromComplexity(editedWord.getComplexity());
-                    LocalDate bundle = editedWord.getBundle();
-                    
-                    int bundleId = getBundleId(bundle);
-                    if (bundleId == -1) bundleId = registerNewBundle(bundle);
-                    
-                    ps.setString(1, editedWord.getTranslation());
-                    ps.setString(2, editedWord.getSynonyms());
-                    ps.setInt(3, bundleId);
-                    ps.setInt(4, editedWord.getTimesPicked());
-                    ps.setLong(5, editedWord.getLastPickedTimestamp());
-                    ps.setInt(6, complexityId);
-                    ps.setString(7, getDefinition(editedWord.getWord()));
-                    ps.setString(8, editedWord.getWord());
-                    
-                    ps.executeUpdate();
-                    
-                    con.commit();
-                    
-                    wordMap.put(editedWord.getWord(), editedWord);
-                }
-            } catch (SQLException sqle) {
-                rollback();
-                defaultExceptionHandler(sqle);
+        if (map.isEmpty()) return;
+        
+        // renamed words are deleted and inserted again
+        Collection<String> deleted = new ArrayList<>();
+        Collection<Word> inserted = new ArrayList<>();
+        Collection<Word> updated = new ArrayList<>();
+        
+        map.forEach((editedWord, originalWord) -> {
+            if (originalWord.getWord().equals(editedWord.getWord())) {
+                updated.add(editedWord);
+            } else {
+                deleted.add(originalWord.getWord());
+                inserted.add(editedWord);
+            }
+        });
+        
+        try (Connection con = pool.lease();
+            PreparedStatement delete = con.prepareStatement(DELETE_WORD_QUERY);
+            PreparedStatement insert = con.prepareStatement(INSERT_WORD_QUERY);
+            PreparedStatement update = con.prepareStatement(UPDATE_WORD_QUERY)) {
+            Map<LocalDate, Integer> bundleIds = new HashMap<>();
+            long timestamp = System.currentTimeMillis();
+            
+            for (String word : deleted) {
+                delete.setString(1, word);
+                delete.addBatch();
+            }
+            
+            for (Word word : inserted) {
+                insert.setString(1, word.getWord());
+                insert.setString(2, word.getTranslation());
+                insert.setString(3, word.getSynonyms());
+                insert.setInt(4, resolveBundleId(con, bundleIds, word.getBundle()));
+                insert.setInt(5, word.getTimesPicked());
+                insert.setLong(6, timestamp);
+                insert.setInt(7, getIdFromComplexity(word.getComplexity()));
+                insert.setString(8, WordIndex.canonicalKey(word.getWord()));
+                insert.addBatch();
+            }
+            
+            for (Word word : updated) {
+                update.setString(1, word.getTranslation());
+                update.setString(2, word.getSynonyms());
+                update.setInt(3, resolveBundleId(con, bundleIds, word.getBundle()));
+                update.setInt(4, word.getTimesPicked());
+                update.setLong(5, word.getLastPickedTimestamp());
+                update.setInt(6, getIdFromComplexity(word.getComplexity()));
+                update.setString(7, word.getWord());
+                update.addBatch();
+            }
+            
+            // deletes go first to free unique keys of renamed words
+            if (!deleted.isEmpty()) delete.executeBatch();
+            if (!inserted.isEmpty()) insert.executeBatch();
+            if (!updated.isEmpty()) update.executeBatch();
+            con.commit();
+            
+            synchronized (wordMap) {
+                deleted.forEach(wordMap::remove);
+                inserted.forEach(word -> wordMap.put(word.getWord(), word));
+                updated.forEach(word -> wordMap.put(word.getWord(), word));
             }
+            
+            // edited words could be moved to other bundles
+            map.forEach((editedWord, originalWord) -> {
+                cache.wordDeleted(originalWord.getWord(), originalWord);
+                cache.wordAdded(editedWord);
+            });
+        } catch (SQLException sqle) {
+            defaultExceptionHandler(sqle);
         }
     }
     
@@ -854,34 +1011,38 @@ public final class MysqlModel implements Model {
     public boolean addNewBundle(LocalDate bundle, Collection<Word> words) {
         if (isExistingBundle(bundle)) return false;
         
-        words.forEach(word -> {
-            word.setBundle(bundle);
-            addNewWord(word);
-        });
+        words.forEach(word -> word.setBundle(bundle));
+        insertWords(words);
         
         return true;
     }
     
     @Override
     public boolean isEmpty() {
-        String query = "SELECT COUNT(word) FROM words";
-        try (Statement statement = con.createStatement()) {
-            ResultSet rs = statement.executeQuery(query);
-            rs.next();
-            return rs.getInt(1) == 0;
+        // every word belongs to a bundle
+        return allBundlesSorted().isEmpty();
+    }
+    
+    @Override
+    public boolean isThreadSafe() {
+        // connections are leased from the pool, caches are synchronized
+        return true;
+    }
+    
+    @Override
+    public void destroy() {
+        try (Connection con = pool.lease()) {
+            dialect.dropDatabase(con, dbName);
         } catch (SQLException sqle) {
             defaultExceptionHandler(sqle);
-            return true;
         }
+        cache.clear();
+        System.err.println("Model has been completely destroyed");
     }
     
     @Override
-    public void destroy() {
-        try (PreparedStatement ps = con.prepareStatement(
-            "DROP DATABASE IF EXISTS ?")) {
-            ps.setString(1, dbName);
-            ps.executeUpdate();
-        } catch (SQLException ex) { } 
-        System.err.println("Model has been completely destroyed");
+    public void close() {
+        System.out.println("Connection pool: " + pool);
+        pool.close();
     }
 }
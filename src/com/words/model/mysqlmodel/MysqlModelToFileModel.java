@@ -10,7 +10,6 @@ import com.words.model.filemodel.WordManager;
 import com.words.model.filemodel.WordStats;
 import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
@@ -20,24 +19,49 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDate;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Properties;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+/**
+ * Backup of the database into the file model format.
+ * Rows are streamed with server-side cursors and written to the files
+ * as they arrive, so memory usage doesn't depend on the size of tables.
+ * Grouped files (bundles of words and repeat words by date) are written
+ * from queries ordered by the group. Independent tables are exported in
+ * parallel, every table on its own connection.
+ * @author vlad
+ */
 public class MysqlModelToFileModel {
     
+    // rows fetched from the server at once
+    static final int FETCH_SIZE = 500;
+    
     private final Path currentDir;
-    private final Connection con;
+    private final ConnectionPool pool;
+    
+    @FunctionalInterface
+    private interface TableExport {
+        void export(Connection con) throws SQLException, IOException;
+    }
     
     public static void main(String[] args) throws Exception {
-        MysqlModelToFileModel backup = new MysqlModelToFileModel(
-            EnglishWords.PROJECT_DIRECTORY);
-        
-        backup.backup();
+        MysqlModel model = new MysqlModel(EnglishWords.TITLE);
+        try {
+            new MysqlModelToFileModel(EnglishWords.PROJECT_DIRECTORY,
+                model.getConnectionPool()).backup();
+        } finally {
+            model.close();
+        }
     }
     
-    public MysqlModelToFileModel(Path projectDir, Connection con) throws Exception {
+    public MysqlModelToFileModel(Path projectDir, ConnectionPool pool)
+        throws IOException {
         Path backupDir = projectDir.resolve("backup");
         if (Files.notExists(backupDir)) Files.createDirectories(backupDir);
         
@@ -66,184 +90,214 @@ public class MysqlModelToFileModel {
         
         Files.createDirectory(currentDir);
         
-        this.con = con;
-    }
-    
-    private MysqlModelToFileModel(Path projectDir) throws Exception {
-        this(projectDir, createConnection());
+        this.pool = pool;
     }
     
-    private static Connection createConnection() throws Exception {
-        return new MysqlModel(EnglishWords.TITLE).getConnection();
+    /**
+     * Exports all tables, failure of a table doesn't stop other exports.
+     */
+    public void backup() {
+        long start = System.nanoTime();
+        
+        List<TableExport> exports = new ArrayList<>();
+        exports.add(this::backupIterations);
+        exports.add(this::backupRepeatWords);
+        exports.add(this::backupWordsAndDefinitions);
+        exports.add(this::backupFutureWords);
+        
+        ExecutorService exec = Executors.newFixedThreadPool(exports.size(),
+            r -> {
+                Thread thread = new Thread(r, "backup-export");
+                thread.setDaemon(true);
+                return thread;
+            });
+        
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (TableExport export : exports) {
+                futures.add(exec.submit(() -> {
+                    try (Connection con = pool.lease()) {
+                        export.export(con);
+                    } catch (SQLException | IOException ex) {
+                        ex.printStackTrace();
+                    }
+                }));
+            }
+            
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException ex) {
+                    ex.getCause().printStackTrace();
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exec.shutdownNow();
+        }
+        
+        System.out.println(String.format("Backup finished in %d ms",
+            (System.nanoTime() - start) / 1_000_000));
     }
     
-    public void backup() {
-        backupIterations();
-        backupRepeatWords();
-        backupWordsAndDefinitions();
-        backupFutureWords();
+    // read only forward cursor which isn't cached by the pool
+    private static PreparedStatement prepareCursor(Connection con,
+        String query) throws SQLException {
+        PreparedStatement ps = con.prepareStatement(query,
+            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ps.setFetchSize(FETCH_SIZE);
+        return ps;
     }
     
-    private void backupIterations() {
+    private void backupIterations(Connection con)
+        throws SQLException, IOException {
         String query = "SELECT local_date, iterations FROM daily_iterations";
         
-        Properties props = new Properties();
-        
-        try (PreparedStatement ps = con.prepareStatement(query)) {
+        Path file = currentDir.resolve(IterationLog.LOG_FILE_NAME);
+        int i;
+        try (PreparedStatement ps = prepareCursor(con, query);
             ResultSet rs = ps.executeQuery();
-            int i = 0;
+            PropertiesWriter out =
+                new PropertiesWriter(file, "Autogenerated")) {
             while (rs.next()) {
                 LocalDate ld = rs.getDate("local_date").toLocalDate();
-                String key = DateTimeUtils.localDateToString(ld);
-                int iterations = rs.getInt("iterations");
-                props.put(key, "" + iterations);
-                i++;
-            }
-            if (props.size() > 0) {
-                props.store(Files.newBufferedWriter(currentDir.resolve(IterationLog.LOG_FILE_NAME)),
-                    "Autogenerated");
-                System.out.println("Backed up " + i + " iterations");
+                out.put(DateTimeUtils.localDateToString(ld),
+                    String.valueOf(rs.getInt("iterations")));
             }
-        } catch (Exception e) {
-            e.printStackTrace();
+            i = out.size();
         }
+        
+        // there is no file without iterations
+        if (i == 0) Files.delete(file);
+        else System.out.println("Backed up " + i + " iterations");
     }
     
-    private void backupRepeatWords() {
+    private void backupRepeatWords(Connection con)
+        throws SQLException, IOException {
         String query = "SELECT w.word, rw.date_added FROM words AS w JOIN " +
-            "repeat_words AS rw ON w.word_id = rw.word_id";
-        
-        Properties props = new Properties();
+            "repeat_words AS rw ON w.word_id = rw.word_id " +
+            "ORDER BY rw.date_added";
         
-        try (PreparedStatement ps = con.prepareStatement(query)) {
+        try (PreparedStatement ps = prepareCursor(con, query);
             ResultSet rs = ps.executeQuery();
+            PropertiesWriter out = new PropertiesWriter(
+                currentDir.resolve(RepeatWords.FILE_NAME), "Autogenerated")) {
             int i = 0;
+            
+            // words of a single date
+            LocalDate date = null;
+            StringBuilder words = new StringBuilder();
+            
             while (rs.next()) {
-                String word = rs.getString("w.word");
-                LocalDate ld = rs.getDate("rw.date_added").toLocalDate();
-                String key = DateTimeUtils.localDateToString(ld);
+                String word = rs.getString("word");
+                LocalDate ld = rs.getDate("date_added").toLocalDate();
                 
-                StringBuilder sb = new StringBuilder(props.getProperty(key, ""));
-                if (sb.length() != 0) sb.append(RepeatWords.DELIMITER);
-                sb.append(word);
+                if (!ld.equals(date)) {
+                    if (date != null) out.put(
+                        DateTimeUtils.localDateToString(date),
+                        words.toString());
+                    date = ld;
+                    words.setLength(0);
+                }
                 
-                props.put(key, sb.toString());
+                if (words.length() != 0) words.append(RepeatWords.DELIMITER);
+                words.append(word);
                 
                 i++;
             }
-            props.store(Files.newBufferedWriter(
-                currentDir.resolve(RepeatWords.FILE_NAME)),
-                "Autogenerated");
+            
+            if (date != null) out.put(
+                DateTimeUtils.localDateToString(date), words.toString());
+            
             System.out.println("Backuped " + i + " repeat words");
-        } catch (Exception e) {
-            e.printStackTrace();
         }
     }
     
-    private void backupWordsAndDefinitions() {
+    private void backupWordsAndDefinitions(Connection con)
+        throws SQLException, IOException {
         String query = "SELECT word, translation, synonyms, definition, " +
             "bundle_date, complexity_name, times_picked, last_picked_timestamp " +
             "FROM words " +
             "JOIN bundles ON words.bundle_id = bundles.bundle_id " +
-            "JOIN complexities ON words.complexity_id = complexities.complexity_id ";
+            "JOIN complexities " +
+            "ON words.complexity_id = complexities.complexity_id " +
+            "ORDER BY bundle_date, word_id";
         
-        Properties defProps = new Properties();
-        Properties statsProps = new Properties();
+        String delimiter = WordManager.DELIMITER + WordManager.DELIMITER;
+        String statsDelimiter = WordStats.DELIMITER;
         
-        int i = 0;
-        try (PreparedStatement ps = con.prepareStatement(query)) {
+        try (PreparedStatement ps = prepareCursor(con, query);
             ResultSet rs = ps.executeQuery();
-            String delimiter = WordManager.DELIMITER + WordManager.DELIMITER;
-            
-            try (Writer out = Files.newBufferedWriter(
+            BufferedWriter out = Files.newBufferedWriter(
                 currentDir.resolve(WordManager.FILE_NAME),
-                StandardCharsets.UTF_8)) {
-                Map<LocalDate, StringBuilder> formattedWordMap = new HashMap<>();
-                while (rs.next()) {
-                    String word = rs.getString("word");
-                    String translation = rs.getString("translation");
-                    String synonyms = rs.getString("synonyms");
-                    LocalDate date = rs.getDate("bundle_date").toLocalDate();
-                    
-                    int timesPicked = rs.getInt("times_picked");
-                    long lastPickedTimestamp = rs.getLong("last_picked_timestamp");
-                    String complexityName = rs.getString("complexity_name");
-                    
-                    StringBuilder line = formattedWordMap.getOrDefault(
-                        date, new StringBuilder());
-                    line.append(word).append(delimiter).append(translation);
-                    if (!synonyms.isEmpty())
-                        line.append(delimiter).append(synonyms);
-                    line.append(System.lineSeparator());
-                    formattedWordMap.put(date, line);
-                    
-                    String definition = rs.getString("definition");
-                    
-                    if (definition != null) defProps.setProperty(word, definition);
-                    
-                    String statsDelimiter = WordStats.DELIMITER;
-                    statsProps.setProperty(word, timesPicked + statsDelimiter +
-                        lastPickedTimestamp + statsDelimiter + complexityName);
-                    
-                    i++;
+                StandardCharsets.UTF_8);
+            PropertiesWriter defOut = new PropertiesWriter(
+                currentDir.resolve(WordDefinitions.FILE_NAME), "Autogenerated");
+            PropertiesWriter statsOut = new PropertiesWriter(
+                currentDir.resolve(WordStats.FILE_NAME), "Autogenerated")) {
+            int i = 0;
+            LocalDate bundle = null;
+            
+            while (rs.next()) {
+                String word = rs.getString("word");
+                String translation = rs.getString("translation");
+                String synonyms = rs.getString("synonyms");
+                LocalDate date = rs.getDate("bundle_date").toLocalDate();
+                
+                int timesPicked = rs.getInt("times_picked");
+                long lastPickedTimestamp = rs.getLong("last_picked_timestamp");
+                String complexityName = rs.getString("complexity_name");
+                
+                // rows are ordered by bundle
+                if (!date.equals(bundle)) {
+                    bundle = date;
+                    out.append(WordManager.BUNDLE_PREFIX)
+                        .append(DateTimeUtils.localDateToString(date))
+                        .append(System.lineSeparator());
                 }
                 
+                out.append(word).append(delimiter).append(translation);
+                if (!synonyms.isEmpty())
+                    out.append(delimiter).append(synonyms);
+                out.append(System.lineSeparator());
                 
-                formattedWordMap.forEach((date, sb) -> {
-                    try {
-                        out.append(WordManager.BUNDLE_PREFIX)
-                            .append(DateTimeUtils.localDateToString(date))
-                            .append(System.lineSeparator()).append(sb);
-                    } catch (IOException ex) { }
-                });
+                String definition = rs.getString("definition");
+                if (definition != null) defOut.put(word, definition);
                 
-                out.flush();
+                statsOut.put(word, timesPicked + statsDelimiter +
+                    lastPickedTimestamp + statsDelimiter + complexityName);
                 
+                i++;
             }
             
-            defProps.store(Files.newBufferedWriter(
-                currentDir.resolve(WordDefinitions.FILE_NAME)),
-                "Autogenerated");
-            
-            statsProps.store(Files.newBufferedWriter(
-                currentDir.resolve(WordStats.FILE_NAME)),
-                "Autogenerated");
-            
             System.out.println("Backuped " + i + " words");
-        } catch (Exception e) {
-            e.printStackTrace();
         }
     }
     
-    private void backupFutureWords() {
+    private void backupFutureWords(Connection con)
+        throws SQLException, IOException {
         String query = "SELECT future_word, priority FROM future_words";
         
         String delimiter =
             FutureWordManager.DELIMITER + FutureWordManager.DELIMITER;
         
-        try (PreparedStatement ps = con.prepareStatement(query)) {
+        try (PreparedStatement ps = prepareCursor(con, query);
             ResultSet rs = ps.executeQuery();
-            
-            try (BufferedWriter out =
-                Files.newBufferedWriter(
-                    currentDir.resolve(FutureWordManager.FILE_NAME))) {
-                int i = 0;
-                while (rs.next()) {
-                    String futureWord = rs.getString("future_word");
-                    int priority = rs.getInt("priority");
-                    
-                    out.append(futureWord).append(delimiter).append("" + priority);
-                    out.newLine();
-                    
-                    i++;
-                }
+            BufferedWriter out = Files.newBufferedWriter(
+                currentDir.resolve(FutureWordManager.FILE_NAME))) {
+            int i = 0;
+            while (rs.next()) {
+                String futureWord = rs.getString("future_word");
+                int priority = rs.getInt("priority");
                 
-                out.flush();
+                out.append(futureWord).append(delimiter).append("" + priority);
+                out.newLine();
                 
-                System.out.println("Saved " + i + " future words");
+                i++;
             }
-        } catch (Exception e) {
-            e.printStackTrace();
+            
+            System.out.println("Saved " + i + " future words");
         }
     }
 }
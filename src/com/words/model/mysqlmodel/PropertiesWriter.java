@@ -0,0 +1,85 @@
+package com.words.model.mysqlmodel;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+
+/**
+ * Writes properties file entry by entry, so properties don't have to be
+ * collected in memory. Output is read by Properties.load the same way as
+ * output of Properties.store with a writer.
+ * @author vlad
+ */
+class PropertiesWriter implements Closeable {
+    
+    private final BufferedWriter out;
+    private final StringBuilder line = new StringBuilder();
+    private int size = 0;
+    
+    /**
+     * Creates file and writes header.
+     * @param file properties file
+     * @param comment header comment
+     * @throws IOException if file can't be written
+     */
+    PropertiesWriter(Path file, String comment) throws IOException {
+        out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        out.write("#" + comment);
+        out.newLine();
+        out.write("#" + new Date().toString());
+        out.newLine();
+    }
+    
+    /**
+     * Writes single entry.
+     * @param key property key
+     * @param value property value
+     * @throws IOException if entry can't be written
+     */
+    void put(String key, String value) throws IOException {
+        line.setLength(0);
+        escape(key, true);
+        line.append('=');
+        escape(value, false);
+        
+        out.append(line);
+        out.newLine();
+        size++;
+    }
+    
+    /** @return amount of written entries */
+    int size() {
+        return size;
+    }
+    
+    // same escaping as Properties.store uses for writers
+    private void escape(String text, boolean isKey) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case ' ':
+                    if (i == 0 || isKey) line.append('\\');
+                    line.append(' ');
+                    break;
+                case '\t': line.append("\\t"); break;
+                case '\n': line.append("\\n"); break;
+                case '\r': line.append("\\r"); break;
+                case '\f': line.append("\\f"); break;
+                case '\\': case '=': case ':': case '#': case '!':
+                    line.append('\\').append(c);
+                    break;
+                default:
+                    line.append(c);
+            }
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
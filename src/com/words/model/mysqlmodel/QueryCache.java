@@ -0,0 +1,134 @@
+package com.words.model.mysqlmodel;
+
+import com.words.controller.words.Word;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Results of bundle and aggregate queries of MysqlModel.
+ * Model reads through the cache and reports every change of the words,
+ * so cached results are updated in place or dropped precisely.
+ * Every change increments version; result which has been loaded while
+ * the version changed is not cached, because it may be stale.
+ * @author vlad
+ */
+class QueryCache {
+    
+    private long version = 0L;
+    
+    // bundles which have words, null if not loaded
+    private NavigableSet<LocalDate> bundles = null;
+    
+    private final Map<LocalDate, List<Word>> bundleWords = new HashMap<>();
+    
+    // sum of times picked of all words, null if not loaded
+    private Long totalIterations = null;
+    
+    /** @return version to be passed to put methods after loading */
+    synchronized long version() {
+        return version;
+    }
+    
+    /** @return copy of cached bundles or null */
+    synchronized NavigableSet<LocalDate> getBundles() {
+        return bundles == null ? null : new TreeSet<>(bundles);
+    }
+    
+    synchronized void putBundles(NavigableSet<LocalDate> loaded,
+        long loadedVersion) {
+        if (loadedVersion == version) bundles = new TreeSet<>(loaded);
+    }
+    
+    /** @return true if bundle has words, null if bundles aren't cached */
+    synchronized Boolean isExistingBundle(LocalDate bundle) {
+        return bundles == null ? null : bundles.contains(bundle);
+    }
+    
+    /** @return copy of cached words of the bundle or null */
+    synchronized List<Word> getBundle(LocalDate bundle) {
+        List<Word> words = bundleWords.get(bundle);
+        return words == null ? null : new ArrayList<>(words);
+    }
+    
+    synchronized void putBundle(LocalDate bundle, Collection<Word> words,
+        long loadedVersion) {
+        if (loadedVersion == version)
+            bundleWords.put(bundle, new ArrayList<>(words));
+    }
+    
+    synchronized Long getTotalIterations() {
+        return totalIterations;
+    }
+    
+    synchronized void putTotalIterations(long iterations, long loadedVersion) {
+        if (loadedVersion == version) totalIterations = iterations;
+    }
+    
+    /**
+     * Word has been inserted.
+     * @param word new word
+     */
+    synchronized void wordAdded(Word word) {
+        version++;
+        
+        if (bundles != null) bundles.add(word.getBundle());
+        
+        List<Word> words = bundleWords.get(word.getBundle());
+        if (words != null) {
+            words.removeIf(w -> w.getWord().equals(word.getWord()));
+            words.add(word);
+        }
+        
+        if (totalIterations != null) totalIterations += word.getTimesPicked();
+    }
+    
+    /**
+     * Word has been deleted.
+     * @param word deleted word
+     * @param instance deleted word instance or null if it's unknown
+     */
+    synchronized void wordDeleted(String word, Word instance) {
+        version++;
+        totalIterations = null;
+        
+        if (instance == null) {
+            bundles = null;
+            bundleWords.clear();
+            return;
+        }
+        
+        LocalDate bundle = instance.getBundle();
+        List<Word> words = bundleWords.get(bundle);
+        if (words == null) {
+            // it's unknown if it was the last word of the bundle
+            bundles = null;
+            return;
+        }
+        
+        words.removeIf(w -> w.getWord().equals(word));
+        if (words.isEmpty() && bundles != null) bundles.remove(bundle);
+    }
+    
+    /**
+     * Word has been picked.
+     * @param times number of times word has been picked
+     */
+    synchronized void wordPicked(int times) {
+        version++;
+        if (totalIterations != null) totalIterations += times;
+    }
+    
+    /** Drops all cached results. */
+    synchronized void clear() {
+        version++;
+        bundles = null;
+        bundleWords.clear();
+        totalIterations = null;
+    }
+}
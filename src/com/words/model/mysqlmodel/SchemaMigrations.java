@@ -0,0 +1,188 @@
+package com.words.model.mysqlmodel;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Versioned schema migrations of the database.
+ * Base schema is created by create_tables.sql and has version 0.
+ * Applied migrations are recorded in schema_version table, so every
+ * migration is applied exactly once and existing databases evolve without
+ * being recreated. New migrations are appended to the end of the list
+ * with the next version, applied migrations must never be changed.
+ * MySQL commits DDL implicitly, so a failed migration may be partially
+ * applied. Every statement of a migration checks database metadata and
+ * is skipped if its change already exists, so a failed migration is simply
+ * retried on the next startup. Metadata is read through JDBC, so
+ * migrations work with every engine of the model.
+ * @author vlad
+ */
+class SchemaMigrations {
+    
+    static final String VERSION_TABLE = "schema_version";
+    
+    // tells if change of the statement already exists
+    private interface Check {
+        boolean exists(DatabaseMetaData metaData, String catalog)
+            throws SQLException;
+    }
+    
+    // statement with a check which tells if it has been already applied
+    private static class Step {
+        private final String sql;
+        // null for statements which can be repeated
+        private final Check applied;
+        
+        private Step(String sql, Check applied) {
+            this.sql = sql;
+            this.applied = applied;
+        }
+    }
+    
+    private static class Migration {
+        private final int version;
+        private final String description;
+        private final List<Step> steps;
+        
+        private Migration(int version, String description, Step... steps) {
+            this.version = version;
+            this.description = description;
+            this.steps = Arrays.asList(steps);
+        }
+    }
+    
+    private static Step addColumn(String table, String column,
+        String definition) {
+        return new Step("ALTER TABLE " + table + " ADD COLUMN " + column +
+            " " + definition, (metaData, catalog) -> {
+                try (ResultSet rs = metaData.getColumns(catalog, null,
+                    table, column)) {
+                    return rs.next();
+                }
+            });
+    }
+    
+    private static Step createIndex(String table, String index,
+        String columns) {
+        return new Step("CREATE INDEX " + index + " ON " + table +
+            " (" + columns + ")", (metaData, catalog) -> {
+                try (ResultSet rs = metaData.getIndexInfo(catalog, null,
+                    table, false, false)) {
+                    while (rs.next()) {
+                        if (index.equalsIgnoreCase(rs.getString("INDEX_NAME")))
+                            return true;
+                    }
+                    
+                    return false;
+                }
+            });
+    }
+    
+    private static Step update(String sql) {
+        return new Step(sql, null);
+    }
+    
+    // canonical word is the word without leading "to ", see WordIndex
+    private static final String CANONICAL_WORD_SQL =
+        "TRIM(CASE WHEN word LIKE 'to %' THEN SUBSTRING(word, 4) " +
+        "ELSE word END)";
+    
+    private static final List<Migration> MIGRATIONS =
+        Collections.unmodifiableList(Arrays.asList(
+            new Migration(1, "canonical word column",
+                addColumn("words", "canonical_word",
+                    "VARCHAR(100) NOT NULL DEFAULT ''"),
+                update("UPDATE words SET canonical_word = " +
+                    CANONICAL_WORD_SQL),
+                createIndex("words", "idx_words_canonical_word",
+                    "canonical_word")),
+            new Migration(2, "covering index of repeat words by date",
+                createIndex("repeat_words", "idx_repeat_words_date_word",
+                    "date_added, word_id")),
+            new Migration(3, "index of words by last picked timestamp",
+                createIndex("words", "idx_words_last_picked_timestamp",
+                    "last_picked_timestamp"))
+        ));
+    
+    private SchemaMigrations() { throw new AssertionError(); }
+    
+    /**
+     * Applies migrations which haven't been applied yet.
+     * Every migration is committed separately along with its version.
+     * @param con connection with auto-commit disabled
+     * @return amount of applied migrations
+     * @throws SQLException if migration fails, previous migrations stay
+     *         applied
+     */
+    static int migrate(Connection con) throws SQLException {
+        try (Statement statement = con.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " +
+                VERSION_TABLE + " (" +
+                "version INT NOT NULL PRIMARY KEY, " +
+                "description VARCHAR(255) NOT NULL, " +
+                "applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+        }
+        con.commit();
+        
+        int current = currentVersion(con);
+        int applied = 0;
+        
+        for (Migration migration : MIGRATIONS) {
+            if (migration.version <= current) continue;
+            
+            long start = System.nanoTime();
+            try (Statement statement = con.createStatement()) {
+                for (Step step : migration.steps) {
+                    if (!isApplied(con, step))
+                        statement.executeUpdate(step.sql);
+                }
+            }
+            
+            try (PreparedStatement ps = con.prepareStatement(
+                "INSERT INTO " + VERSION_TABLE +
+                    " (version, description) VALUES (?, ?)")) {
+                ps.setInt(1, migration.version);
+                ps.setString(2, migration.description);
+                ps.executeUpdate();
+            }
+            con.commit();
+            applied++;
+            
+            System.out.println(String.format(
+                "Applied schema migration %d (%s) in %d ms",
+                migration.version, migration.description,
+                (System.nanoTime() - start) / 1_000_000));
+        }
+        
+        return applied;
+    }
+    
+    // checks if statement has been applied by a failed attempt
+    private static boolean isApplied(Connection con, Step step)
+        throws SQLException {
+        if (step.applied == null) return false;
+        
+        return step.applied.exists(con.getMetaData(), con.getCatalog());
+    }
+    
+    /**
+     * Get current schema version.
+     * @param con connection
+     * @return version of the last applied migration, 0 for base schema
+     * @throws SQLException if version table can't be read
+     */
+    static int currentVersion(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(
+            "SELECT MAX(version) FROM " + VERSION_TABLE)) {
+            ResultSet rs = ps.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
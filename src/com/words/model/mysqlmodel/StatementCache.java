@@ -0,0 +1,153 @@
+package com.words.model.mysqlmodel;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of prepared statements of a single pooled connection.
+ * Statements are keyed by query and live as long as the connection,
+ * so queries are parsed and planned by the server only once.
+ * Closing a cached statement returns it to the cache instead.
+ * If the statement is already in use, uncached one is prepared.
+ * @author vlad
+ */
+class StatementCache {
+    
+    // max amount of cached statements per connection
+    static final int MAX_STATEMENTS = 64;
+    
+    private final Connection connection;
+    
+    // statements in access order
+    private final LinkedHashMap<String, PreparedStatement> statements =
+        new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<PreparedStatement> inUse =
+        Collections.newSetFromMap(new IdentityHashMap<>());
+    
+    // statistics shared by all connections of the pool
+    private final LongAdder hits;
+    private final LongAdder misses;
+    
+    StatementCache(Connection connection, LongAdder hits, LongAdder misses) {
+        this.connection = connection;
+        this.hits = hits;
+        this.misses = misses;
+    }
+    
+    /**
+     * Get prepared statement for the query.
+     * @param sql query
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS or
+     *                          Statement.NO_GENERATED_KEYS
+     * @return statement, should be closed after use
+     * @throws SQLException if statement can't be prepared
+     */
+    synchronized PreparedStatement prepare(String sql, int autoGeneratedKeys)
+        throws SQLException {
+        String key = autoGeneratedKeys + sql;
+        PreparedStatement ps = statements.get(key);
+        
+        if (ps != null && inUse.contains(ps)) {
+            return connection.prepareStatement(sql, autoGeneratedKeys);
+        }
+        
+        if (ps == null) {
+            misses.increment();
+            ps = connection.prepareStatement(sql, autoGeneratedKeys);
+            statements.put(key, ps);
+            evict();
+        } else {
+            hits.increment();
+        }
+        
+        inUse.add(ps);
+        return wrap(ps);
+    }
+    
+    private void evict() {
+        Iterator<PreparedStatement> iter = statements.values().iterator();
+        while (statements.size() > MAX_STATEMENTS && iter.hasNext()) {
+            PreparedStatement ps = iter.next();
+            if (inUse.contains(ps)) continue;
+            
+            iter.remove();
+            close(ps);
+        }
+    }
+    
+    private synchronized void giveBack(PreparedStatement ps) {
+        inUse.remove(ps);
+        
+        try {
+            // result set is closed as it would be by closing statement
+            ResultSet rs = ps.getResultSet();
+            if (rs != null) rs.close();
+            
+            ps.clearParameters();
+            ps.clearBatch();
+        } catch (SQLException ex) {
+            // broken statement is prepared again next time
+            statements.values().remove(ps);
+            close(ps);
+            return;
+        }
+        
+        // statement could be evicted while in use
+        if (!statements.containsValue(ps)) close(ps);
+    }
+    
+    // statement which returns to the cache on close
+    private PreparedStatement wrap(PreparedStatement ps) {
+        boolean[] returned = { false };
+        
+        return (PreparedStatement) Proxy.newProxyInstance(
+            PreparedStatement.class.getClassLoader(),
+            new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+                if (method.getDeclaringClass() != Object.class) {
+                    switch (method.getName()) {
+                        case "close":
+                            if (!returned[0]) {
+                                returned[0] = true;
+                                giveBack(ps);
+                            }
+                            return null;
+                        case "isClosed":
+                            return returned[0] || ps.isClosed();
+                        default:
+                            if (returned[0]) throw new SQLException(
+                                "Statement has been returned to the cache");
+                    }
+                }
+                
+                try {
+                    return method.invoke(ps, args);
+                } catch (InvocationTargetException ex) {
+                    throw ex.getCause();
+                }
+            });
+    }
+    
+    private static void close(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignore) { }
+    }
+    
+    /** Closes all cached statements. */
+    synchronized void clear() {
+        statements.values().forEach(StatementCache::close);
+        statements.clear();
+        inUse.clear();
+    }
+}
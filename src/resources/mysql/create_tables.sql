@@ -1,3 +1,4 @@
+-- base schema (version 0), later changes are applied by SchemaMigrations
 DROP TABLE IF EXISTS bundles;
 CREATE TABLE bundles (
     bundle_id INT NOT NULL PRIMARY KEY AUTO_INCREMENT,